@@ -0,0 +1,305 @@
+package ch.cyberduck.core.azure;
+
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.DefaultIOExceptionMappingService;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathContainerService;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.features.Upload;
+import ch.cyberduck.core.features.Write;
+import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.StreamCopier;
+import ch.cyberduck.core.io.StreamListener;
+import ch.cyberduck.core.io.ThrottledInputStream;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.BackgroundExceptionCallable;
+import ch.cyberduck.core.threading.DefaultRetryCallable;
+import ch.cyberduck.core.threading.SharedThreadPool;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.log4j.Logger;
+import org.bouncycastle.util.encoders.Base64;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import com.microsoft.azure.storage.AccessCondition;
+import com.microsoft.azure.storage.Constants;
+import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.blob.BlobRequestOptions;
+import com.microsoft.azure.storage.blob.BlockEntry;
+import com.microsoft.azure.storage.blob.BlockListingFilter;
+import com.microsoft.azure.storage.blob.BlockSearchMode;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+
+/**
+ * Upload block blob with blocks staged concurrently using <code>Put Block</code> and committed with
+ * <code>Put Block List</code>. Block IDs are derived from the file size, block size and index to skip blocks found with
+ * the same length in the uncommitted block list when resuming.
+ */
+public class AzureMultipartUploadService implements Upload<Void> {
+    private static final Logger log = Logger.getLogger(AzureMultipartUploadService.class);
+
+    /**
+     * Maximum number of committed blocks in a blob
+     */
+    public static final int MAXIMUM_UPLOAD_PARTS = 50000;
+
+    private final AzureSession session;
+    private final OperationContext context;
+
+    private final PathContainerService containerService
+        = new AzurePathContainerService();
+
+    private final AzureWriteFeature writer;
+
+    private final Long partsize;
+    private final Integer concurrency;
+
+    public AzureMultipartUploadService(final AzureSession session, final OperationContext context) {
+        this(session, context, PreferencesFactory.get().getLong("azure.upload.multipart.size"),
+            PreferencesFactory.get().getInteger("azure.upload.multipart.concurrency"));
+    }
+
+    public AzureMultipartUploadService(final AzureSession session, final OperationContext context, final Long partsize, final Integer concurrency) {
+        this.session = session;
+        this.context = context;
+        this.writer = new AzureWriteFeature(session, context);
+        this.partsize = partsize;
+        this.concurrency = concurrency;
+    }
+
+    @Override
+    public Void upload(final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
+                       final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
+        final ThreadPool pool = new SharedThreadPool(session.getHost(), "multipart", concurrency);
+        try {
+            final CloudBlockBlob blob = session.getClient().getContainerReference(containerService.getContainer(file).getName())
+                .getBlockBlobReference(containerService.getKey(file));
+            writer.setProperties(blob, status);
+            final BlobRequestOptions options = new BlobRequestOptions();
+            options.setConcurrentRequestCount(1);
+            // Content-MD5 for every block verified by server
+            options.setUseTransactionalContentMD5(true);
+            options.setStoreBlobContentMD5(false);
+            // Full size of file
+            final long size = status.getLength() + status.getOffset();
+            final long blocksize = this.blocksize(size);
+            final Map<String, Long> uncommitted = new HashMap<>();
+            if(status.isAppend()) {
+                // Only list staged blocks when resuming
+                uncommitted.putAll(this.uncommitted(blob, options));
+            }
+            final List<BlockEntry> blocks = new ArrayList<>();
+            final List<Future<BlockEntry>> pending = new ArrayList<>();
+            try {
+                long offset = 0;
+                for(int index = 0; offset < size; index++) {
+                    final long length = Math.min(blocksize, size - offset);
+                    final String id = this.id(size, blocksize, index);
+                    blocks.add(new BlockEntry(id, BlockSearchMode.UNCOMMITTED));
+                    if(this.isStaged(uncommitted, id, length)) {
+                        if(log.isInfoEnabled()) {
+                            log.info(String.format("Skip uncommitted block %d with length %d", index, length));
+                        }
+                    }
+                    else {
+                        pending.add(this.submit(pool, file, local, blob, options, throttle, listener, status, id, offset, length));
+                    }
+                    offset += length;
+                }
+                for(Future<BlockEntry> future : pending) {
+                    try {
+                        future.get();
+                    }
+                    catch(InterruptedException e) {
+                        log.error("Block upload failed with interrupt failure");
+                        status.setCanceled();
+                        throw new ConnectionCanceledException(e);
+                    }
+                    catch(ExecutionException e) {
+                        log.warn(String.format("Block upload failed with execution failure %s", e.getMessage()));
+                        if(e.getCause() instanceof BackgroundException) {
+                            throw (BackgroundException) e.getCause();
+                        }
+                        throw new BackgroundException(e.getCause());
+                    }
+                }
+            }
+            finally {
+                // Cancel future tasks
+                pool.shutdown(false);
+            }
+            blob.commitBlockList(blocks, AccessCondition.generateEmptyCondition(), options, context);
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Committed %d blocks for %s", blocks.size(), file));
+            }
+            // Mark parent status as complete
+            status.setComplete();
+            return null;
+        }
+        catch(StorageException e) {
+            throw new AzureExceptionMappingService().map("Upload {0} failed", e, file);
+        }
+        catch(URISyntaxException e) {
+            throw new NotfoundException(e.getMessage(), e);
+        }
+    }
+
+    private Future<BlockEntry> submit(final ThreadPool pool, final Path file, final Local local, final CloudBlockBlob blob,
+                                      final BlobRequestOptions options, final BandwidthThrottle throttle, final StreamListener listener,
+                                      final TransferStatus overall, final String id, final long offset, final long length) {
+        if(log.isInfoEnabled()) {
+            log.info(String.format("Submit block %s of %s to queue with offset %d and length %d", id, file, offset, length));
+        }
+        return pool.execute(new DefaultRetryCallable<BlockEntry>(session.getHost(), new BackgroundExceptionCallable<BlockEntry>() {
+            @Override
+            public BlockEntry call() throws BackgroundException {
+                overall.validate();
+                // Mark supported stream of file segment to compute MD5 and retry without copying block to memory
+                final InputStream in = new BoundedInputStream(
+                    new ThrottledInputStream(StreamCopier.skip(local.getInputStream(), offset), throttle), length);
+                try {
+                    blob.uploadBlock(id, in, length, AccessCondition.generateEmptyCondition(), options, context);
+                    listener.sent(length);
+                    overall.progress(length);
+                    return new BlockEntry(id, BlockSearchMode.UNCOMMITTED);
+                }
+                catch(StorageException e) {
+                    throw new AzureExceptionMappingService().map("Upload {0} failed", e, file);
+                }
+                catch(IOException e) {
+                    throw new DefaultIOExceptionMappingService().map("Upload {0} failed", e, file);
+                }
+                finally {
+                    IOUtils.closeQuietly(in);
+                }
+            }
+        }, overall));
+    }
+
+    /**
+     * @param size Length of file
+     * @return Block size for file not exceeding maximum number of blocks
+     */
+    protected long blocksize(final long size) {
+        return Math.min(Math.max(size / (MAXIMUM_UPLOAD_PARTS - 1), partsize), Constants.MAX_BLOCK_SIZE);
+    }
+
+    /**
+     * @param size      Length of file
+     * @param blocksize Length of blocks
+     * @param index     Block number
+     * @return Base64 encoded ID of same length for all blocks of file
+     */
+    protected String id(final long size, final long blocksize, final int index) {
+        return Base64.toBase64String(String.format("%016x-%016x-%08d", size, blocksize, index).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @return True if block with ID has been staged with the expected length
+     */
+    private boolean isStaged(final Map<String, Long> uncommitted, final String id, final long length) {
+        final Long staged = uncommitted.get(id);
+        if(null == staged) {
+            return false;
+        }
+        if(staged != length) {
+            log.warn(String.format("Mismatch of length %d for staged block %s with expected length %d", staged, id, length));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return Length of staged blocks by ID
+     */
+    protected Map<String, Long> uncommitted(final CloudBlockBlob blob, final BlobRequestOptions options) throws BackgroundException {
+        final Map<String, Long> blocks = new HashMap<>();
+        try {
+            for(BlockEntry entry : blob.downloadBlockList(BlockListingFilter.UNCOMMITTED, AccessCondition.generateEmptyCondition(), options, context)) {
+                blocks.put(entry.getId(), entry.getSize());
+            }
+        }
+        catch(StorageException e) {
+            final BackgroundException failure = new AzureExceptionMappingService().map(e);
+            if(failure instanceof NotfoundException) {
+                // No blocks staged
+                return blocks;
+            }
+            throw failure;
+        }
+        if(log.isInfoEnabled()) {
+            log.info(String.format("Found %d uncommitted blocks for %s", blocks.size(), blob.getName()));
+        }
+        return blocks;
+    }
+
+    /**
+     * @return Total length of uncommitted blocks of previous attempt to upload file
+     */
+    public long uncommitted(final Path file, final long length) throws BackgroundException {
+        try {
+            final CloudBlockBlob blob = session.getClient().getContainerReference(containerService.getContainer(file).getName())
+                .getBlockBlobReference(containerService.getKey(file));
+            final Map<String, Long> uncommitted = this.uncommitted(blob, new BlobRequestOptions());
+            final long blocksize = this.blocksize(length);
+            long size = 0L;
+            long offset = 0L;
+            for(int index = 0; offset < length; index++) {
+                final long block = Math.min(blocksize, length - offset);
+                final String id = this.id(length, blocksize, index);
+                if(this.isStaged(uncommitted, id, block)) {
+                    size += block;
+                }
+                offset += block;
+            }
+            return size;
+        }
+        catch(URISyntaxException e) {
+            throw new NotfoundException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Write.Append append(final Path file, final Long length, final Cache<Path> cache) throws BackgroundException {
+        return writer.append(file, length, cache);
+    }
+
+    @Override
+    public Upload<Void> withWriter(final Write<Void> writer) {
+        return this;
+    }
+}
@@ -166,35 +166,7 @@ public class AzureWriteFeature extends AppendWriteFeature<Void> implements Write
                             .getBlockBlobReference(containerService.getKey(file));
                 }
             }
-            if(StringUtils.isNotBlank(status.getMime())) {
-                blob.getProperties().setContentType(status.getMime());
-            }
-            // Add previous metadata when overwriting file
-            final HashMap<String, String> headers = new HashMap<>(status.getMetadata());
-            blob.setMetadata(headers);
-            // Remove additional headers not allowed in metadata and move to properties
-            if(headers.containsKey(HttpHeaders.CACHE_CONTROL)) {
-                blob.getProperties().setCacheControl(headers.get(HttpHeaders.CACHE_CONTROL));
-                headers.remove(HttpHeaders.CACHE_CONTROL);
-            }
-            if(headers.containsKey(HttpHeaders.CONTENT_TYPE)) {
-                blob.getProperties().setContentType(headers.get(HttpHeaders.CONTENT_TYPE));
-                headers.remove(HttpHeaders.CONTENT_TYPE);
-            }
-            final Checksum checksum = status.getChecksum();
-            if(Checksum.NONE != checksum) {
-                switch(checksum.algorithm) {
-                    case md5:
-                        try {
-                            blob.getProperties().setContentMD5(Base64.toBase64String(Hex.decodeHex(status.getChecksum().hash.toCharArray())));
-                            headers.remove(HttpHeaders.CONTENT_MD5);
-                        }
-                        catch(DecoderException e) {
-                            // Ignore
-                        }
-                        break;
-                }
-            }
+            this.setProperties(blob, status);
             final BlobRequestOptions options = new BlobRequestOptions();
             options.setConcurrentRequestCount(1);
             options.setStoreBlobContentMD5(preferences.getBoolean("azure.upload.md5"));
@@ -238,4 +210,39 @@ public class AzureWriteFeature extends AppendWriteFeature<Void> implements Write
             throw new NotfoundException(e.getMessage(), e);
         }
     }
+
+    /**
+     * Set content type, metadata and checksum of blob to be written
+     */
+    protected void setProperties(final CloudBlob blob, final TransferStatus status) {
+        if(StringUtils.isNotBlank(status.getMime())) {
+            blob.getProperties().setContentType(status.getMime());
+        }
+        // Add previous metadata when overwriting file
+        final HashMap<String, String> headers = new HashMap<>(status.getMetadata());
+        blob.setMetadata(headers);
+        // Remove additional headers not allowed in metadata and move to properties
+        if(headers.containsKey(HttpHeaders.CACHE_CONTROL)) {
+            blob.getProperties().setCacheControl(headers.get(HttpHeaders.CACHE_CONTROL));
+            headers.remove(HttpHeaders.CACHE_CONTROL);
+        }
+        if(headers.containsKey(HttpHeaders.CONTENT_TYPE)) {
+            blob.getProperties().setContentType(headers.get(HttpHeaders.CONTENT_TYPE));
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+        }
+        final Checksum checksum = status.getChecksum();
+        if(Checksum.NONE != checksum) {
+            switch(checksum.algorithm) {
+                case md5:
+                    try {
+                        blob.getProperties().setContentMD5(Base64.toBase64String(Hex.decodeHex(status.getChecksum().hash.toCharArray())));
+                        headers.remove(HttpHeaders.CONTENT_MD5);
+                    }
+                    catch(DecoderException e) {
+                        // Ignore
+                    }
+                    break;
+            }
+        }
+    }
 }
@@ -28,6 +28,7 @@ import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.*;
 import ch.cyberduck.core.http.HttpSession;
 import ch.cyberduck.core.proxy.Proxy;
+import ch.cyberduck.core.shared.ConcurrentRangeReadFeature;
 import ch.cyberduck.core.ssl.X509KeyManager;
 import ch.cyberduck.core.ssl.X509TrustManager;
 import ch.cyberduck.core.threading.CancelCallback;
@@ -105,7 +106,7 @@ public class B2Session extends HttpSession<B2ApiClient> {
             return (T) new B2TouchFeature(this, fileid);
         }
         if(type == Read.class) {
-            return (T) new B2ReadFeature(this, fileid);
+            return (T) new ConcurrentRangeReadFeature(host, new B2ReadFeature(this, fileid), new B2AttributesFinderFeature(this, fileid));
         }
         if(type == Upload.class) {
             return (T) new B2ThresholdUploadService(this, fileid);
@@ -0,0 +1,153 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.ui.browser.SearchFilter;
+import ch.cyberduck.ui.comparator.FilenameComparator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare listing of synthetic directories into {@link AttributedList} with the previous implementation backed by
+ * {@link CopyOnWriteArrayList}. Run with <code>java -jar benchmark/target/benchmarks.jar AttributedListBenchmark</code>.
+ * Expect the copy on write baseline with one million entries to take minutes per iteration as appending is quadratic.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AttributedListBenchmark {
+
+    /**
+     * Number of entries after which listing services notify listeners with the current listing
+     */
+    private static final int CHUNK = 200;
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"attributed", "copyonwrite"})
+    public String implementation;
+
+    private final List<Path> files = new ArrayList<>();
+    private final List<Path> references = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        files.clear();
+        for(int i = 0; i < size; i++) {
+            files.add(new Path(directory, String.format("f-%d", i), EnumSet.of(Path.Type.file)));
+        }
+        references.clear();
+        for(int i = 0; i < 1000; i++) {
+            references.add(new Path(directory, String.format("f-%d", ThreadLocalRandom.current().nextInt(size)), EnumSet.of(Path.Type.file)));
+        }
+    }
+
+    @Benchmark
+    public void list(final Blackhole blackhole) {
+        if("copyonwrite".equals(implementation)) {
+            final List<Path> children = new CopyOnWriteArrayList<>();
+            for(Path file : files) {
+                children.add(file);
+                if(children.size() % CHUNK == 0) {
+                    blackhole.consume(children.size());
+                }
+            }
+            blackhole.consume(children);
+        }
+        else {
+            final AttributedList<Path> children = new AttributedList<>();
+            for(Path file : files) {
+                children.add(file);
+                if(children.size() % CHUNK == 0) {
+                    blackhole.consume(children.size());
+                }
+            }
+            blackhole.consume(children);
+        }
+    }
+
+    @Benchmark
+    public void lookup(final Blackhole blackhole) {
+        if("copyonwrite".equals(implementation)) {
+            final List<Path> children = new CopyOnWriteArrayList<>(files);
+            for(Path reference : references) {
+                blackhole.consume(children.get(children.indexOf(reference)));
+            }
+        }
+        else {
+            final AttributedList<Path> children = new AttributedList<>(files);
+            for(Path reference : references) {
+                blackhole.consume(children.get(reference));
+            }
+        }
+    }
+
+    @Benchmark
+    public void filter(final Blackhole blackhole) {
+        final SearchFilter filter = new SearchFilter("1");
+        if("copyonwrite".equals(implementation)) {
+            final List<Path> children = new CopyOnWriteArrayList<>(files);
+            final List<Path> filtered = new ArrayList<>();
+            for(Path file : children) {
+                if(filter.accept(file)) {
+                    filtered.add(file);
+                }
+            }
+            blackhole.consume(filtered);
+        }
+        else {
+            blackhole.consume(new AttributedList<>(files).filter(filter));
+        }
+    }
+
+    @Benchmark
+    public void sort(final Blackhole blackhole) {
+        final FilenameComparator comparator = new FilenameComparator(true);
+        if("copyonwrite".equals(implementation)) {
+            final List<Path> sorted = new ArrayList<>(new CopyOnWriteArrayList<>(files));
+            Collections.sort(sorted, comparator);
+            blackhole.consume(sorted);
+        }
+        else {
+            blackhole.consume(new AttributedList<>(files).filter(comparator));
+        }
+    }
+}
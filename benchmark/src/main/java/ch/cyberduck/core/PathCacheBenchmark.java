@@ -0,0 +1,82 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup of files by reference in {@link PathCache} populated with directory listings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PathCacheBenchmark {
+
+    @Param({"100", "1000"})
+    public int directories;
+
+    @Param({"100", "10000"})
+    public int files;
+
+    private final PathCache cache = new PathCache(Integer.MAX_VALUE);
+    private final List<CacheReference<?>> references = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        cache.clear();
+        references.clear();
+        for(int d = 0; d < directories; d++) {
+            final Path directory = new Path(String.format("/d-%d", d), EnumSet.of(Path.Type.directory));
+            final AttributedList<Path> children = new AttributedList<>();
+            for(int f = 0; f < files; f++) {
+                children.add(new Path(directory, String.format("f-%d", f), EnumSet.of(Path.Type.file)));
+            }
+            cache.put(directory, children);
+        }
+        for(int i = 0; i < 1000; i++) {
+            final Path directory = new Path(String.format("/d-%d", ThreadLocalRandom.current().nextInt(directories)), EnumSet.of(Path.Type.directory));
+            references.add(cache.reference(new Path(directory, String.format("f-%d", ThreadLocalRandom.current().nextInt(files)), EnumSet.of(Path.Type.file))));
+        }
+    }
+
+    @Benchmark
+    public void lookup(final Blackhole blackhole) {
+        for(CacheReference<?> reference : references) {
+            blackhole.consume(cache.lookup(reference));
+        }
+    }
+}
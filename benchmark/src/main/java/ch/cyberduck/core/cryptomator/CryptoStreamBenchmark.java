@@ -0,0 +1,94 @@
+package ch.cyberduck.core.cryptomator;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.cryptomator.random.FastSecureRandomProvider;
+import ch.cyberduck.core.cryptomator.random.RandomNonceGenerator;
+import ch.cyberduck.core.io.VoidStatusOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.commons.lang3.RandomUtils;
+import org.cryptomator.cryptolib.Cryptors;
+import org.cryptomator.cryptolib.api.Cryptor;
+import org.cryptomator.cryptolib.api.FileHeader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of encryption and decryption of file content in vaults. Run with
+ * <code>java -jar benchmark/target/benchmarks.jar CryptoStreamBenchmark</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CryptoStreamBenchmark {
+
+    @Param({"32768", "8388608"})
+    public int size;
+
+    private Cryptor cryptor;
+    private FileHeader header;
+    private byte[] cleartext;
+    private byte[] ciphertext;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        cryptor = Cryptors.version1(FastSecureRandomProvider.get().provide()).createNew();
+        header = cryptor.fileHeaderCryptor().create();
+        cleartext = RandomUtils.nextBytes(size);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(size + size / 8);
+        try(CryptoOutputStream<Void> stream = new CryptoOutputStream<>(new VoidStatusOutputStream(out),
+            cryptor.fileContentCryptor(), header, new RandomNonceGenerator(), 0)) {
+            stream.write(cleartext);
+        }
+        ciphertext = out.toByteArray();
+    }
+
+    @Benchmark
+    public void encrypt() throws IOException {
+        try(CryptoOutputStream<Void> stream = new CryptoOutputStream<>(new VoidStatusOutputStream(new NullOutputStream()),
+            cryptor.fileContentCryptor(), header, new RandomNonceGenerator(), 0)) {
+            stream.write(cleartext);
+        }
+    }
+
+    @Benchmark
+    public long decrypt() throws IOException {
+        try(CryptoInputStream stream = new CryptoInputStream(new ByteArrayInputStream(ciphertext),
+            cryptor.fileContentCryptor(), header, 0)) {
+            return IOUtils.copyLarge(stream, new NullOutputStream());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package ch.cyberduck.core.dav;
+
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.xml.sax.SAXException;
+
+import java.io.ByteArrayInputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import com.github.sardine.DavResource;
+import com.github.sardine.model.Multistatus;
+import com.github.sardine.model.Response;
+
+/**
+ * Parsing of synthetic <code>PROPFIND</code> multistatus responses collecting all responses compared to passing
+ * every response to a callback. Run with
+ * <code>java -jar benchmark/target/benchmarks.jar PropFindResponseHandlerBenchmark -prof gc</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PropFindResponseHandlerBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private byte[] multistatus;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n");
+        xml.append("<d:multistatus xmlns:d=\"DAV:\" xmlns:s=\"http://sabredav.org/ns\" xmlns:oc=\"http://owncloud.org/ns\">\n");
+        for(int i = 0; i < size; i++) {
+            xml.append("<d:response><d:href>/remote.php/webdav/d/");
+            if(i % 10 == 0) {
+                xml.append(String.format("d-%d/</d:href><d:propstat><d:prop>", i));
+                xml.append("<d:resourcetype><d:collection/></d:resourcetype>");
+            }
+            else {
+                xml.append(String.format("f-%d.txt</d:href><d:propstat><d:prop>", i));
+                xml.append("<d:resourcetype/>");
+                xml.append(String.format("<d:getcontentlength>%d</d:getcontentlength>", i * 31L));
+                xml.append("<d:getcontenttype>text/plain</d:getcontenttype>");
+            }
+            xml.append("<d:getlastmodified>Tue, 14 Jan 2020 09:21:05 GMT</d:getlastmodified>");
+            xml.append(String.format("<d:getetag>&quot;5e1d8831%08x&quot;</d:getetag>", i));
+            xml.append("</d:prop><d:status>HTTP/1.1 200 OK</d:status></d:propstat></d:response>\n");
+        }
+        xml.append("</d:multistatus>");
+        multistatus = xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void collect(final Blackhole blackhole) throws Exception {
+        final Multistatus result = new SaxPropFindResponseHandler().getMultistatus(new ByteArrayInputStream(multistatus));
+        for(Response response : result.getResponse()) {
+            blackhole.consume(new DavResource(response));
+        }
+    }
+
+    @Benchmark
+    public void stream(final Blackhole blackhole) throws Exception {
+        new SaxPropFindResponseHandler(new SaxPropFindResponseHandler.ResponseCallback() {
+            @Override
+            public void response(final Response response) throws SAXException {
+                try {
+                    blackhole.consume(new DavResource(response));
+                }
+                catch(URISyntaxException e) {
+                    throw new SAXException(e);
+                }
+            }
+        }).getMultistatus(new ByteArrayInputStream(multistatus));
+    }
+}
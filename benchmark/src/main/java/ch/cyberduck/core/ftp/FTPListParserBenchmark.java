@@ -0,0 +1,88 @@
+package ch.cyberduck.core.ftp;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.ftp.list.FTPListResponseReader;
+
+import org.apache.commons.net.ftp.FTPFileEntryParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of synthetic <code>LIST</code> replies without a server connection. Run with
+ * <code>java -jar benchmark/target/benchmarks.jar FTPListParserBenchmark</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FTPListParserBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+    private final List<String> lines = new ArrayList<>();
+
+    private FTPFileEntryParser parser;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        parser = new FTPParserSelector().getParser("UNIX");
+        lines.clear();
+        for(int i = 0; i < size; i++) {
+            if(i % 10 == 0) {
+                lines.add(String.format("drwxr-xr-x   2 ftp      ftp          4096 Mar 14 09:2%d d-%d", i % 10, i));
+            }
+            else {
+                lines.add(String.format("-rw-r--r--   1 ftp      ftp      %12d Jan %2d  2019 f-%d.txt", i * 31L, 1 + i % 28, i));
+            }
+        }
+    }
+
+    @Benchmark
+    public void parse(final Blackhole blackhole) {
+        for(String line : lines) {
+            blackhole.consume(parser.parseFTPEntry(line));
+        }
+    }
+
+    @Benchmark
+    public AttributedList<Path> read() throws Exception {
+        return new FTPListResponseReader(parser).read(directory, lines, new DisabledListProgressListener());
+    }
+}
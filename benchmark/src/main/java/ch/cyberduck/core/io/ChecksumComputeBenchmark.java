@@ -0,0 +1,80 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.lang3.RandomUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of checksum computation over an in memory stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ChecksumComputeBenchmark {
+
+    @Param({"md5", "md5fast", "sha256", "crc32"})
+    public String algorithm;
+
+    @Param({"4096", "8388608"})
+    public int size;
+
+    private byte[] content;
+    private ChecksumCompute compute;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        content = RandomUtils.nextBytes(size);
+        switch(algorithm) {
+            case "md5":
+                compute = new MD5ChecksumCompute();
+                break;
+            case "md5fast":
+                compute = new MD5FastChecksumCompute();
+                break;
+            case "sha256":
+                compute = new SHA256ChecksumCompute();
+                break;
+            case "crc32":
+                compute = new CRC32ChecksumCompute();
+                break;
+        }
+    }
+
+    @Benchmark
+    public Checksum compute() throws Exception {
+        return compute.compute(new ByteArrayInputStream(content), new TransferStatus());
+    }
+}
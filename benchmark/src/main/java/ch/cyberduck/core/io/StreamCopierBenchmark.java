@@ -0,0 +1,91 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.commons.lang3.RandomUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link StreamCopier} copying from memory to a discarding stream and between two local files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StreamCopierBenchmark {
+
+    @Param({"1048576", "67108864"})
+    public int size;
+
+    private byte[] content;
+    private File source;
+    private File target;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        content = RandomUtils.nextBytes(size);
+        source = File.createTempFile("benchmark", null);
+        target = File.createTempFile("benchmark", null);
+        FileUtils.writeByteArrayToFile(source, content);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        FileUtils.deleteQuietly(source);
+        FileUtils.deleteQuietly(target);
+    }
+
+    @Benchmark
+    public TransferStatus stream() throws Exception {
+        final TransferStatus status = new TransferStatus();
+        new StreamCopier(status, status).withLimit((long) size).transfer(new ByteArrayInputStream(content), new NullOutputStream());
+        return status;
+    }
+
+    @Benchmark
+    public TransferStatus channel() throws Exception {
+        final TransferStatus status = new TransferStatus();
+        new StreamCopier(status, status).withLimit((long) size).transfer(
+            new FileChannelInputStream(FileChannel.open(source.toPath(), StandardOpenOption.READ)),
+            new FileChannelOutputStream(FileChannel.open(target.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)));
+        return status;
+    }
+}
@@ -23,36 +23,118 @@ import ch.cyberduck.core.cache.LRUCache;
 import org.apache.log4j.Logger;
 
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 
 public abstract class AbstractCache<T extends Referenceable> implements Cache<T> {
     private static final Logger log = Logger.getLogger(AbstractCache.class);
 
     private final LRUCache<T, AttributedList<T>> impl;
 
+    /**
+     * Secondary index from reference of cached child to its entry in a cached directory listing. Entries are
+     * verified on lookup as cached listings and attributes of children may be modified after being cached.
+     */
+    private final Map<Object, IndexEntry<T>> index
+        = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
     public AbstractCache(int size) {
+        final RemovalListener<T, AttributedList<T>> listener = this::onRemoval;
         if(size == Integer.MAX_VALUE) {
             // Unlimited
-            impl = LRUCache.build();
+            impl = LRUCache.build(listener);
         }
         else {
             // Will inflate to the given size
-            impl = LRUCache.build(size);
+            impl = LRUCache.build(listener, size);
         }
     }
 
     @Override
     public T lookup(final CacheReference<T> reference) {
+        final IndexEntry<T> indexed = index.get(reference);
+        if(null != indexed) {
+            if(this.isCurrent(indexed, reference)) {
+                hits.incrementAndGet();
+                return indexed.item;
+            }
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Discard stale index entry for %s", reference));
+            }
+            index.remove(reference, indexed);
+        }
+        misses.incrementAndGet();
+        // Fallback for references not matching the indexed key or listings modified after being cached
         for(AttributedList<T> entry : impl.asMap().values()) {
             final T f = entry.find(reference);
             if(null == f) {
                 continue;
             }
+            index.put(this.reference(f), new IndexEntry<>(entry, f));
             return f;
         }
         log.warn(String.format("Lookup failed for %s in cache", reference));
         return null;
     }
 
+    /**
+     * @return False if child was removed from its listing or its reference changed with its attributes
+     */
+    private boolean isCurrent(final IndexEntry<T> indexed, final CacheReference<T> reference) {
+        if(!this.reference(indexed.item).equals(reference)) {
+            return false;
+        }
+        return indexed.list.get(indexed.item) == indexed.item;
+    }
+
+    /**
+     * @return Number of lookups resolved using the reference index
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return Number of lookups not found in the reference index
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Remove children of evicted directory listing from index
+     */
+    private void onRemoval(final RemovalNotification<T, AttributedList<T>> notification) {
+        final AttributedList<T> removed = notification.getValue();
+        if(null == removed) {
+            return;
+        }
+        if(removed == impl.get(notification.getKey())) {
+            // Replaced with same listing
+            return;
+        }
+        this.unindex(removed);
+    }
+
+    private void index(final AttributedList<T> children) {
+        for(T child : children) {
+            index.put(this.reference(child), new IndexEntry<>(children, child));
+        }
+    }
+
+    private void unindex(final AttributedList<T> children) {
+        for(T child : children) {
+            // Only remove if not already replaced by entry from another listing
+            index.computeIfPresent(this.reference(child), (key, entry) -> entry.list == children ? null : entry);
+        }
+    }
+
     @Override
     public long size() {
         return impl.size();
@@ -89,6 +171,7 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
             // Not previously in cache
             return AttributedList.emptyList();
         }
+        this.unindex(removed);
         return removed;
     }
 
@@ -122,7 +205,13 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
             log.debug(String.format("Caching %s", reference));
         }
         final AttributedList<T> replaced = impl.get(reference);
+        if(null != replaced && replaced != children) {
+            this.unindex(replaced);
+        }
         impl.put(reference, children);
+        if(null != children) {
+            this.index(children);
+        }
         if(null == replaced) {
             // Not previously in cache
             return AttributedList.emptyList();
@@ -169,13 +258,26 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
             log.info(String.format("Clear cache %s", this));
         }
         impl.clear();
+        index.clear();
     }
 
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("Cache{");
         sb.append("size=").append(impl.size());
+        sb.append(", hits=").append(hits);
+        sb.append(", misses=").append(misses);
         sb.append('}');
         return sb.toString();
     }
+
+    private static final class IndexEntry<T extends Referenceable> {
+        private final AttributedList<T> list;
+        private final T item;
+
+        private IndexEntry(final AttributedList<T> list, final T item) {
+            this.list = list;
+            this.item = item;
+        }
+    }
 }
@@ -20,16 +20,25 @@ package ch.cyberduck.core;
 
 import org.apache.log4j.Logger;
 
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.RandomAccess;
 import java.util.function.Predicate;
 
 /**
- * A sortable list with a map to lookup values by key.
+ * A sortable list with a map to lookup values by key. Appending is amortized constant time and lookup of an
+ * element by reference is backed by a hash index. Readers iterate on a snapshot of the list that is a view of the
+ * elements appended so far and only copied before modifications other than append.
+ * <p>
+ * The index is keyed on the hash code of elements at the time they were added. Because the hash code of a path depends
+ * on attributes that can change after it was added to the list, a lookup missing the index is repeated on the list
+ * and the index is discarded when it is found stale.
  */
 public class AttributedList<E extends Referenceable> implements Iterable<E> {
     private static final Logger log = Logger.getLogger(AttributedList.class);
@@ -51,8 +60,34 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
         }
     };
 
-    private final List<E> impl
-        = new CopyOnWriteArrayList<>();
+    private static final Object[] EMPTY_ELEMENTS = new Object[0];
+
+    /**
+     * Elements in range of size. Guarded by this
+     */
+    private Object[] elements = EMPTY_ELEMENTS;
+
+    /**
+     * Number of elements. Guarded by this
+     */
+    private int size;
+
+    /**
+     * Elements array is referenced by a snapshot and must be copied before modifications other than append.
+     * Guarded by this
+     */
+    private boolean shared;
+
+    /**
+     * Lookup of first occurrence of element. Built lazily and discarded on modifications other than append.
+     * Guarded by this
+     */
+    private Map<E, E> index;
+
+    /**
+     * Immutable view of the list returned to readers. Discarded on modification.
+     */
+    private volatile List<E> snapshot;
 
     /**
      * Metadata of file listing
@@ -90,12 +125,30 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
         return attributes;
     }
 
-    public boolean add(final E e) {
-        return impl.add(e);
+    public synchronized boolean add(final E e) {
+        if(size == elements.length) {
+            // Snapshots keep referencing previous array
+            elements = Arrays.copyOf(elements, Math.max(10, size + (size >> 1)));
+            shared = false;
+        }
+        // Slot beyond size of any snapshot
+        elements[size++] = e;
+        if(null != index) {
+            index.putIfAbsent(e, e);
+        }
+        snapshot = null;
+        return true;
     }
 
-    public void add(final int index, final E e) {
-        impl.add(index, e);
+    public synchronized void add(final int index, final E e) {
+        if(index < 0 || index > size) {
+            throw new IndexOutOfBoundsException(String.format("Index %d for size %d", index, size));
+        }
+        this.copy(size + 1);
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = e;
+        size++;
+        this.modified();
     }
 
     public boolean addAll(final Iterable<? extends E> c) {
@@ -105,44 +158,50 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
         return true;
     }
 
-    public E get(final int index) {
-        return impl.get(index);
+    @SuppressWarnings("unchecked")
+    public synchronized E get(final int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format("Index %d for size %d", index, size));
+        }
+        return (E) elements[index];
     }
 
-    public E get(final E reference) {
-        final int index = impl.indexOf(reference);
-        if(-1 == index) {
+    /**
+     * @param reference Element to lookup by equality
+     * @return First element in list equal to reference or null if not found
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized E get(final E reference) {
+        final E found = this.index().get(reference);
+        if(null != found) {
+            return found;
+        }
+        final int i = this.scan(reference);
+        if(-1 == i) {
             return null;
         }
-        return impl.get(index);
-    }
-
-    public void set(final int i, final E e) {
-        impl.set(i, e);
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Discard stale index for modified element %s", reference));
+        }
+        index = null;
+        return (E) elements[i];
     }
 
-    @Override
-    public Iterator<E> iterator() {
-        return impl.iterator();
+    public synchronized void set(final int i, final E e) {
+        if(i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException(String.format("Index %d for size %d", i, size));
+        }
+        this.copy(size);
+        elements[i] = e;
+        this.modified();
     }
 
     /**
-     * The CopyOnWriteArrayList iterator does not support remove but the sort implementation
-     * makes use of it. Provide our own implementation here to circumvent.
-     *
-     * @param copy       The list copy to sort
-     * @param comparator The comparator to use
-     * @see java.util.Collections#sort(java.util.List, java.util.Comparator)
-     * @see java.util.concurrent.CopyOnWriteArrayList#iterator()
+     * @return Iterator on snapshot of list. Does not support remove.
      */
-    private void doSort(final List<E> copy, final Comparator<E> comparator) {
-        if(null == comparator) {
-            return;
-        }
-        if(log.isDebugEnabled()) {
-            log.debug(String.format("Sort list %s with comparator %s", this, comparator));
-        }
-        copy.sort(comparator);
+    @Override
+    public Iterator<E> iterator() {
+        return this.snapshot().iterator();
     }
 
     /**
@@ -163,15 +222,30 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
      * @return Filtered list sorted with comparator
      */
     public AttributedList<E> filter(final Comparator<E> comparator, final Filter<E> filter) {
-        final AttributedList<E> filtered = new AttributedList<>(impl);
+        final E[] sorted = this.toArray();
         if(null != comparator) {
-            this.doSort(filtered.impl, comparator);
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Sort list %s with comparator %s", this, comparator));
+            }
+            Arrays.sort(sorted, comparator);
         }
+        final AttributedList<E> filtered = new AttributedList<>();
         if(null != filter) {
             if(log.isDebugEnabled()) {
                 log.debug(String.format("Filter list %s with filter %s", this, filter));
             }
-            filtered.impl.removeIf(e -> !filter.accept(e));
+            int n = 0;
+            for(E e : sorted) {
+                if(filter.accept(e)) {
+                    sorted[n++] = e;
+                }
+            }
+            filtered.elements = Arrays.copyOf(sorted, n);
+            filtered.size = n;
+        }
+        else {
+            filtered.elements = sorted;
+            filtered.size = sorted.length;
         }
         return filtered;
     }
@@ -179,50 +253,179 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
     /**
      * Clear the list and all references.
      */
-    public void clear() {
-        impl.clear();
+    public synchronized void clear() {
+        elements = EMPTY_ELEMENTS;
+        size = 0;
+        shared = false;
+        this.modified();
     }
 
-    public boolean isEmpty() {
-        return impl.isEmpty();
+    public synchronized boolean isEmpty() {
+        return 0 == size;
     }
 
-    public int size() {
-        return impl.size();
+    public synchronized int size() {
+        return size;
     }
 
-    public boolean contains(final E e) {
-        return impl.contains(e);
+    public synchronized boolean contains(final E e) {
+        return null != this.get(e);
     }
 
     public E find(final Predicate<E> predicate) {
-        final Optional<E> optional = impl.stream().filter(predicate).findFirst();
-        return optional.orElse(null);
+        for(E e : this.snapshot()) {
+            if(predicate.test(e)) {
+                return e;
+            }
+        }
+        return null;
     }
 
     @SuppressWarnings("unchecked")
     public E[] toArray() {
-        return (E[]) impl.toArray(new Referenceable[impl.size()]);
+        final List<E> copy = this.snapshot();
+        return (E[]) copy.toArray(new Referenceable[copy.size()]);
     }
 
+    /**
+     * @return Unmodifiable snapshot of list
+     */
     public List<E> toList() {
-        return impl;
+        return this.snapshot();
     }
 
-    public int indexOf(final E e) {
-        return impl.indexOf(e);
+    public synchronized int indexOf(final E e) {
+        return this.scan(e);
     }
 
-    public void remove(final int index) {
-        impl.remove(index);
+    public synchronized void remove(final int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format("Index %d for size %d", index, size));
+        }
+        this.copy(size);
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        elements[--size] = null;
+        this.modified();
     }
 
-    public boolean remove(final E e) {
-        return impl.remove(e);
+    public synchronized boolean remove(final E e) {
+        final int i = this.scan(e);
+        if(-1 == i) {
+            return false;
+        }
+        this.remove(i);
+        return true;
     }
 
-    public boolean removeAll(final java.util.Collection<E> e) {
-        return impl.removeAll(e);
+    public synchronized boolean removeAll(final java.util.Collection<E> e) {
+        this.copy(size);
+        int n = 0;
+        for(int i = 0; i < size; i++) {
+            if(!e.contains(elements[i])) {
+                elements[n++] = elements[i];
+            }
+        }
+        if(n == size) {
+            return false;
+        }
+        Arrays.fill(elements, n, size, null);
+        size = n;
+        this.modified();
+        return true;
+    }
+
+    /**
+     * @return Index of first element equal to argument or -1. Caller must hold lock.
+     */
+    private int scan(final E e) {
+        for(int i = 0; i < size; i++) {
+            if(Objects.equals(e, elements[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Copy elements referenced by snapshot before modification in place. Caller must hold lock.
+     *
+     * @param capacity Minimum capacity required
+     */
+    private void copy(final int capacity) {
+        if(shared || capacity > elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(capacity, elements.length));
+            shared = false;
+        }
+    }
+
+    /**
+     * Discard index and snapshot after structural modification
+     */
+    private void modified() {
+        index = null;
+        snapshot = null;
+    }
+
+    /**
+     * @return Index of elements built from current list contents. Caller must hold lock.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<E, E> index() {
+        if(null == index) {
+            index = new HashMap<>(Math.max(16, (int) (size / .75f) + 1));
+            for(int i = 0; i < size; i++) {
+                index.putIfAbsent((E) elements[i], (E) elements[i]);
+            }
+        }
+        return index;
+    }
+
+    private List<E> snapshot() {
+        List<E> copy = snapshot;
+        if(null == copy) {
+            synchronized(this) {
+                copy = snapshot;
+                if(null == copy) {
+                    // No copy as elements in range are not modified until copied again
+                    copy = new Snapshot<>(elements, size);
+                    shared = true;
+                    snapshot = copy;
+                }
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Unmodifiable view of elements in range
+     */
+    private static final class Snapshot<E> extends AbstractList<E> implements RandomAccess {
+        private final Object[] elements;
+        private final int size;
+
+        private Snapshot(final Object[] elements, final int size) {
+            this.elements = elements;
+            this.size = size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E get(final int index) {
+            if(index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(String.format("Index %d for size %d", index, size));
+            }
+            return (E) elements[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Object[] toArray() {
+            return Arrays.copyOf(elements, size);
+        }
     }
 
     @Override
@@ -234,11 +437,11 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
             return false;
         }
         final AttributedList<?> that = (AttributedList<?>) o;
-        return Objects.equals(impl, that.impl);
+        return Objects.equals(this.snapshot(), that.snapshot());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(impl);
+        return Objects.hash(this.snapshot());
     }
 }
@@ -38,6 +38,16 @@ public class AttributedListAttributes<E> {
      */
     private Long timestamp;
 
+    /**
+     * ETag of directory when listed
+     */
+    private String etag;
+
+    /**
+     * Modification date of directory when listed
+     */
+    private long modificationDate = -1;
+
     /**
      * Initialize with default values
      *
@@ -69,6 +79,32 @@ public class AttributedListAttributes<E> {
         return this;
     }
 
+    public String getETag() {
+        return etag;
+    }
+
+    public void setETag(final String etag) {
+        this.etag = etag;
+    }
+
+    public AttributedListAttributes<E> withETag(final String etag) {
+        this.etag = etag;
+        return this;
+    }
+
+    public long getModificationDate() {
+        return modificationDate;
+    }
+
+    public void setModificationDate(final long modificationDate) {
+        this.modificationDate = modificationDate;
+    }
+
+    public AttributedListAttributes<E> withModificationDate(final long modificationDate) {
+        this.modificationDate = modificationDate;
+        return this;
+    }
+
     /**
      * @return true if the listing should be superseded
      */
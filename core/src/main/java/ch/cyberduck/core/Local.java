@@ -22,6 +22,8 @@ import ch.cyberduck.core.exception.AccessDeniedException;
 import ch.cyberduck.core.exception.LocalAccessDeniedException;
 import ch.cyberduck.core.exception.LocalNotfoundException;
 import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.io.FileChannelInputStream;
+import ch.cyberduck.core.io.FileChannelOutputStream;
 import ch.cyberduck.core.local.DefaultLocalDirectoryFeature;
 import ch.cyberduck.core.local.TildeExpander;
 import ch.cyberduck.core.local.WorkdirPrefixer;
@@ -38,10 +40,8 @@ import org.apache.log4j.Logger;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.ByteBuffer;
-import java.nio.channels.Channels;
+import java.io.RandomAccessFile;
 import java.nio.channels.FileChannel;
-import java.nio.channels.SeekableByteChannel;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystemException;
 import java.nio.file.Files;
@@ -434,7 +434,7 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
     protected InputStream getInputStream(final String path) throws LocalAccessDeniedException {
         try {
             final FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
-            return new SeekableByteChannelInputStream(channel);
+            return new FileChannelInputStream(channel);
         }
         catch(RuntimeException | IOException e) {
             throw new LocalAccessDeniedException(e.getMessage(), e);
@@ -459,7 +459,46 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
                 options.add(StandardOpenOption.TRUNCATE_EXISTING);
             }
             final FileChannel channel = FileChannel.open(Paths.get(path), options);
-            return Channels.newOutputStream(channel);
+            return new FileChannelOutputStream(channel);
+        }
+        catch(RuntimeException | IOException e) {
+            throw new LocalAccessDeniedException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Open file for writing at position without truncating. The file is created if missing
+     *
+     * @param position Offset in file to start writing
+     */
+    public OutputStream getOutputStream(final long position) throws AccessDeniedException {
+        return this.getOutputStream(path, position);
+    }
+
+    protected OutputStream getOutputStream(final String path, final long position) throws LocalAccessDeniedException {
+        try {
+            final FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+            channel.position(position);
+            return new FileChannelOutputStream(channel);
+        }
+        catch(RuntimeException | IOException e) {
+            throw new LocalAccessDeniedException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Discard content of file and extend to length without writing data. The file is created if missing
+     *
+     * @param length Size of file
+     */
+    public void allocate(final long length) throws AccessDeniedException {
+        this.allocate(path, length);
+    }
+
+    protected void allocate(final String path, final long length) throws LocalAccessDeniedException {
+        try (RandomAccessFile file = new RandomAccessFile(path, "rw")) {
+            file.setLength(0L);
+            file.setLength(length);
         }
         catch(RuntimeException | IOException e) {
             throw new LocalAccessDeniedException(e.getMessage(), e);
@@ -524,72 +563,4 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
         sb.append('}');
         return sb.toString();
     }
-
-    private static final class SeekableByteChannelInputStream extends InputStream {
-        private final SeekableByteChannel channel;
-        private long markPosition = 0L;
-
-        public SeekableByteChannelInputStream(final SeekableByteChannel channel) {
-            this.channel = channel;
-        }
-
-        @Override
-        public int read() throws IOException {
-            final ByteBuffer buffer = ByteBuffer.wrap(new byte[1]);
-            final int bytesRead = channel.read(buffer);
-            if(bytesRead > 0) {
-                buffer.position(0);
-                return buffer.get();
-            }
-            else {
-                return -1;
-            }
-        }
-
-        @Override
-        public int read(final byte[] b, final int off, final int len) throws IOException {
-            final ByteBuffer buffer = ByteBuffer.wrap(b);
-            buffer.position(off);
-            buffer.limit(off + len);
-            final int bytesRead = channel.read(buffer);
-            if(bytesRead > 0) {
-                return bytesRead;
-            }
-            else {
-                return -1;
-            }
-        }
-
-        @Override
-        public long skip(final long n) throws IOException {
-            channel.position(channel.position() + n);
-            return channel.position();
-        }
-
-        @Override
-        public boolean markSupported() {
-            return true;
-        }
-
-        @Override
-        public void mark(final int readlimit) {
-            try {
-                markPosition = channel.position();
-            }
-            catch(final IOException e) {
-                throw new RuntimeException(e);
-            }
-        }
-
-        @Override
-        public void reset() throws IOException {
-            channel.position(markPosition);
-            markPosition = 0;
-        }
-
-        @Override
-        public void close() throws IOException {
-            channel.close();
-        }
-    }
 }
@@ -0,0 +1,39 @@
+package ch.cyberduck.core;
+
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.BackgroundException;
+
+/**
+ * List service able to retrieve the contents of a directory including all its descendants with a single request
+ */
+public interface RecursiveListService extends ListService {
+
+    /**
+     * @param directory Directory to list
+     * @return False if contents of descendants cannot be retrieved with the listing of the directory
+     */
+    boolean isRecursive(Path directory);
+
+    /**
+     * @param directory Directory to list
+     * @param listener  Notified with partial listings of the directory and of its descendants
+     * @param cache     Receives the listing of every descendant directory
+     * @return Contents of directory
+     */
+    AttributedList<Path> list(Path directory, ListProgressListener listener, Cache<Path> cache) throws BackgroundException;
+}
@@ -0,0 +1,145 @@
+package ch.cyberduck.core.cache;
+
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.ListService;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.Protocol;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+/**
+ * Reuse directory listing stored on disk from a previous session if the ETag or modification date of the directory
+ * is unchanged. Listings are only validated with attributes of the directory already known from its parent listing
+ * and no additional request is made. Only supported for protocols where the timestamp of a directory changes
+ * implicitly with its contents.
+ */
+public class PersistentCacheListService implements ListService {
+    private static final Logger log = Logger.getLogger(PersistentCacheListService.class);
+
+    private final Host host;
+    private final ListService proxy;
+    private final PersistentListCache cache;
+
+    public PersistentCacheListService(final Host host, final ListService proxy) {
+        this(host, proxy, new PersistentListCache());
+    }
+
+    public PersistentCacheListService(final Host host, final ListService proxy, final PersistentListCache cache) {
+        this.host = host;
+        this.proxy = proxy;
+        this.cache = cache;
+    }
+
+    @Override
+    public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        if(this.isVault(directory)) {
+            // Never write decrypted filenames to disk
+            return proxy.list(directory, listener);
+        }
+        final AttributedList<Path> cached = cache.get(host, directory);
+        if(cached != null) {
+            if(this.isValid(directory, cached)) {
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("Use listing for %s from disk", directory));
+                }
+                listener.chunk(directory, cached);
+                return cached;
+            }
+        }
+        final AttributedList<Path> list = proxy.list(directory, listener);
+        for(Path child : list) {
+            if(this.isVault(child)) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Do not store listing of %s containing vault", directory));
+                }
+                if(cached != null) {
+                    cache.remove(host, directory);
+                }
+                return list;
+            }
+        }
+        if(StringUtils.isNotBlank(directory.attributes().getETag()) || directory.attributes().getModificationDate() != -1) {
+            list.attributes().setETag(directory.attributes().getETag());
+            list.attributes().setModificationDate(directory.attributes().getModificationDate());
+            cache.put(host, directory, list);
+        }
+        else if(cached != null) {
+            cache.remove(host, directory);
+        }
+        return list;
+    }
+
+    /**
+     * @param host Bookmark
+     * @return True if enabled and directory attributes of protocol change when contents are modified
+     */
+    public static boolean isSupported(final Host host) {
+        if(!PreferencesFactory.get().getBoolean("browser.cache.persistent")) {
+            return false;
+        }
+        return host.getProtocol().getDirectoryTimestamp() == Protocol.DirectoryTimestamp.implicit;
+    }
+
+    /**
+     * @return True if file is a vault or contained in a vault
+     */
+    private boolean isVault(final Path file) {
+        return file.getType().contains(Path.Type.vault)
+            || file.getType().contains(Path.Type.encrypted)
+            || file.getType().contains(Path.Type.decrypted)
+            || file.attributes().getVault() != null
+            || file.attributes().getEncrypted() != null;
+    }
+
+    /**
+     * @param directory Directory with attributes from parent listing
+     * @param cached    Listing from disk
+     * @return True if directory is unchanged since listing was stored
+     */
+    protected boolean isValid(final Path directory, final AttributedList<Path> cached) {
+        if(StringUtils.isNotBlank(directory.attributes().getETag())) {
+            return StringUtils.equals(directory.attributes().getETag(), cached.attributes().getETag());
+        }
+        if(directory.attributes().getModificationDate() != -1) {
+            return directory.attributes().getModificationDate() == cached.attributes().getModificationDate();
+        }
+        return false;
+    }
+
+    @Override
+    public ListService withCache(final Cache<Path> cache) {
+        proxy.withCache(cache);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("PersistentCacheListService{");
+        sb.append("proxy=").append(proxy);
+        sb.append(", cache=").append(cache);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,327 @@
+package ch.cyberduck.core.cache;
+
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.HostUrlProvider;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.Permission;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.preferences.SupportDirectoryFinderFactory;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Directory listings stored on disk with a file per directory in a folder per host. Attributes referencing other
+ * files such as the vault or encrypted and decrypted counterparts are not retained. Listings in vaults must not be
+ * stored. When the number of listings exceeds the limit, the least recently used listings are deleted.
+ */
+public class PersistentListCache {
+    private static final Logger log = Logger.getLogger(PersistentListCache.class);
+
+    private static final int VERSION = 3;
+
+    private final File folder;
+    /**
+     * Maximum number of listings stored for all hosts
+     */
+    private final int size;
+
+    public PersistentListCache() {
+        this(new File(LocalFactory.get(SupportDirectoryFinderFactory.get().find(), "Listings").getAbsolute()));
+    }
+
+    public PersistentListCache(final File folder) {
+        this(folder, PreferencesFactory.get().getInteger("browser.cache.persistent.size"));
+    }
+
+    public PersistentListCache(final File folder, final int size) {
+        this.folder = folder;
+        this.size = size;
+    }
+
+    /**
+     * @param host      Bookmark
+     * @param directory Directory
+     * @return Null if no listing is stored
+     */
+    public AttributedList<Path> get(final Host host, final Path directory) {
+        final File file = this.file(host, directory);
+        if(!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if(in.readInt() != VERSION) {
+                return null;
+            }
+            if(!directory.getAbsolute().equals(in.readUTF())) {
+                // Hash collision
+                return null;
+            }
+            final AttributedList<Path> list = new AttributedList<>();
+            list.attributes().setTimestamp(in.readLong());
+            list.attributes().setETag(readNullable(in));
+            list.attributes().setModificationDate(in.readLong());
+            for(int count = in.readInt(); count > 0; count--) {
+                list.add(read(in, directory));
+            }
+            // Mark as recently used
+            if(!file.setLastModified(System.currentTimeMillis())) {
+                log.warn(String.format("Failure updating timestamp of %s", file));
+            }
+            return list;
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure reading listing from %s. %s", file, e.getMessage()));
+            FileUtils.deleteQuietly(file);
+            return null;
+        }
+    }
+
+    /**
+     * @param host      Bookmark
+     * @param directory Directory
+     * @param list      Directory listing with ETag or modification date of directory set in attributes
+     */
+    public void put(final Host host, final Path directory, final AttributedList<Path> list) {
+        final File file = this.file(host, directory);
+        if(!file.getParentFile().exists()) {
+            if(!file.getParentFile().mkdirs()) {
+                log.warn(String.format("Failure creating folder %s", file.getParentFile()));
+                return;
+            }
+        }
+        final File temporary = new File(file.getParentFile(), String.format("%s.tmp", file.getName()));
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+                out.writeInt(VERSION);
+                out.writeUTF(directory.getAbsolute());
+                out.writeLong(null == list.attributes().getTimestamp() ? System.currentTimeMillis() : list.attributes().getTimestamp());
+                writeNullable(out, list.attributes().getETag());
+                out.writeLong(list.attributes().getModificationDate());
+                out.writeInt(list.size());
+                for(Path child : list) {
+                    write(out, child);
+                }
+            }
+            // Replace previous listing atomically
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure writing listing to %s. %s", file, e.getMessage()));
+            FileUtils.deleteQuietly(temporary);
+            return;
+        }
+        this.evict();
+    }
+
+    /**
+     * Delete least recently used listings exceeding limit and folders of hosts without listings
+     */
+    protected void evict() {
+        final File[] hosts = folder.listFiles(File::isDirectory);
+        if(null == hosts) {
+            return;
+        }
+        final List<File> listings = new ArrayList<>();
+        for(File host : hosts) {
+            final File[] files = host.listFiles(File::isFile);
+            if(null == files || files.length == 0) {
+                FileUtils.deleteQuietly(host);
+                continue;
+            }
+            for(File file : files) {
+                listings.add(file);
+            }
+        }
+        if(listings.size() <= size) {
+            return;
+        }
+        listings.sort(Comparator.comparingLong(File::lastModified));
+        for(File file : listings.subList(0, listings.size() - size)) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Evict listing %s", file));
+            }
+            FileUtils.deleteQuietly(file);
+        }
+    }
+
+    public void remove(final Host host, final Path directory) {
+        FileUtils.deleteQuietly(this.file(host, directory));
+    }
+
+    private File file(final Host host, final Path directory) {
+        return new File(new File(folder, DigestUtils.sha1Hex(new HostUrlProvider().withUsername(true).get(host))),
+            DigestUtils.sha1Hex(directory.getAbsolute()));
+    }
+
+    private static void write(final DataOutputStream out, final Path file) throws IOException {
+        out.writeUTF(file.getName());
+        writeType(out, file.getType());
+        final PathAttributes attributes = file.attributes();
+        out.writeLong(attributes.getSize());
+        out.writeLong(attributes.getModificationDate());
+        out.writeLong(attributes.getCreationDate());
+        writeNullable(out, attributes.getETag());
+        writeNullable(out, attributes.getVersionId());
+        writeNullable(out, attributes.getRegion());
+        writeNullable(out, attributes.getStorageClass());
+        writeNullable(out, attributes.getOwner());
+        writeNullable(out, attributes.getGroup());
+        writeNullable(out, Permission.EMPTY == attributes.getPermission() ? null : attributes.getPermission().getMode());
+        final Checksum checksum = attributes.getChecksum();
+        writeNullable(out, null == checksum || null == checksum.algorithm ? null : checksum.algorithm.name());
+        writeNullable(out, null == checksum ? null : checksum.hash);
+        final Path target = file.getSymlinkTarget();
+        writeNullable(out, null == target ? null : target.getAbsolute());
+        if(target != null) {
+            writeType(out, target.getType());
+        }
+        out.writeBoolean(attributes.isDuplicate());
+        out.writeBoolean(attributes.isHidden());
+        writeNullable(out, attributes.getLockId());
+        writeNullable(out, attributes.getDirectoryId());
+        writeNullable(out, null == attributes.getRevision() ? null : String.valueOf(attributes.getRevision()));
+        writeNullable(out, attributes.getDisplayname());
+        writeMap(out, attributes.getMetadata());
+        writeMap(out, attributes.getCustom());
+    }
+
+    private static Path read(final DataInputStream in, final Path directory) throws IOException {
+        final String name = in.readUTF();
+        final EnumSet<Path.Type> type = readType(in);
+        final PathAttributes attributes = new PathAttributes();
+        attributes.setSize(in.readLong());
+        attributes.setModificationDate(in.readLong());
+        attributes.setCreationDate(in.readLong());
+        attributes.setETag(readNullable(in));
+        attributes.setVersionId(readNullable(in));
+        attributes.setRegion(readNullable(in));
+        attributes.setStorageClass(readNullable(in));
+        attributes.setOwner(readNullable(in));
+        attributes.setGroup(readNullable(in));
+        final String permission = readNullable(in);
+        if(permission != null) {
+            attributes.setPermission(new Permission(permission));
+        }
+        final String algorithm = readNullable(in);
+        final String hash = readNullable(in);
+        if(algorithm != null) {
+            attributes.setChecksum(new Checksum(HashAlgorithm.valueOf(algorithm), hash));
+        }
+        final Path file = new Path(directory, name, type, attributes);
+        final String target = readNullable(in);
+        if(target != null) {
+            file.setSymlinkTarget(new Path(target, readType(in)));
+        }
+        attributes.setDuplicate(in.readBoolean());
+        if(in.readBoolean()) {
+            attributes.setHidden(true);
+        }
+        attributes.setLockId(readNullable(in));
+        attributes.setDirectoryId(readNullable(in));
+        final String revision = readNullable(in);
+        if(revision != null) {
+            attributes.setRevision(Long.valueOf(revision));
+        }
+        attributes.setDisplayname(readNullable(in));
+        attributes.setMetadata(readMap(in));
+        attributes.setCustom(readMap(in));
+        return file;
+    }
+
+    private static void writeType(final DataOutputStream out, final EnumSet<Path.Type> type) throws IOException {
+        out.writeInt(type.size());
+        for(Path.Type t : type) {
+            out.writeUTF(t.name());
+        }
+    }
+
+    private static EnumSet<Path.Type> readType(final DataInputStream in) throws IOException {
+        final EnumSet<Path.Type> type = EnumSet.noneOf(Path.Type.class);
+        for(int i = in.readInt(); i > 0; i--) {
+            type.add(Path.Type.valueOf(in.readUTF()));
+        }
+        return type;
+    }
+
+    private static void writeMap(final DataOutputStream out, final Map<String, String> map) throws IOException {
+        if(null == map) {
+            out.writeInt(0);
+            return;
+        }
+        out.writeInt(map.size());
+        for(Map.Entry<String, String> entry : map.entrySet()) {
+            out.writeUTF(entry.getKey());
+            writeNullable(out, entry.getValue());
+        }
+    }
+
+    private static Map<String, String> readMap(final DataInputStream in) throws IOException {
+        final Map<String, String> map = new HashMap<>();
+        for(int count = in.readInt(); count > 0; count--) {
+            map.put(in.readUTF(), readNullable(in));
+        }
+        return map;
+    }
+
+    private static void writeNullable(final DataOutputStream out, final String value) throws IOException {
+        out.writeBoolean(value != null);
+        if(value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(final DataInputStream in) throws IOException {
+        if(in.readBoolean()) {
+            return in.readUTF();
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("PersistentListCache{");
+        sb.append("folder=").append(folder);
+        sb.append('}');
+        return sb.toString();
+    }
+}
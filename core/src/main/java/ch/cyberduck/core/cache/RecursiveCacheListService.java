@@ -0,0 +1,92 @@
+package ch.cyberduck.core.cache;
+
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.ListService;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathCache;
+import ch.cyberduck.core.RecursiveListService;
+import ch.cyberduck.core.exception.BackgroundException;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Retrieve the contents of all descendants with the listing of a directory when supported by the list service.
+ * Listings of descendant directories are kept until requested and are only returned once.
+ */
+public class RecursiveCacheListService implements ListService {
+    private static final Logger log = Logger.getLogger(RecursiveCacheListService.class);
+
+    private final ListService proxy;
+    /**
+     * Listings of descendants not yet requested
+     */
+    private final Cache<Path> prefetched;
+
+    public RecursiveCacheListService(final ListService proxy) {
+        this(proxy, new PathCache(Integer.MAX_VALUE));
+    }
+
+    /**
+     * @param prefetched Shared among instances to retain listings over multiple connections
+     */
+    public RecursiveCacheListService(final ListService proxy, final Cache<Path> prefetched) {
+        this.proxy = proxy;
+        this.prefetched = prefetched;
+    }
+
+    @Override
+    public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        synchronized(prefetched) {
+            if(prefetched.isCached(directory)) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Use listing for %s from recursive listing", directory));
+                }
+                final AttributedList<Path> list = prefetched.remove(directory);
+                listener.chunk(directory, list);
+                return list;
+            }
+        }
+        if(proxy instanceof RecursiveListService) {
+            final RecursiveListService service = (RecursiveListService) proxy;
+            if(service.isRecursive(directory)) {
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("List %s with all descendants", directory));
+                }
+                return service.list(directory, listener, prefetched);
+            }
+        }
+        return proxy.list(directory, listener);
+    }
+
+    @Override
+    public ListService withCache(final Cache<Path> cache) {
+        proxy.withCache(cache);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("RecursiveCacheListService{");
+        sb.append("proxy=").append(proxy);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -36,6 +36,8 @@ import java.security.NoSuchAlgorithmException;
 
 public abstract class AbstractChecksumCompute implements ChecksumCompute {
 
+    protected static final int BUFFER_SIZE = 16384;
+
     @Override
     public Checksum compute(final String data, final TransferStatus status) throws ChecksumException {
         try {
@@ -54,10 +56,10 @@ public abstract class AbstractChecksumCompute implements ChecksumCompute {
         catch(NoSuchAlgorithmException e) {
             throw new ChecksumException(LocaleFactory.localizedString("Checksum failure", "Error"), e.getMessage(), e);
         }
+        final byte[] buffer = ByteArrayPool.get().acquire(BUFFER_SIZE);
         try {
-            byte[] buffer = new byte[16384];
             int bytesRead;
-            while((bytesRead = in.read(buffer, 0, buffer.length)) != -1) {
+            while((bytesRead = in.read(buffer, 0, BUFFER_SIZE)) != -1) {
                 md.update(buffer, 0, bytesRead);
             }
         }
@@ -65,6 +67,7 @@ public abstract class AbstractChecksumCompute implements ChecksumCompute {
             throw new ChecksumException(LocaleFactory.localizedString("Checksum failure", "Error"), e.getMessage(), e);
         }
         finally {
+            ByteArrayPool.get().release(buffer);
             IOUtils.closeQuietly(in);
         }
         return md.digest();
@@ -2,6 +2,8 @@ package ch.cyberduck.core.io;
 
 import org.apache.log4j.Logger;
 
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * Limits throughput of a stream to at most N bytes per T seconds.  Mutable and
  * thread-safe.<p>
@@ -58,6 +60,8 @@ public final class BandwidthThrottle {
      */
     private volatile boolean switching = false;
 
+    private final ReentrantLock lock = new ReentrantLock();
+
     /**
      * The number of bytes remaining in this window.
      */
@@ -176,14 +180,21 @@ public final class BandwidthThrottle {
      * @return the number of bytes the sender is expected to send, which
      *         is always greater than one and less than or equal to desired
      */
-    public synchronized int request(int desired) {
+    public int request(int desired) {
         if(UNLIMITED == rate) {
             return desired;
         }
-        waitForBandwidth();
-        int result = Math.min(desired, availableBytes);
-        availableBytes -= result;
-        return result;
+        // Explicit lock instead of monitor to not pin carrier of virtual thread while sleeping
+        lock.lock();
+        try {
+            waitForBandwidth();
+            int result = Math.min(desired, availableBytes);
+            availableBytes -= result;
+            return result;
+        }
+        finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -0,0 +1,181 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.log4j.Logger;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared pool of byte arrays with size classes of powers of two. Buffers must be released after use and must not be
+ * referenced afterwards. With debug logging enabled, buffers not released before being garbage collected are logged
+ * with the stack of their acquisition.
+ */
+public final class ByteArrayPool {
+    private static final Logger log = Logger.getLogger(ByteArrayPool.class);
+
+    private static final ByteArrayPool global = new ByteArrayPool(
+        PreferencesFactory.get().getInteger("connection.buffer.pool.size"), log.isDebugEnabled());
+
+    public static ByteArrayPool get() {
+        return global;
+    }
+
+    /**
+     * Smallest size class of 4 KiB
+     */
+    private static final int MIN_SHIFT = 12;
+    /**
+     * Largest size class of 1 MiB. Larger buffers are not pooled
+     */
+    private static final int MAX_SHIFT = 20;
+
+    private final Slot[] slots = new Slot[MAX_SHIFT - MIN_SHIFT + 1];
+
+    /**
+     * Maximum number of idle buffers retained per size class
+     */
+    private final int capacity;
+
+    /**
+     * Leak detection
+     */
+    private final boolean track;
+    private final Map<byte[], Lease> leases = Collections.synchronizedMap(new WeakHashMap<byte[], Lease>());
+    private final Set<Lease> outstanding = ConcurrentHashMap.newKeySet();
+    private final ReferenceQueue<byte[]> queue = new ReferenceQueue<>();
+
+    public ByteArrayPool(final int capacity) {
+        this(capacity, false);
+    }
+
+    public ByteArrayPool(final int capacity, final boolean track) {
+        this.capacity = capacity;
+        this.track = track;
+        for(int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot();
+        }
+    }
+
+    /**
+     * @param size Minimum length of buffer
+     * @return Buffer with at least the requested length and arbitrary content
+     */
+    public byte[] acquire(final int size) {
+        final int shift = shift(size);
+        final byte[] buffer;
+        if(shift > MAX_SHIFT) {
+            buffer = new byte[size];
+        }
+        else {
+            final byte[] idle = slots[shift - MIN_SHIFT].buffers.poll();
+            if(null == idle) {
+                buffer = new byte[1 << shift];
+            }
+            else {
+                slots[shift - MIN_SHIFT].size.decrementAndGet();
+                buffer = idle;
+            }
+        }
+        if(track) {
+            this.expunge();
+            final Lease lease = new Lease(buffer, queue);
+            outstanding.add(lease);
+            leases.put(buffer, lease);
+        }
+        return buffer;
+    }
+
+    /**
+     * Return buffer to pool for reuse
+     *
+     * @param buffer Buffer previously obtained using {@link #acquire(int)}
+     */
+    public void release(final byte[] buffer) {
+        if(track) {
+            final Lease lease = leases.remove(buffer);
+            if(null == lease) {
+                log.warn(String.format("Release of buffer with length %d not acquired from pool or released twice", buffer.length));
+                return;
+            }
+            outstanding.remove(lease);
+            lease.clear();
+        }
+        if(Integer.bitCount(buffer.length) != 1) {
+            return;
+        }
+        final int shift = Integer.numberOfTrailingZeros(buffer.length);
+        if(shift < MIN_SHIFT || shift > MAX_SHIFT) {
+            return;
+        }
+        final Slot slot = slots[shift - MIN_SHIFT];
+        if(slot.size.incrementAndGet() > capacity) {
+            slot.size.decrementAndGet();
+            return;
+        }
+        slot.buffers.push(buffer);
+    }
+
+    /**
+     * Log buffers garbage collected without being released
+     */
+    private void expunge() {
+        Reference<? extends byte[]> reference;
+        while((reference = queue.poll()) != null) {
+            final Lease lease = (Lease) reference;
+            if(outstanding.remove(lease)) {
+                log.warn(String.format("Buffer with length %d was not released to pool", lease.length), lease.stack);
+            }
+        }
+    }
+
+    /**
+     * @return Size class for requested length
+     */
+    private static int shift(final int size) {
+        if(size <= 1 << MIN_SHIFT) {
+            return MIN_SHIFT;
+        }
+        return 32 - Integer.numberOfLeadingZeros(size - 1);
+    }
+
+    private static final class Slot {
+        private final ConcurrentLinkedDeque<byte[]> buffers = new ConcurrentLinkedDeque<>();
+        private final AtomicInteger size = new AtomicInteger();
+    }
+
+    private static final class Lease extends WeakReference<byte[]> {
+        private final int length;
+        private final Throwable stack;
+
+        Lease(final byte[] buffer, final ReferenceQueue<byte[]> queue) {
+            super(buffer, queue);
+            this.length = buffer.length;
+            this.stack = new Throwable("Acquired");
+        }
+    }
+}
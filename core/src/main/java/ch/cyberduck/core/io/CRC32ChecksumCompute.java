@@ -31,10 +31,10 @@ public class CRC32ChecksumCompute extends AbstractChecksumCompute {
     public Checksum compute(final InputStream in, final TransferStatus status) throws ChecksumException {
         final InputStream normalized = this.normalize(in, status);
         final CRC32 crc32 = new CRC32();
+        final byte[] buffer = ByteArrayPool.get().acquire(BUFFER_SIZE);
         try {
-            byte[] buffer = new byte[16384];
             int bytesRead;
-            while((bytesRead = normalized.read(buffer, 0, buffer.length)) != -1) {
+            while((bytesRead = normalized.read(buffer, 0, BUFFER_SIZE)) != -1) {
                 crc32.update(buffer, 0, bytesRead);
             }
         }
@@ -42,6 +42,7 @@ public class CRC32ChecksumCompute extends AbstractChecksumCompute {
             throw new ChecksumException(LocaleFactory.localizedString("Checksum failure", "Error"), e.getMessage(), e);
         }
         finally {
+            ByteArrayPool.get().release(buffer);
             IOUtils.closeQuietly(normalized);
         }
         return new Checksum(HashAlgorithm.crc32, Long.toHexString(crc32.getValue()));
@@ -0,0 +1,30 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import java.nio.channels.FileChannel;
+
+/**
+ * Stream backed by a file channel allowing to copy contents without intermediate buffer
+ */
+public interface FileChannelStream {
+
+    /**
+     * @return Underlying channel positioned at the current offset of the stream or null if bytes must be passed through
+     * the stream
+     */
+    FileChannel getChannel();
+}
@@ -0,0 +1,235 @@
+package ch.cyberduck.core.io;
+
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.collections4.map.LRUMap;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.UserDefinedFileAttributeView;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checksums of local files computed previously. Saved in an extended attribute of the file where supported by the
+ * filesystem and otherwise kept in memory. A checksum is only returned when the size, modification date and file key
+ * (device and inode on POSIX) of the file are unchanged. Only plain content checksums of the complete file are cached
+ * by algorithm.
+ */
+public final class LocalChecksumCache {
+    private static final Logger log = Logger.getLogger(LocalChecksumCache.class);
+
+    private static final LocalChecksumCache global = new LocalChecksumCache(
+        PreferencesFactory.get().getBoolean("local.checksum.cache.enable"),
+        PreferencesFactory.get().getBoolean("local.checksum.cache.xattr.enable"),
+        PreferencesFactory.get().getInteger("local.checksum.cache.size"));
+
+    public static LocalChecksumCache get() {
+        return global;
+    }
+
+    private static final String ATTRIBUTE_PREFIX = "ch.cyberduck.checksum.";
+
+    private final boolean enabled;
+    private final boolean xattr;
+
+    private final Map<String, String> memory;
+
+    public LocalChecksumCache(final boolean enabled, final boolean xattr, final int size) {
+        this.enabled = enabled;
+        this.xattr = xattr;
+        this.memory = Collections.synchronizedMap(new LRUMap<String, String>(size));
+    }
+
+    /**
+     * @param compute Checksum algorithm implementation
+     * @param local   File to read
+     * @param status  Transfer status with offset and length
+     * @return Cached checksum of unmodified file or computed checksum
+     */
+    public Checksum compute(final ChecksumCompute compute, final Local local, final TransferStatus status) throws BackgroundException {
+        if(!enabled) {
+            return compute.compute(local.getInputStream(), status);
+        }
+        final HashAlgorithm algorithm = this.algorithm(compute);
+        if(null == algorithm) {
+            // Checksum of derived content or with side effects on transfer status
+            return compute.compute(local.getInputStream(), status);
+        }
+        final String fingerprint = this.fingerprint(local);
+        if(null == fingerprint) {
+            return compute.compute(local.getInputStream(), status);
+        }
+        if(!this.isComplete(local, status)) {
+            return compute.compute(local.getInputStream(), status);
+        }
+        final String name = String.format("%s%s", ATTRIBUTE_PREFIX, algorithm.name());
+        final Checksum cached = this.find(local, name, fingerprint);
+        if(cached != null && algorithm == cached.algorithm) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Return cached checksum %s for %s", cached, local));
+            }
+            return cached;
+        }
+        final Checksum checksum = compute.compute(local.getInputStream(), status);
+        if(Checksum.NONE == checksum || null == checksum.algorithm || null == checksum.hash) {
+            return checksum;
+        }
+        // Discard if file was modified while reading
+        if(fingerprint.equals(this.fingerprint(local))) {
+            this.save(local, name, String.format("%s %s %s", fingerprint, checksum.algorithm.name(), checksum.hash));
+        }
+        return checksum;
+    }
+
+    /**
+     * @return Algorithm for implementations computing a plain checksum of the file content only or null
+     */
+    private HashAlgorithm algorithm(final ChecksumCompute compute) {
+        if(compute instanceof MD5ChecksumCompute || compute instanceof MD5FastChecksumCompute) {
+            return HashAlgorithm.md5;
+        }
+        if(compute instanceof SHA1ChecksumCompute) {
+            return HashAlgorithm.sha1;
+        }
+        if(compute instanceof SHA256ChecksumCompute) {
+            return HashAlgorithm.sha256;
+        }
+        if(compute instanceof SHA512ChecksumCompute) {
+            return HashAlgorithm.sha512;
+        }
+        if(compute instanceof CRC32ChecksumCompute) {
+            return HashAlgorithm.crc32;
+        }
+        return null;
+    }
+
+    /**
+     * @return True if checksum is computed for the complete file
+     */
+    private boolean isComplete(final Local local, final TransferStatus status) {
+        if(status.isSegment()) {
+            return false;
+        }
+        if(status.getOffset() > 0) {
+            return false;
+        }
+        return status.getLength() <= 0 || status.getLength() == local.attributes().getSize();
+    }
+
+    /**
+     * @return Size, modification date and file key or null if not available
+     */
+    private String fingerprint(final Local local) {
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(Paths.get(local.getAbsolute()), BasicFileAttributes.class);
+            if(!attributes.isRegularFile()) {
+                return null;
+            }
+            return String.format("%d %d %s", attributes.size(), attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+                StringUtils.deleteWhitespace(String.valueOf(attributes.fileKey())));
+        }
+        catch(IOException | RuntimeException e) {
+            log.warn(String.format("Failure reading attributes of %s. %s", local, e.getMessage()));
+            return null;
+        }
+    }
+
+    private Checksum find(final Local local, final String name, final String fingerprint) {
+        final String value = this.load(local, name);
+        if(null == value) {
+            return null;
+        }
+        // Fingerprint followed by algorithm and hash
+        final String[] parts = StringUtils.split(value, ' ');
+        if(parts.length != 5) {
+            return null;
+        }
+        if(!fingerprint.equals(String.format("%s %s %s", parts[0], parts[1], parts[2]))) {
+            return null;
+        }
+        try {
+            return new Checksum(HashAlgorithm.valueOf(parts[3]), parts[4]);
+        }
+        catch(IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private String load(final Local local, final String name) {
+        if(xattr) {
+            final UserDefinedFileAttributeView view = this.view(local);
+            if(view != null) {
+                try {
+                    if(view.list().contains(name)) {
+                        final ByteBuffer buffer = ByteBuffer.allocate(view.size(name));
+                        view.read(name, buffer);
+                        buffer.flip();
+                        return StandardCharsets.UTF_8.decode(buffer).toString();
+                    }
+                    return null;
+                }
+                catch(IOException | RuntimeException e) {
+                    log.warn(String.format("Failure reading extended attribute of %s. %s", local, e.getMessage()));
+                }
+            }
+        }
+        return memory.get(String.format("%s%s", name, local.getAbsolute()));
+    }
+
+    private void save(final Local local, final String name, final String value) {
+        if(xattr) {
+            final UserDefinedFileAttributeView view = this.view(local);
+            if(view != null) {
+                try {
+                    view.write(name, StandardCharsets.UTF_8.encode(value));
+                    return;
+                }
+                catch(IOException | RuntimeException e) {
+                    log.warn(String.format("Failure writing extended attribute of %s. %s", local, e.getMessage()));
+                }
+            }
+        }
+        memory.put(String.format("%s%s", name, local.getAbsolute()), value);
+    }
+
+    private UserDefinedFileAttributeView view(final Local local) {
+        try {
+            final java.nio.file.Path path = Paths.get(local.getAbsolute());
+            if(!Files.getFileStore(path).supportsFileAttributeView(UserDefinedFileAttributeView.class)) {
+                return null;
+            }
+            return Files.getFileAttributeView(path, UserDefinedFileAttributeView.class);
+        }
+        catch(IOException | RuntimeException e) {
+            log.warn(String.format("Failure reading file store of %s. %s", local, e.getMessage()));
+            return null;
+        }
+    }
+}
@@ -43,10 +43,10 @@ public class MD5FastChecksumCompute extends AbstractChecksumCompute {
     protected byte[] digest(final String algorithm, final InputStream in) throws ChecksumException {
         final MD5 md = new MD5();
 
+        final byte[] buffer = ByteArrayPool.get().acquire(BUFFER_SIZE);
         try {
-            byte[] buffer = new byte[16384];
             int bytesRead;
-            while((bytesRead = in.read(buffer, 0, buffer.length)) != -1) {
+            while((bytesRead = in.read(buffer, 0, BUFFER_SIZE)) != -1) {
                 md.Update(buffer, 0, bytesRead);
             }
         }
@@ -54,6 +54,7 @@ public class MD5FastChecksumCompute extends AbstractChecksumCompute {
             throw new ChecksumException(LocaleFactory.localizedString("Checksum failure", "Error"), e.getMessage(), e);
         }
         finally {
+            ByteArrayPool.get().release(buffer);
             IOUtils.closeQuietly(in);
         }
         return md.Final();
@@ -28,6 +28,7 @@ import org.apache.log4j.Logger;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
 public final class StreamCopier {
     private static final Logger log = Logger.getLogger(StreamCopier.class);
@@ -90,40 +91,14 @@ public final class StreamCopier {
                 if(offset > 0) {
                     skip(in, offset);
                 }
-                final byte[] buffer = new byte[chunksize];
-                long total = 0;
-                int len = chunksize;
-                if(limit > 0 && limit < chunksize) {
-                    // Cast will work because chunk size is int
-                    len = limit.intValue();
+                final FileChannel source = in instanceof FileChannelStream ? ((FileChannelStream) in).getChannel() : null;
+                final FileChannel target = out instanceof FileChannelStream ? ((FileChannelStream) out).getChannel() : null;
+                if(null != source && null != target) {
+                    // Copy between files without passing bytes through heap buffer
+                    this.transfer(source, target);
                 }
-                while(len > 0) {
-                    cancel.validate();
-                    final int read = in.read(buffer, 0, len);
-                    if(-1 == read) {
-                        if(log.isDebugEnabled()) {
-                            log.debug(String.format("End of file reached with %d bytes read from stream", total));
-                        }
-                        progress.setComplete();
-                        break;
-                    }
-                    else {
-                        listener.recv(read);
-                        out.write(buffer, 0, read);
-                        progress.progress(read);
-                        listener.sent(read);
-                        total += read;
-                    }
-                    if(limit > 0) {
-                        // Only adjust if not reading to the end of the stream. Cast will work because chunk size is int
-                        len = (int) Math.min(limit - total, chunksize);
-                    }
-                    if(limit == total) {
-                        if(log.isDebugEnabled()) {
-                            log.debug(String.format("Limit %d reached reading from stream", limit));
-                        }
-                        progress.setComplete();
-                    }
+                else {
+                    this.copy(in, out);
                 }
                 final StreamCloser c = new DefaultStreamCloser();
                 c.close(out);
@@ -151,6 +126,87 @@ public final class StreamCopier {
         cancel.validate();
     }
 
+    private void copy(final InputStream in, final OutputStream out) throws IOException, BackgroundException {
+        final byte[] buffer = ByteArrayPool.get().acquire(chunksize);
+        try {
+            long total = 0;
+            int len = chunksize;
+            if(limit > 0 && limit < chunksize) {
+                // Cast will work because chunk size is int
+                len = limit.intValue();
+            }
+            while(len > 0) {
+                cancel.validate();
+                final int read = in.read(buffer, 0, len);
+                if(-1 == read) {
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("End of file reached with %d bytes read from stream", total));
+                    }
+                    progress.setComplete();
+                    break;
+                }
+                else {
+                    listener.recv(read);
+                    out.write(buffer, 0, read);
+                    progress.progress(read);
+                    listener.sent(read);
+                    total += read;
+                }
+                if(limit > 0) {
+                    // Only adjust if not reading to the end of the stream. Cast will work because chunk size is int
+                    len = (int) Math.min(limit - total, chunksize);
+                }
+                if(limit == total) {
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("Limit %d reached reading from stream", limit));
+                    }
+                    progress.setComplete();
+                }
+            }
+        }
+        finally {
+            ByteArrayPool.get().release(buffer);
+        }
+    }
+
+    private void transfer(final FileChannel in, final FileChannel out) throws IOException, BackgroundException {
+        long position = in.position();
+        long total = 0;
+        long len = chunksize;
+        if(limit > 0 && limit < chunksize) {
+            len = limit;
+        }
+        while(len > 0) {
+            cancel.validate();
+            final long transferred = in.transferTo(position, len, out);
+            if(0 == transferred) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("End of file reached with %d bytes transferred from channel", total));
+                }
+                progress.setComplete();
+                break;
+            }
+            else {
+                position += transferred;
+                in.position(position);
+                listener.recv(transferred);
+                progress.progress(transferred);
+                listener.sent(transferred);
+                total += transferred;
+            }
+            if(limit > 0) {
+                // Only adjust if not reading to the end of the file
+                len = Math.min(limit - total, chunksize);
+            }
+            if(limit == total) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Limit %d reached transferring from channel", limit));
+                }
+                progress.setComplete();
+            }
+        }
+    }
+
     public static InputStream skip(final InputStream in, final long offset) throws BackgroundException {
         try {
             long skipped = in.skip(offset);
@@ -21,8 +21,9 @@ import org.apache.commons.io.output.ProxyOutputStream;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
-public class ThrottledOutputStream extends ProxyOutputStream {
+public class ThrottledOutputStream extends ProxyOutputStream implements FileChannelStream {
 
     /**
      * The delegate.
@@ -79,4 +80,17 @@ public class ThrottledOutputStream extends ProxyOutputStream {
             offset += length;
         }
     }
+
+    /**
+     * @return Null if throughput is limited
+     */
+    @Override
+    public FileChannel getChannel() {
+        if(throttle.getRate() == BandwidthThrottle.UNLIMITED) {
+            if(delegate instanceof FileChannelStream) {
+                return ((FileChannelStream) delegate).getChannel();
+            }
+        }
+        return null;
+    }
 }
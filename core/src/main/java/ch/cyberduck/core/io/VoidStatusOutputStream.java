@@ -16,10 +16,22 @@ package ch.cyberduck.core.io;
  */
 
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+
+public class VoidStatusOutputStream extends StatusOutputStream<Void> implements FileChannelStream {
+    private final OutputStream proxy;
 
-public class VoidStatusOutputStream extends StatusOutputStream<Void> {
     public VoidStatusOutputStream(final OutputStream proxy) {
         super(proxy);
+        this.proxy = proxy;
+    }
+
+    @Override
+    public FileChannel getChannel() {
+        if(proxy instanceof FileChannelStream) {
+            return ((FileChannelStream) proxy).getChannel();
+        }
+        return null;
     }
 
     @Override
@@ -310,6 +310,16 @@ public abstract class Preferences implements Locales {
           Maximum number of directory listings to cache using a most recently used implementation
          */
         this.setDefault("browser.cache.size", String.valueOf(1000));
+        /*
+          Keep directory listings on disk in support directory to reuse when the ETag or modification date of the
+          directory is unchanged. Only applies to protocols where the timestamp of a directory changes with its
+          contents. Listings in vaults are never stored
+         */
+        this.setDefault("browser.cache.persistent", String.valueOf(false));
+        /*
+          Maximum number of directory listings kept on disk for all bookmarks
+         */
+        this.setDefault("browser.cache.persistent.size", String.valueOf(1000));
         this.setDefault("transfer.cache.size", String.valueOf(100));
         this.setDefault("icon.cache.size", String.valueOf(200));
         this.setDefault("preferences.cache.size", String.valueOf(1000));
@@ -469,6 +479,15 @@ public abstract class Preferences implements Locales {
         this.setDefault("queue.upload.file.redundancy.change", String.valueOf(true));
 
         this.setDefault("queue.upload.checksum.calculate", String.valueOf(false));
+        /*
+          Reuse checksums of local files not modified since computed. Saved in extended attributes where supported
+         */
+        this.setDefault("local.checksum.cache.enable", String.valueOf(true));
+        this.setDefault("local.checksum.cache.xattr.enable", String.valueOf(true));
+        /*
+          Number of checksums kept in memory for files on filesystems without support for extended attributes
+         */
+        this.setDefault("local.checksum.cache.size", String.valueOf(10000));
 
         this.setDefault("queue.upload.skip.enable", String.valueOf(true));
         this.setDefault("queue.upload.skip.regex.default",
@@ -517,6 +536,16 @@ public abstract class Preferences implements Locales {
         this.setDefault("queue.download.segments", String.valueOf(true));
         this.setDefault("queue.download.segments.threshold", String.valueOf(10L * 1024L * 1024L));
         this.setDefault("queue.download.segments.size", String.valueOf(5L * 1024L * 1024L));
+        /*
+          Write segments to preallocated target file instead of concatenating segment files on completion
+         */
+        this.setDefault("queue.download.segments.inplace", String.valueOf(false));
+        /*
+          Number of concurrent range requests for single stream reads of protocols supporting it. Disabled with 1
+         */
+        this.setDefault("queue.download.range.concurrency", String.valueOf(1));
+        this.setDefault("queue.download.range.threshold", String.valueOf(32L * 1024L * 1024L));
+        this.setDefault("queue.download.range.size", String.valueOf(8 * 1024 * 1024));
 
         /*
           Open completed downloads
@@ -527,6 +556,31 @@ public abstract class Preferences implements Locales {
 
         this.setDefault("queue.sleep.prevent", String.valueOf(true));
 
+        /*
+          Start transferring files while the remaining files are still being prepared. Bulk features are
+          called for every batch of prepared files.
+         */
+        this.setDefault("queue.transfer.streaming", String.valueOf(false));
+        /*
+          Maximum number of prepared files pending in transfer queue when streaming
+         */
+        this.setDefault("queue.transfer.streaming.window", String.valueOf(1000));
+        /*
+          Number of prepared files passed to bulk features at once before being transferred when streaming
+         */
+        this.setDefault("queue.transfer.streaming.batch", String.valueOf(100));
+        /*
+          Maximum number of transfer status entries kept in memory. Completed files exceeding the limit are written
+          to a temporary file while the transfer is running. Set to -1 to keep all entries in memory.
+         */
+        this.setDefault("queue.transfer.table.size", String.valueOf(10000));
+        /*
+          Number of directories listed concurrently when calculating size or deleting recursively. Only applies
+          to stateless protocols. Set queue.list.concurrency.<hostname> to list concurrently with multiple
+          connections to a stateful server.
+         */
+        this.setDefault("queue.list.concurrency", String.valueOf(10));
+
         /*
           Bandwidth throttle options
          */
@@ -582,6 +636,15 @@ public abstract class Preferences implements Locales {
         this.setDefault("queue.download.icon.update", String.valueOf(true));
         this.setDefault("queue.download.icon.threshold", String.valueOf(TransferStatus.MEGA * 5));
 
+        /*
+          Skip comparison of files found equal in previous synchronization and not modified since
+         */
+        this.setDefault("queue.sync.state.enable", String.valueOf(true));
+        /*
+          Number of directories with synchronization state kept in memory
+         */
+        this.setDefault("queue.sync.state.cache.size", String.valueOf(1000));
+
         /*
           Default synchronize action selected in the sync dialog
          */
@@ -631,11 +694,24 @@ public abstract class Preferences implements Locales {
         this.setDefault("ftp.command.lista", String.valueOf(true));
         this.setDefault("ftp.command.stat", String.valueOf(true));
         this.setDefault("ftp.command.mlsd", String.valueOf(true));
+        /*
+          Number of entries parsed from STAT reply before updating listing
+         */
+        this.setDefault("ftp.listing.chunksize", String.valueOf(1000));
 
         /*
           Fallback to active or passive mode respectively
          */
         this.setDefault("ftp.connectmode.fallback", String.valueOf(false));
+        /*
+          Send PASV or EPSV for the next file before reading the completion reply of a transfer and skip
+          redundant TYPE commands
+         */
+        this.setDefault("ftp.pipeline.enable", String.valueOf(false));
+        /*
+          Maximum age in milliseconds of passive mode reply to reuse for next data connection
+         */
+        this.setDefault("ftp.pipeline.timeout", String.valueOf(5000));
         /*
           Protect the data channel by default. For TLS, the data connection
           can have one of two security levels.
@@ -687,6 +763,17 @@ public abstract class Preferences implements Locales {
         this.setDefault("s3.upload.multipart", String.valueOf(true));
         this.setDefault("s3.upload.multipart.concurrency", String.valueOf(10));
         this.setDefault("s3.upload.multipart.partsize.minimum", String.valueOf(5L * 1024L * 1024L));
+        /*
+          Adjust part size and number of parts in flight to measured throughput starting with
+          s3.upload.multipart.size and s3.upload.multipart.concurrency
+         */
+        this.setDefault("s3.upload.multipart.adaptive", String.valueOf(false));
+        this.setDefault("s3.upload.multipart.concurrency.maximum", String.valueOf(32));
+        this.setDefault("s3.upload.multipart.size.maximum", String.valueOf(512L * 1024L * 1024L));
+        /*
+          Target duration in seconds for the upload of a single part. Part size is increased for parts completing faster
+         */
+        this.setDefault("s3.upload.multipart.adaptive.duration", String.valueOf(10));
         /*
           Threshold in bytes. Only use multipart uploads for files more than 100MB
          */
@@ -750,12 +837,29 @@ public abstract class Preferences implements Locales {
         this.setDefault("s3.lifecycle.delete.options", "1 7 10 30 60 180 360 720");
 
         this.setDefault("s3.delete.multiple.partition", String.valueOf(1000));
+        /*
+          Delete contents of directories with batches of keys deleted concurrently while listing
+         */
+        this.setDefault("s3.delete.multiple.recursive", String.valueOf(true));
+        this.setDefault("s3.delete.multiple.concurrency", String.valueOf(10));
+        /*
+          Number of retries for keys failing with transient error in multiple delete response
+         */
+        this.setDefault("s3.delete.multiple.retry", String.valueOf(3));
 
         this.setDefault("azure.metadata.default", StringUtils.EMPTY);
         this.setDefault("azure.listing.chunksize", String.valueOf(1000));
         this.setDefault("azure.upload.md5", String.valueOf(false));
         this.setDefault("azure.upload.snapshot", String.valueOf(false));
         this.setDefault("azure.upload.blobtype", "APPEND_BLOB");
+        /*
+          Upload files larger than threshold as block blob with blocks staged concurrently regardless of
+          azure.upload.blobtype. Maximum number of blocks is 50'000
+         */
+        this.setDefault("azure.upload.multipart", String.valueOf(true));
+        this.setDefault("azure.upload.multipart.threshold", String.valueOf(100L * 1024L * 1024L));
+        this.setDefault("azure.upload.multipart.size", String.valueOf(10L * 1024L * 1024L));
+        this.setDefault("azure.upload.multipart.concurrency", String.valueOf(10));
 
         // Legacy authentication
 //        this.setDefault("openstack.authentication.context", "/v1.0");
@@ -858,6 +962,16 @@ public abstract class Preferences implements Locales {
         this.setDefault("webdav.microsoftiis.header.translate", String.valueOf(true));
 
         this.setDefault("webdav.list.handler.sax", String.valueOf(true));
+        /*
+          Number of entries parsed from PROPFIND response before updating listing
+         */
+        this.setDefault("webdav.listing.chunksize", String.valueOf(1000));
+        /*
+          List all descendants with a single PROPFIND request with Depth: infinity for recursive operations. Opt in
+          for a server with webdav.list.recursive.<hostname>. Disabled again when the request is rejected or answered
+          with depth 1 only
+         */
+        this.setDefault("webdav.list.recursive", String.valueOf(false));
 
         this.setDefault("analytics.provider.qloudstat.setup", "https://qloudstat.com/configuration/add");
         this.setDefault("analytics.provider.qloudstat.iam.policy",
@@ -1026,6 +1140,10 @@ public abstract class Preferences implements Locales {
           Transfer read buffer size
          */
         this.setDefault("connection.chunksize", String.valueOf(32768));
+        /*
+          Maximum number of idle buffers retained per size class in shared buffer pool
+         */
+        this.setDefault("connection.buffer.pool.size", String.valueOf(64));
         /*
           Buffer size for wrapped buffered streams
          */
@@ -1121,10 +1239,30 @@ public abstract class Preferences implements Locales {
 
         this.setDefault("threading.pool.size.max", String.valueOf(20));
         this.setDefault("threading.pool.keepalive.seconds", String.valueOf(60L));
+        /*
+          Maximum number of tasks of transfers and listings of all hosts running concurrently in shared threads. Tasks
+          submitted from a shared thread such as multipart uploads of a transfer are only bounded by their pool.
+         */
+        this.setDefault("threading.shared.pool.size", String.valueOf(50));
+        /*
+          Maximum number of tasks of the same kind running concurrently in shared threads for a single host. Transfers,
+          multipart operations and listings are accounted separately.
+         */
+        this.setDefault("threading.shared.host.limit", String.valueOf(20));
 
         this.setDefault("cryptomator.enable", String.valueOf(true));
         this.setDefault("cryptomator.vault.version", String.valueOf(6));
         this.setDefault("cryptomator.vault.autodetect", String.valueOf(true));
+        /*
+          Number of chunks decrypted in parallel when reading from vault. Threads are shared by all streams and bounded by
+          the number of processors
+         */
+        this.setDefault("cryptomator.read.concurrency", String.valueOf(1));
+        /*
+          Number of chunks encrypted in parallel when writing to vault. Threads are shared by all streams and bounded by
+          the number of processors
+         */
+        this.setDefault("cryptomator.write.concurrency", String.valueOf(1));
     }
 
     protected void setLogging() {
@@ -0,0 +1,381 @@
+package ch.cyberduck.core.shared;
+
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.DefaultIOExceptionMappingService;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.features.AttributesFinder;
+import ch.cyberduck.core.features.Read;
+import ch.cyberduck.core.io.ByteArrayPool;
+import ch.cyberduck.core.threading.BackgroundExceptionCallable;
+import ch.cyberduck.core.threading.DefaultRetryCallable;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Read file with concurrent range requests into pooled buffers returned in order as a single stream. At most the given
+ * number of ranges are requested ahead of the current read position in a dedicated thread pool. Each range response
+ * must contain exactly the number of bytes requested. With an attributes finder, the attributes of the file when
+ * opened are passed with every range request for the read feature to make it conditional and the ETag and version of
+ * the file are compared again after the last range is read to fail when the file was modified in between.
+ */
+public class ConcurrentRangeInputStream extends InputStream {
+    private static final Logger log = Logger.getLogger(ConcurrentRangeInputStream.class);
+
+    /**
+     * Largest buffer size retained by the pool
+     */
+    private static final int PIECE = 1024 * 1024;
+
+    private final Host host;
+    private final Read reader;
+    private final AttributesFinder attributes;
+    private final Path file;
+    private final TransferStatus status;
+    private final ConnectionCallback callback;
+    private final ThreadPool pool;
+
+    private final int chunksize;
+    private final int concurrency;
+
+    /**
+     * Attributes of file when opened. Null if not available
+     */
+    private final PathAttributes reference;
+
+    /**
+     * Ranges requested in order of offset
+     */
+    private final Deque<Future<Chunk>> pending = new ArrayDeque<>();
+
+    /**
+     * Offset of next range to request
+     */
+    private long position;
+    /**
+     * Offset after last byte to read
+     */
+    private final long end;
+
+    private Chunk current;
+    private int index;
+    private volatile boolean closed;
+    /**
+     * Attributes compared after last range
+     */
+    private boolean verified;
+
+    /**
+     * @param host        Bookmark
+     * @param reader      Read feature supporting offset
+     * @param file        File
+     * @param status      Transfer status with offset and length of content to read
+     * @param callback    Prompt
+     * @param chunksize   Length of single range request
+     * @param concurrency Maximum number of concurrent range requests
+     */
+    public ConcurrentRangeInputStream(final Host host, final Read reader, final Path file, final TransferStatus status,
+                                      final ConnectionCallback callback, final int chunksize, final int concurrency) throws BackgroundException {
+        this(host, reader, null, file, status, callback, chunksize, concurrency);
+    }
+
+    /**
+     * @param attributes Attributes finder to detect modification of file while reading or null
+     */
+    public ConcurrentRangeInputStream(final Host host, final Read reader, final AttributesFinder attributes, final Path file, final TransferStatus status,
+                                      final ConnectionCallback callback, final int chunksize, final int concurrency) throws BackgroundException {
+        this.host = host;
+        this.reader = reader;
+        this.attributes = attributes;
+        this.file = file;
+        this.status = status;
+        this.callback = callback;
+        this.chunksize = chunksize;
+        this.concurrency = concurrency;
+        this.position = status.isAppend() ? status.getOffset() : 0L;
+        this.end = position + status.getLength();
+        if(null == attributes) {
+            this.reference = null;
+        }
+        else if(StringUtils.isNotBlank(status.getRemote().getETag())) {
+            // Attributes determined when transfer was prepared
+            this.reference = status.getRemote();
+        }
+        else {
+            this.reference = attributes.find(file);
+        }
+        // Dedicated pool not to wait for or block slots of the transfer
+        this.pool = ThreadPoolFactory.get("range", concurrency);
+        // Open first range in calling thread to fail early
+        final long length = Math.min(chunksize, end - position);
+        final TransferStatus range = this.range(position, length);
+        final InputStream in;
+        try {
+            in = reader.read(file, range, callback);
+        }
+        catch(BackgroundException e) {
+            pool.shutdown(false);
+            throw e;
+        }
+        // Delegate may disable checksum verification for file
+        status.setChecksum(range.getChecksum());
+        pending.add(this.submit(range, in));
+        position += length;
+        this.fill();
+    }
+
+    private TransferStatus range(final long offset, final long length) {
+        final TransferStatus range = new TransferStatus(status).append(true).skip(offset).length(length);
+        if(reference != null) {
+            // Allow read feature to request range of this version only
+            range.setRemote(reference);
+        }
+        return range;
+    }
+
+    /**
+     * Request ranges up to limit of concurrent requests
+     */
+    private void fill() {
+        while(pending.size() < concurrency && position < end) {
+            final long length = Math.min(chunksize, end - position);
+            pending.add(this.submit(this.range(position, length), null));
+            position += length;
+        }
+    }
+
+    private Future<Chunk> submit(final TransferStatus range, final InputStream opened) {
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Submit range request for %s with offset %d and length %d", file, range.getOffset(), range.getLength()));
+        }
+        return pool.execute(new DefaultRetryCallable<Chunk>(host, new BackgroundExceptionCallable<Chunk>() {
+            private InputStream stream = opened;
+
+            @Override
+            public Chunk call() throws BackgroundException {
+                status.validate();
+                final InputStream in = null == stream ? reader.read(file, range, callback) : stream;
+                // Open again when retried
+                stream = null;
+                final Chunk chunk = new Chunk((int) range.getLength());
+                try {
+                    for(int i = 0; i < chunk.buffers.length; i++) {
+                        IOUtils.readFully(in, chunk.buffers[i], 0, chunk.length(i));
+                    }
+                    if(in.read() != -1) {
+                        // Server ignored range and returned remaining content of file
+                        throw new IOException(String.format("Response for range with offset %d and length %d of %s exceeds length",
+                            range.getOffset(), range.getLength(), file));
+                    }
+                }
+                catch(IOException e) {
+                    chunk.release();
+                    throw new DefaultIOExceptionMappingService().map("Download {0} failed", e, file);
+                }
+                finally {
+                    IOUtils.closeQuietly(in);
+                }
+                if(closed) {
+                    // Discard range not read
+                    chunk.release();
+                    throw new ConnectionCanceledException();
+                }
+                return chunk;
+            }
+        }, status));
+    }
+
+    /**
+     * Advance to next range in order
+     *
+     * @return False if end of file is reached
+     */
+    private boolean next() throws IOException {
+        if(closed) {
+            throw new IOException("Stream closed");
+        }
+        if(current != null) {
+            current.release();
+            current = null;
+        }
+        this.fill();
+        final Future<Chunk> future = pending.poll();
+        if(null == future) {
+            this.verify();
+            return false;
+        }
+        try {
+            current = future.get();
+            index = 0;
+        }
+        catch(InterruptedException e) {
+            throw new InterruptedIOException(e.getMessage());
+        }
+        catch(ExecutionException e) {
+            if(e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+        this.fill();
+        return true;
+    }
+
+    /**
+     * Fail if file was modified while reading ranges
+     */
+    private void verify() throws IOException {
+        if(null == reference || verified) {
+            return;
+        }
+        final PathAttributes latest;
+        try {
+            latest = attributes.find(file);
+        }
+        catch(BackgroundException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        if(StringUtils.isNotBlank(reference.getETag()) && !StringUtils.equals(reference.getETag(), latest.getETag())) {
+            throw new IOException(String.format("ETag of %s changed from %s to %s while reading", file, reference.getETag(), latest.getETag()));
+        }
+        if(StringUtils.isNotBlank(reference.getVersionId()) && !StringUtils.equals(reference.getVersionId(), latest.getVersionId())) {
+            throw new IOException(String.format("Version of %s changed from %s to %s while reading", file, reference.getVersionId(), latest.getVersionId()));
+        }
+        verified = true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if(null == current || index == current.size) {
+            if(!this.next()) {
+                return -1;
+            }
+        }
+        final int b = current.buffers[index / PIECE][index % PIECE] & 0xff;
+        index++;
+        return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if(0 == len) {
+            return 0;
+        }
+        if(null == current || index == current.size) {
+            if(!this.next()) {
+                return -1;
+            }
+        }
+        // Copy from single buffer at most
+        final int n = Math.min(len, Math.min(current.size - index, PIECE - index % PIECE));
+        System.arraycopy(current.buffers[index / PIECE], index % PIECE, b, off, n);
+        index += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        if(null == current) {
+            return 0;
+        }
+        return current.size - index;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(closed) {
+            return;
+        }
+        closed = true;
+        if(current != null) {
+            current.release();
+            current = null;
+        }
+        // Cancel requests ahead of read position
+        for(Future<Chunk> future : pending) {
+            if(!future.cancel(true)) {
+                try {
+                    // Completed before cancel
+                    future.get().release();
+                }
+                catch(InterruptedException | ExecutionException | CancellationException e) {
+                    // Ignore
+                }
+            }
+        }
+        pending.clear();
+        pool.shutdown(false);
+    }
+
+    /**
+     * Content of a range in buffers of at most {@link #PIECE} bytes
+     */
+    private static final class Chunk {
+        private final byte[][] buffers;
+        private final int size;
+
+        private Chunk(final int size) {
+            this.size = size;
+            this.buffers = new byte[Math.max(1, (size + PIECE - 1) / PIECE)][];
+            for(int i = 0; i < buffers.length; i++) {
+                buffers[i] = ByteArrayPool.get().acquire(Math.min(PIECE, size - i * PIECE));
+            }
+        }
+
+        /**
+         * @return Number of bytes in buffer with index
+         */
+        private int length(final int i) {
+            return Math.min(PIECE, size - i * PIECE);
+        }
+
+        private void release() {
+            for(byte[] buffer : buffers) {
+                ByteArrayPool.get().release(buffer);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ConcurrentRangeInputStream{");
+        sb.append("file=").append(file);
+        sb.append(", chunksize=").append(chunksize);
+        sb.append(", concurrency=").append(concurrency);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,89 @@
+package ch.cyberduck.core.shared;
+
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.AttributesFinder;
+import ch.cyberduck.core.features.Read;
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.log4j.Logger;
+
+import java.io.InputStream;
+
+/**
+ * Read large files with concurrent range requests when not already part of a segmented transfer
+ */
+public class ConcurrentRangeReadFeature implements Read {
+    private static final Logger log = Logger.getLogger(ConcurrentRangeReadFeature.class);
+
+    private final Preferences preferences = PreferencesFactory.get();
+
+    private final Host host;
+    private final Read proxy;
+    private final AttributesFinder attributes;
+
+    public ConcurrentRangeReadFeature(final Host host, final Read proxy) {
+        this(host, proxy, null);
+    }
+
+    /**
+     * @param attributes Attributes finder to fail reading a file modified between range requests or null
+     */
+    public ConcurrentRangeReadFeature(final Host host, final Read proxy, final AttributesFinder attributes) {
+        this.host = host;
+        this.proxy = proxy;
+        this.attributes = attributes;
+    }
+
+    @Override
+    public InputStream read(final Path file, final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
+        final int concurrency = preferences.getInteger("queue.download.range.concurrency");
+        if(concurrency > 1) {
+            if(!status.isSegment() && !file.getType().contains(Path.Type.upload)) {
+                if(status.getLength() >= preferences.getLong("queue.download.range.threshold")) {
+                    if(proxy.offset(file)) {
+                        if(log.isInfoEnabled()) {
+                            log.info(String.format("Read %s with %d concurrent range requests", file, concurrency));
+                        }
+                        return new ConcurrentRangeInputStream(host, proxy, attributes, file, status, callback,
+                            preferences.getInteger("queue.download.range.size"), concurrency);
+                    }
+                }
+            }
+        }
+        return proxy.read(file, status, callback);
+    }
+
+    @Override
+    public boolean offset(final Path file) throws BackgroundException {
+        return proxy.offset(file);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ConcurrentRangeReadFeature{");
+        sb.append("proxy=").append(proxy);
+        sb.append('}');
+        return sb.toString();
+    }
+}
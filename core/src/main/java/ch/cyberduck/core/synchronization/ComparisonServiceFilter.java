@@ -31,6 +31,7 @@ import ch.cyberduck.core.features.AttributesFinder;
 import ch.cyberduck.core.features.Find;
 import ch.cyberduck.core.io.Checksum;
 import ch.cyberduck.core.io.ChecksumComputeFactory;
+import ch.cyberduck.core.io.LocalChecksumCache;
 import ch.cyberduck.core.shared.DefaultAttributesFinderFeature;
 import ch.cyberduck.core.shared.DefaultFindFeature;
 import ch.cyberduck.core.transfer.TransferStatus;
@@ -50,6 +51,11 @@ public class ComparisonServiceFilter implements ComparePathFilter {
 
     private Cache<Path> cache = PathCache.empty();
 
+    /**
+     * Attributes of files found equal in previous synchronization
+     */
+    private SyncStateStore state;
+
     public ComparisonServiceFilter(final Session<?> session, final TimeZone tz, final ProgressListener listener) {
         this.finder = session.getFeature(Find.class, new DefaultFindFeature(session));
         this.attribute = session.getFeature(AttributesFinder.class, new DefaultAttributesFinderFeature(session));
@@ -74,6 +80,11 @@ public class ComparisonServiceFilter implements ComparePathFilter {
         return this;
     }
 
+    public ComparisonServiceFilter withState(final SyncStateStore state) {
+        this.state = state;
+        return this;
+    }
+
     @Override
     public Comparison compare(final Path file, final Local local) throws BackgroundException {
         if(local.exists()) {
@@ -83,41 +94,21 @@ public class ComparisonServiceFilter implements ComparePathFilter {
                     return Comparison.equal;
                 }
                 final PathAttributes attributes = attribute.withCache(cache).find(file);
-                // We must always compare the size because the download filter will have already created a temporary 0 byte file
-                switch(size.compare(attributes, local.attributes())) {
-                    case remote:
-                        return Comparison.remote;
-                    case local:
-                        return Comparison.local;
+                if(null == state) {
+                    return this.compare(file, local, attributes);
                 }
-                if(Checksum.NONE != attributes.getChecksum()) {
-                    // MD5/ETag Checksum is supported
-                    progress.message(MessageFormat.format(LocaleFactory.localizedString("Compute MD5 hash of {0}", "Status"), file.getName()));
-                    local.attributes().setChecksum(ChecksumComputeFactory.get(attributes.getChecksum().algorithm)
-                        .compute(local.getInputStream(), new TransferStatus()));
-                    switch(checksum.compare(attributes, local.attributes())) {
-                        case equal:
-                            // Decision is available
-                            return Comparison.equal;
-                    }
+                if(state.isUnchanged(file, local, attributes)) {
+                    // Skip comparison of files not modified since previous synchronization
+                    return Comparison.equal;
                 }
-                // Continue to decide with timestamp when both files exist and are not zero bytes
-                // Default comparison is using timestamp of file.
-                final Comparison compare = timestamp.compare(attributes, local.attributes());
-                switch(compare) {
-                    case unknown:
-                        switch(size.compare(attributes, local.attributes())) {
-                            case local:
-                            case notequal:
-                                return Comparison.local;
-                            case remote:
-                                return Comparison.remote;
-                            default:
-                                return Comparison.equal;
-                        }
-                    default:
-                        return compare;
+                final Comparison compare = this.compare(file, local, attributes);
+                if(Comparison.equal == compare) {
+                    state.put(file, local, attributes);
                 }
+                else {
+                    state.remove(file);
+                }
+                return compare;
             }
             else {
                 // Only the local file exists
@@ -132,4 +123,42 @@ public class ComparisonServiceFilter implements ComparePathFilter {
             return Comparison.equal;
         }
     }
+
+    private Comparison compare(final Path file, final Local local, final PathAttributes attributes) throws BackgroundException {
+        // We must always compare the size because the download filter will have already created a temporary 0 byte file
+        switch(size.compare(attributes, local.attributes())) {
+            case remote:
+                return Comparison.remote;
+            case local:
+                return Comparison.local;
+        }
+        if(Checksum.NONE != attributes.getChecksum()) {
+            // MD5/ETag Checksum is supported
+            progress.message(MessageFormat.format(LocaleFactory.localizedString("Compute MD5 hash of {0}", "Status"), file.getName()));
+            local.attributes().setChecksum(LocalChecksumCache.get().compute(
+                ChecksumComputeFactory.get(attributes.getChecksum().algorithm), local, new TransferStatus()));
+            switch(checksum.compare(attributes, local.attributes())) {
+                case equal:
+                    // Decision is available
+                    return Comparison.equal;
+            }
+        }
+        // Continue to decide with timestamp when both files exist and are not zero bytes
+        // Default comparison is using timestamp of file.
+        final Comparison compare = timestamp.compare(attributes, local.attributes());
+        switch(compare) {
+            case unknown:
+                switch(size.compare(attributes, local.attributes())) {
+                    case local:
+                    case notequal:
+                        return Comparison.local;
+                    case remote:
+                        return Comparison.remote;
+                    default:
+                        return Comparison.equal;
+                }
+            default:
+                return compare;
+        }
+    }
 }
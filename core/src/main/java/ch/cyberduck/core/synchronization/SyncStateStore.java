@@ -0,0 +1,302 @@
+package ch.cyberduck.core.synchronization;
+
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.HostUrlProvider;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.preferences.SupportDirectoryFinderFactory;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Attributes of local and remote files found equal in the previous synchronization. A file is not compared again
+ * when neither the size and modification date of the local file nor the size, modification date, ETag and version
+ * of the remote file have changed. Records are stored on disk with a file per remote directory and only the records
+ * of recently used directories are kept in memory.
+ */
+public class SyncStateStore {
+    private static final Logger log = Logger.getLogger(SyncStateStore.class);
+
+    private static final int VERSION = 1;
+
+    private final File folder;
+    private final int capacity;
+
+    /**
+     * Loaded directories in access order. Guarded by this
+     */
+    private final LinkedHashMap<String, Directory> directories = new LinkedHashMap<String, Directory>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Directory> eldest) {
+            if(this.size() > capacity) {
+                write(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * @param host  Bookmark
+     * @param local Local root of synchronization
+     */
+    public SyncStateStore(final Host host, final Local local, final int capacity) {
+        this(new File(new File(LocalFactory.get(SupportDirectoryFinderFactory.get().find(), "Sync").getAbsolute()),
+            DigestUtils.sha1Hex(String.format("%s%s", new HostUrlProvider().withUsername(true).get(host), local.getAbsolute()))), capacity);
+    }
+
+    /**
+     * @param folder   Folder for records of a single synchronization
+     * @param capacity Maximum number of directories kept in memory
+     */
+    public SyncStateStore(final File folder, final int capacity) {
+        this.folder = folder;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param file   Remote file
+     * @param local  Local file
+     * @param remote Current attributes of remote file
+     * @return True if both files are unchanged since they were last found equal
+     */
+    public synchronized boolean isUnchanged(final Path file, final Local local, final PathAttributes remote) {
+        final Record record = this.directory(file.getParent()).records.get(file.getName());
+        if(null == record) {
+            return false;
+        }
+        if(!StringUtils.equals(record.local, local.getAbsolute())) {
+            return false;
+        }
+        if(record.localSize != local.attributes().getSize()) {
+            return false;
+        }
+        if(record.localModificationDate != local.attributes().getModificationDate()) {
+            return false;
+        }
+        if(record.remoteSize != remote.getSize()) {
+            return false;
+        }
+        if(record.remoteModificationDate != remote.getModificationDate()) {
+            return false;
+        }
+        if(!StringUtils.equals(record.etag, remote.getETag())) {
+            return false;
+        }
+        return StringUtils.equals(record.versionId, remote.getVersionId());
+    }
+
+    /**
+     * Save attributes of files found equal
+     *
+     * @param file   Remote file
+     * @param local  Local file
+     * @param remote Attributes of remote file
+     */
+    public synchronized void put(final Path file, final Local local, final PathAttributes remote) {
+        final Directory directory = this.directory(file.getParent());
+        directory.records.put(file.getName(), new Record(local.getAbsolute(),
+            local.attributes().getSize(), local.attributes().getModificationDate(),
+            remote.getSize(), remote.getModificationDate(), remote.getETag(), remote.getVersionId()));
+        directory.modified = true;
+    }
+
+    /**
+     * Discard record of file
+     *
+     * @param file Remote file
+     */
+    public synchronized void remove(final Path file) {
+        final Directory directory = this.directory(file.getParent());
+        if(null != directory.records.remove(file.getName())) {
+            directory.modified = true;
+        }
+    }
+
+    /**
+     * Write modified records to disk
+     */
+    public synchronized void flush() {
+        for(Iterator<Map.Entry<String, Directory>> iter = directories.entrySet().iterator(); iter.hasNext(); ) {
+            final Map.Entry<String, Directory> entry = iter.next();
+            this.write(entry.getKey(), entry.getValue());
+            iter.remove();
+        }
+    }
+
+    /**
+     * Delete all records
+     */
+    public synchronized void clear() {
+        directories.clear();
+        FileUtils.deleteQuietly(folder);
+    }
+
+    private Directory directory(final Path directory) {
+        final String key = directory.getAbsolute();
+        Directory loaded = directories.get(key);
+        if(null == loaded) {
+            loaded = this.read(key);
+            directories.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    private File file(final String directory) {
+        return new File(folder, DigestUtils.sha1Hex(directory));
+    }
+
+    private Directory read(final String directory) {
+        final Directory loaded = new Directory();
+        final File file = this.file(directory);
+        if(!file.exists()) {
+            return loaded;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if(in.readInt() != VERSION) {
+                return loaded;
+            }
+            if(!directory.equals(in.readUTF())) {
+                // Hash collision
+                return loaded;
+            }
+            for(int count = in.readInt(); count > 0; count--) {
+                final String name = in.readUTF();
+                loaded.records.put(name, new Record(in.readUTF(), in.readLong(), in.readLong(), in.readLong(), in.readLong(),
+                    readNullable(in), readNullable(in)));
+            }
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure reading synchronization state from %s. %s", file, e.getMessage()));
+            FileUtils.deleteQuietly(file);
+            loaded.records.clear();
+        }
+        return loaded;
+    }
+
+    private void write(final String directory, final Directory loaded) {
+        if(!loaded.modified) {
+            return;
+        }
+        final File file = this.file(directory);
+        if(loaded.records.isEmpty()) {
+            FileUtils.deleteQuietly(file);
+            return;
+        }
+        if(!folder.exists()) {
+            if(!folder.mkdirs()) {
+                log.warn(String.format("Failure creating folder %s", folder));
+                return;
+            }
+        }
+        final File temporary = new File(folder, String.format("%s.tmp", file.getName()));
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+                out.writeInt(VERSION);
+                out.writeUTF(directory);
+                out.writeInt(loaded.records.size());
+                for(Map.Entry<String, Record> entry : loaded.records.entrySet()) {
+                    final Record record = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    out.writeUTF(record.local);
+                    out.writeLong(record.localSize);
+                    out.writeLong(record.localModificationDate);
+                    out.writeLong(record.remoteSize);
+                    out.writeLong(record.remoteModificationDate);
+                    writeNullable(out, record.etag);
+                    writeNullable(out, record.versionId);
+                }
+            }
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            loaded.modified = false;
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure writing synchronization state to %s. %s", file, e.getMessage()));
+            FileUtils.deleteQuietly(temporary);
+        }
+    }
+
+    private static void writeNullable(final DataOutputStream out, final String value) throws IOException {
+        out.writeBoolean(value != null);
+        if(value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(final DataInputStream in) throws IOException {
+        if(in.readBoolean()) {
+            return in.readUTF();
+        }
+        return null;
+    }
+
+    private static final class Directory {
+        private final Map<String, Record> records = new HashMap<>();
+        private boolean modified;
+    }
+
+    private static final class Record {
+        private final String local;
+        private final long localSize;
+        private final long localModificationDate;
+        private final long remoteSize;
+        private final long remoteModificationDate;
+        private final String etag;
+        private final String versionId;
+
+        Record(final String local, final long localSize, final long localModificationDate,
+               final long remoteSize, final long remoteModificationDate, final String etag, final String versionId) {
+            this.local = local;
+            this.localSize = localSize;
+            this.localModificationDate = localModificationDate;
+            this.remoteSize = remoteSize;
+            this.remoteModificationDate = remoteModificationDate;
+            this.etag = etag;
+            this.versionId = versionId;
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SyncStateStore{");
+        sb.append("folder=").append(folder);
+        sb.append('}');
+        return sb.toString();
+    }
+}
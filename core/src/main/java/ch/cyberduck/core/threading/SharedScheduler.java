@@ -0,0 +1,317 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process wide scheduler running tasks of all shared thread pools on a single set of threads. Tasks are dispatched in
+ * round robin order of pools while the number of running tasks is within the global limit, the limit for the host and
+ * the size of the pool. The limit for a host is accounted separately for every kind of pool given by its prefix such
+ * that listings in the browser never wait for transfers to the same host. Tasks submitted from a thread of the
+ * scheduler itself are queued with their pool but not accounted to the global limit to not block waiting for tasks
+ * queued behind the caller.
+ */
+final class SharedScheduler {
+    private static final Logger log = Logger.getLogger(SharedScheduler.class);
+
+    private static final SharedScheduler global = new SharedScheduler(
+        PreferencesFactory.get().getInteger("threading.shared.pool.size"),
+        PreferencesFactory.get().getInteger("threading.shared.host.limit"));
+
+    static SharedScheduler get() {
+        return global;
+    }
+
+    /**
+     * Set for threads of this scheduler
+     */
+    private static final ThreadLocal<Boolean> worker = ThreadLocal.withInitial(() -> false);
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Maximum number of running tasks not submitted from a thread of this scheduler
+     */
+    private final int size;
+    /**
+     * Maximum number of running tasks per host and kind of pool
+     */
+    private final int limit;
+
+    /**
+     * Guarded by this
+     */
+    private int running;
+    /**
+     * Number of running tasks by host and kind of pool
+     */
+    private final Map<String, Integer> hosts = new HashMap<>();
+    /**
+     * Pools with pending tasks in order of next dispatch
+     */
+    private final Deque<Pool> ready = new ArrayDeque<>();
+
+    SharedScheduler(final int size, final int limit) {
+        this.size = size;
+        this.limit = limit;
+        // Threads are bounded by budgets of scheduler
+        this.executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE,
+            PreferencesFactory.get().getLong("threading.pool.keepalive.seconds"), TimeUnit.SECONDS,
+            new SynchronousQueue<>(), new NamedThreadFactory("shared"));
+    }
+
+    /**
+     * @param host     Key for host budget
+     * @param prefix   Thread name prefix while running tasks of this pool and kind of pool for host budget
+     * @param size     Maximum number of concurrently running tasks of this pool
+     * @param priority Thread priority while running tasks of this pool
+     * @param handler  Notified of failures thrown by tasks
+     */
+    Pool create(final String host, final String prefix, final int size, final ThreadPool.Priority priority,
+                final Thread.UncaughtExceptionHandler handler) {
+        return new Pool(host, prefix, size, priority, handler);
+    }
+
+    private synchronized void schedule(final Pool pool, final Runnable command) {
+        if(pool.shutdown) {
+            throw new RejectedExecutionException(String.format("Pool %s is shutdown", pool));
+        }
+        // Never run in calling thread which may hold a session borrowed from a connection pool
+        pool.pending.add(new Task(command, worker.get()));
+        if(!ready.contains(pool)) {
+            ready.add(pool);
+        }
+        this.dispatch();
+    }
+
+    private boolean available(final Pool pool, final Task task) {
+        return (task.nested || running < size) && pool.running < pool.size && hosts.getOrDefault(pool.key, 0) < limit;
+    }
+
+    /**
+     * Start pending tasks of pools in round robin order while budget is available
+     */
+    private synchronized void dispatch() {
+        int skipped = 0;
+        while(skipped < ready.size()) {
+            final Pool pool = ready.poll();
+            if(pool.pending.isEmpty()) {
+                continue;
+            }
+            if(this.available(pool, pool.pending.peek())) {
+                this.start(pool, pool.pending.poll());
+                skipped = 0;
+            }
+            else {
+                skipped++;
+            }
+            if(!pool.pending.isEmpty()) {
+                ready.add(pool);
+            }
+        }
+    }
+
+    private synchronized void start(final Pool pool, final Task task) {
+        pool.running++;
+        hosts.merge(pool.key, 1, Integer::sum);
+        if(!task.nested) {
+            running++;
+        }
+        executor.execute(() -> this.run(pool, task));
+    }
+
+    private void run(final Pool pool, final Task task) {
+        worker.set(true);
+        final Thread thread = Thread.currentThread();
+        final String name = thread.getName();
+        final int priority = thread.getPriority();
+        synchronized(this) {
+            pool.threads.add(thread);
+        }
+        thread.setName(String.format("%s-%s", pool.prefix, name));
+        thread.setPriority(pool.priority.toInteger());
+        try {
+            task.command.run();
+        }
+        catch(Throwable e) {
+            pool.handler.uncaughtException(thread, e);
+        }
+        finally {
+            thread.setName(name);
+            thread.setPriority(priority);
+            synchronized(this) {
+                pool.threads.remove(thread);
+            }
+            // Clear interrupt from shutdown of pool
+            Thread.interrupted();
+            synchronized(this) {
+                pool.running--;
+                hosts.computeIfPresent(pool.key, (key, count) -> count == 1 ? null : count - 1);
+                if(!task.nested) {
+                    running--;
+                }
+                this.dispatch();
+                this.notifyAll();
+            }
+        }
+    }
+
+    private static final class Task {
+        private final Runnable command;
+        /**
+         * Submitted from a thread of the scheduler
+         */
+        private final boolean nested;
+
+        private Task(final Runnable command, final boolean nested) {
+            this.command = command;
+            this.nested = nested;
+        }
+    }
+
+    /**
+     * Tasks of a single pool sharing the threads of the scheduler
+     */
+    final class Pool extends AbstractExecutorService {
+        private final String host;
+        private final String prefix;
+        private final int size;
+        private final ThreadPool.Priority priority;
+        private final Thread.UncaughtExceptionHandler handler;
+        /**
+         * Key for budget of host and kind of pool
+         */
+        private final String key;
+
+        /**
+         * Guarded by scheduler
+         */
+        private final Deque<Task> pending = new ArrayDeque<>();
+        private final Set<Thread> threads = new HashSet<>();
+        private int running;
+        private boolean shutdown;
+
+        private Pool(final String host, final String prefix, final int size, final ThreadPool.Priority priority,
+                     final Thread.UncaughtExceptionHandler handler) {
+            this.host = host;
+            this.prefix = prefix;
+            this.size = size;
+            this.priority = priority;
+            this.handler = handler;
+            this.key = String.format("%s/%s", host, prefix);
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            schedule(this, command);
+        }
+
+        @Override
+        public void shutdown() {
+            synchronized(SharedScheduler.this) {
+                shutdown = true;
+                SharedScheduler.this.notifyAll();
+            }
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            synchronized(SharedScheduler.this) {
+                shutdown = true;
+                final List<Runnable> discarded = new ArrayList<>();
+                for(Task task : pending) {
+                    if(task.command instanceof Future) {
+                        ((Future<?>) task.command).cancel(false);
+                    }
+                    discarded.add(task.command);
+                }
+                pending.clear();
+                ready.remove(this);
+                for(Thread thread : threads) {
+                    thread.interrupt();
+                }
+                SharedScheduler.this.notifyAll();
+                return discarded;
+            }
+        }
+
+        @Override
+        public boolean isShutdown() {
+            synchronized(SharedScheduler.this) {
+                return shutdown;
+            }
+        }
+
+        @Override
+        public boolean isTerminated() {
+            synchronized(SharedScheduler.this) {
+                return shutdown && pending.isEmpty() && 0 == running;
+            }
+        }
+
+        @Override
+        public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+            final long deadline = System.nanoTime() + unit.toNanos(timeout);
+            synchronized(SharedScheduler.this) {
+                while(!this.isTerminated()) {
+                    final long remaining = deadline - System.nanoTime();
+                    if(remaining <= 0) {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(SharedScheduler.this, remaining);
+                }
+                return true;
+            }
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder("Pool{");
+            sb.append("host='").append(host).append('\'');
+            sb.append(", prefix='").append(prefix).append('\'');
+            sb.append(", size=").append(size);
+            sb.append('}');
+            return sb.toString();
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SharedScheduler{");
+        sb.append("size=").append(size);
+        sb.append(", limit=").append(limit);
+        sb.append('}');
+        return sb.toString();
+    }
+}
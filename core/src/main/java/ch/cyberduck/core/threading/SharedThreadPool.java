@@ -0,0 +1,45 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+
+/**
+ * Thread pool with a concurrency budget running its tasks on the process wide shared scheduler. The number of tasks
+ * running concurrently is bounded by the size of this pool, the limit per host for pools with the same prefix and the
+ * size of the shared scheduler.
+ * Shutdown only affects tasks submitted to this pool.
+ */
+public class SharedThreadPool extends ExecutorServiceThreadPool {
+
+    /**
+     * @param host   Connection target to account tasks for
+     * @param prefix Thread name prefix and kind of tasks sharing a budget for the host
+     * @param size   Maximum number of concurrently running tasks
+     */
+    public SharedThreadPool(final Host host, final String prefix, final int size) {
+        this(host, prefix, size, Priority.norm);
+    }
+
+    public SharedThreadPool(final Host host, final String prefix, final int size, final Priority priority) {
+        this(host, prefix, size, priority, new LoggingUncaughtExceptionHandler());
+    }
+
+    public SharedThreadPool(final Host host, final String prefix, final int size, final Priority priority,
+                            final Thread.UncaughtExceptionHandler handler) {
+        super(SharedScheduler.get().create(host.getHostname(), prefix, size, priority, handler));
+    }
+}
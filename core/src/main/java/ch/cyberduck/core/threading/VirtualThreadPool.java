@@ -0,0 +1,247 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.log4j.Logger;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread pool running every task in a new virtual thread when supported by the runtime. Select with
+ * <code>factory.threadpool.class=ch.cyberduck.core.threading.VirtualThreadPool</code>. Virtual threads always run
+ * with normal priority. Falls back to platform threads with the requested priority on runtimes without virtual
+ * threads. Only applies to pools created with {@link ThreadPoolFactory}. Transfers, multipart operations and
+ * listings running on {@link SharedThreadPool} use the threads of the shared scheduler. Tasks discarded by
+ * shutting down the pool now are cancelled.
+ */
+public class VirtualThreadPool extends ExecutorServiceThreadPool {
+    private static final Logger log = Logger.getLogger(VirtualThreadPool.class);
+
+    public VirtualThreadPool() {
+        this(PreferencesFactory.get().getInteger("threading.pool.size.max"));
+    }
+
+    /**
+     * @param size Maximum number of concurrently running tasks
+     */
+    public VirtualThreadPool(final int size) {
+        this(DEFAULT_THREAD_NAME_PREFIX, size);
+    }
+
+    public VirtualThreadPool(final String prefix, final int size) {
+        this(prefix, size, new LoggingUncaughtExceptionHandler());
+    }
+
+    public VirtualThreadPool(final String prefix, final int size, final Thread.UncaughtExceptionHandler handler) {
+        this(prefix, size, Priority.norm, handler);
+    }
+
+    public VirtualThreadPool(final String prefix, final int size, final Priority priority, final Thread.UncaughtExceptionHandler handler) {
+        super(createExecutor(prefix, size, priority, handler));
+    }
+
+    public static AbstractExecutorService createExecutor(final String prefix, final int size, final Priority priority, final Thread.UncaughtExceptionHandler handler) {
+        final ThreadFactory factory = createVirtualThreadFactory(prefix, handler);
+        if(null == factory) {
+            log.warn(String.format("Virtual threads not supported. Use platform threads for pool %s", prefix));
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size,
+                PreferencesFactory.get().getLong("threading.pool.keepalive.seconds"), TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new NamedThreadFactory(prefix, priority, handler)) {
+                @Override
+                protected void afterExecute(final Runnable r, final Throwable t) {
+                    if(t != null) {
+                        handler.uncaughtException(Thread.currentThread(), t);
+                    }
+                }
+
+                @Override
+                public List<Runnable> shutdownNow() {
+                    final List<Runnable> discarded = super.shutdownNow();
+                    discarded.forEach(VirtualThreadPool::cancel);
+                    return discarded;
+                }
+            };
+            // Do not keep idle threads
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+        return new ThreadPerTaskExecutor(factory, size == Integer.MAX_VALUE ? null : new Semaphore(size, true));
+    }
+
+    /**
+     * @return Factory for virtual threads or null if not supported by runtime
+     */
+    private static ThreadFactory createVirtualThreadFactory(final String prefix, final Thread.UncaughtExceptionHandler handler) {
+        try {
+            final Class<?> type = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = type.getMethod("name", String.class, long.class).invoke(builder, String.format("%s-", prefix), 1L);
+            builder = type.getMethod("uncaughtExceptionHandler", Thread.UncaughtExceptionHandler.class).invoke(builder, handler);
+            return (ThreadFactory) type.getMethod("factory").invoke(builder);
+        }
+        catch(ClassNotFoundException | NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Complete future of task never run to not block waiting for its result
+     */
+    private static void cancel(final Runnable command) {
+        if(command instanceof Future) {
+            ((Future<?>) command).cancel(false);
+        }
+    }
+
+    /**
+     * Start a new virtual thread for every task without pooling. The number of tasks running concurrently is bounded
+     * by a permit acquired in the new thread.
+     */
+    private static final class ThreadPerTaskExecutor extends AbstractExecutorService {
+        private final ThreadFactory factory;
+        /**
+         * Null if unbounded
+         */
+        private final Semaphore permits;
+
+        /**
+         * Guarded by this
+         */
+        private final Set<Thread> threads = new HashSet<>();
+        /**
+         * Tasks of threads waiting for a permit
+         */
+        private final Map<Thread, Runnable> waiting = new HashMap<>();
+        private boolean shutdown;
+
+        private final CountDownLatch terminated = new CountDownLatch(1);
+
+        public ThreadPerTaskExecutor(final ThreadFactory factory, final Semaphore permits) {
+            this.factory = factory;
+            this.permits = permits;
+        }
+
+        @Override
+        public synchronized void execute(final Runnable command) {
+            if(shutdown) {
+                throw new RejectedExecutionException(String.format("Executor %s is shutdown", this));
+            }
+            final Thread thread = factory.newThread(new Runnable() {
+                @Override
+                public void run() {
+                    final Thread current = Thread.currentThread();
+                    try {
+                        if(permits != null) {
+                            permits.acquire();
+                        }
+                    }
+                    catch(InterruptedException e) {
+                        log.warn(String.format("Interrupted waiting to run task %s", command));
+                        cancel(command);
+                        ThreadPerTaskExecutor.this.exit(current);
+                        return;
+                    }
+                    try {
+                        if(ThreadPerTaskExecutor.this.start(current)) {
+                            command.run();
+                        }
+                        else {
+                            // Discarded by shutdown now
+                            cancel(command);
+                        }
+                    }
+                    finally {
+                        if(permits != null) {
+                            permits.release();
+                        }
+                        ThreadPerTaskExecutor.this.exit(current);
+                    }
+                }
+            });
+            threads.add(thread);
+            waiting.put(thread, command);
+            thread.start();
+        }
+
+        /**
+         * @return False if task has been discarded
+         */
+        private synchronized boolean start(final Thread thread) {
+            return waiting.remove(thread) != null;
+        }
+
+        private synchronized void exit(final Thread thread) {
+            threads.remove(thread);
+            waiting.remove(thread);
+            if(shutdown && threads.isEmpty()) {
+                terminated.countDown();
+            }
+        }
+
+        @Override
+        public synchronized void shutdown() {
+            shutdown = true;
+            if(threads.isEmpty()) {
+                terminated.countDown();
+            }
+        }
+
+        @Override
+        public synchronized List<Runnable> shutdownNow() {
+            this.shutdown();
+            final List<Runnable> discarded = new ArrayList<>(waiting.values());
+            waiting.clear();
+            discarded.forEach(VirtualThreadPool::cancel);
+            for(Thread thread : threads) {
+                thread.interrupt();
+            }
+            return discarded;
+        }
+
+        @Override
+        public synchronized boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return terminated.getCount() == 0;
+        }
+
+        @Override
+        public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+            return terminated.await(timeout, unit);
+        }
+    }
+}
@@ -31,6 +31,8 @@ import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathCache;
 import ch.cyberduck.core.ProgressListener;
 import ch.cyberduck.core.Session;
+import ch.cyberduck.core.cache.PersistentCacheListService;
+import ch.cyberduck.core.cache.RecursiveCacheListService;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.Bulk;
 import ch.cyberduck.core.features.Download;
@@ -75,6 +77,12 @@ public class DownloadTransfer extends Transfer {
     private Cache<Path> cache
         = new PathCache(PreferencesFactory.get().getInteger("transfer.cache.size"));
 
+    /**
+     * Listings of descendants retrieved with recursive listing not yet requested
+     */
+    private final Cache<Path> prefetched
+        = new PathCache(Integer.MAX_VALUE);
+
     private final DownloadSymlinkResolver symlinkResolver;
 
     private DownloadFilterOptions options;
@@ -139,7 +147,13 @@ public class DownloadTransfer extends Transfer {
                 list = cache.get(directory);
             }
             else {
-                list = session.getFeature(ListService.class).list(directory, listener);
+                final ListService service = new RecursiveCacheListService(session.getFeature(ListService.class), prefetched);
+                if(PersistentCacheListService.isSupported(session.getHost())) {
+                    list = new PersistentCacheListService(session.getHost(), service).list(directory, listener);
+                }
+                else {
+                    list = service.list(directory, listener);
+                }
                 cache.put(directory, list);
             }
             final List<TransferItem> children = new ArrayList<TransferItem>();
@@ -228,6 +242,7 @@ public class DownloadTransfer extends Transfer {
     @Override
     public void stop() {
         cache.clear();
+        prefetched.clear();
         super.stop();
     }
 
@@ -0,0 +1,717 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Acl;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.Permission;
+import ch.cyberduck.core.SimplePathPredicate;
+import ch.cyberduck.core.VersionId;
+import ch.cyberduck.core.features.Encryption;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Transfer status table keeping at most the given number of entries in memory. When the budget is exceeded, entries
+ * of files with a completed transfer are written with their key to a temporary file. Entries of directories, of files
+ * not yet transferred and with properties that cannot be written to disk are kept in memory. Only a 64 bit
+ * fingerprint of the key and the position in the file is kept in memory for entries written to disk. Entries replaced
+ * or removed are left unreferenced in the file until the table is cleared.
+ */
+public class FileBackedTransferStatusMap extends AbstractMap<TransferItem, TransferStatus> {
+    private static final Logger log = Logger.getLogger(FileBackedTransferStatusMap.class);
+
+    private final Map<TransferItem, TransferStatus> memory
+        = new ConcurrentHashMap<>();
+
+    /**
+     * Entries in memory in order of insertion to search for completed entries
+     */
+    private final Queue<TransferItem> order
+        = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Offset in file of entries written to disk by fingerprint of key
+     */
+    private final Map<Long, Long> index
+        = new ConcurrentHashMap<>();
+
+    /**
+     * Maximum number of entries in memory
+     */
+    private final int budget;
+    private final File folder;
+
+    /**
+     * Single thread writing entries to disk
+     */
+    private final AtomicBoolean spilling
+        = new AtomicBoolean();
+
+    /**
+     * Guarded by this
+     */
+    private File file;
+    private RandomAccessFile out;
+    /**
+     * Number of entries in memory to search again for completed entries
+     */
+    private volatile int threshold;
+
+    public FileBackedTransferStatusMap(final int budget) {
+        this(budget, new File(PreferencesFactory.get().getProperty("tmp.dir")));
+    }
+
+    public FileBackedTransferStatusMap(final int budget, final File folder) {
+        this.budget = budget;
+        this.folder = folder;
+        this.threshold = budget;
+    }
+
+    @Override
+    public TransferStatus put(final TransferItem key, final TransferStatus value) {
+        TransferStatus previous = memory.put(key, value);
+        if(null == previous) {
+            order.add(key);
+            final Entry<TransferItem, TransferStatus> spilled = this.lookup(key);
+            if(spilled != null) {
+                // Replace entry on disk
+                index.remove(fingerprint(key));
+                previous = spilled.getValue();
+            }
+        }
+        if(memory.size() > threshold) {
+            this.spill();
+        }
+        return previous;
+    }
+
+    @Override
+    public TransferStatus get(final Object key) {
+        final TransferStatus status = memory.get(key);
+        if(null == status) {
+            if(key instanceof TransferItem) {
+                final Entry<TransferItem, TransferStatus> spilled = this.lookup((TransferItem) key);
+                if(spilled != null) {
+                    return spilled.getValue();
+                }
+            }
+            return null;
+        }
+        return status;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        if(memory.containsKey(key)) {
+            return true;
+        }
+        if(key instanceof TransferItem) {
+            return this.lookup((TransferItem) key) != null;
+        }
+        return false;
+    }
+
+    @Override
+    public TransferStatus remove(final Object key) {
+        final TransferStatus removed = memory.remove(key);
+        if(null == removed && key instanceof TransferItem) {
+            final Entry<TransferItem, TransferStatus> spilled = this.lookup((TransferItem) key);
+            if(spilled != null) {
+                index.remove(fingerprint((TransferItem) key));
+                return spilled.getValue();
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public int size() {
+        return memory.size() + index.size();
+    }
+
+    @Override
+    public synchronized void clear() {
+        memory.clear();
+        order.clear();
+        index.clear();
+        this.close();
+        if(file != null) {
+            FileUtils.deleteQuietly(file);
+            file = null;
+        }
+        threshold = budget;
+    }
+
+    @Override
+    public Set<Entry<TransferItem, TransferStatus>> entrySet() {
+        return new AbstractSet<Entry<TransferItem, TransferStatus>>() {
+            @Override
+            public Iterator<Entry<TransferItem, TransferStatus>> iterator() {
+                final Iterator<Entry<TransferItem, TransferStatus>> inmemory = memory.entrySet().iterator();
+                final Iterator<Long> ondisk = index.values().iterator();
+                return new Iterator<Entry<TransferItem, TransferStatus>>() {
+                    private Entry<TransferItem, TransferStatus> next;
+
+                    @Override
+                    public boolean hasNext() {
+                        if(next != null) {
+                            return true;
+                        }
+                        if(inmemory.hasNext()) {
+                            next = inmemory.next();
+                            return true;
+                        }
+                        while(ondisk.hasNext()) {
+                            final Entry<TransferItem, TransferStatus> entry = FileBackedTransferStatusMap.this.read(ondisk.next());
+                            if(entry != null) {
+                                next = entry;
+                                return true;
+                            }
+                        }
+                        return false;
+                    }
+
+                    @Override
+                    public Entry<TransferItem, TransferStatus> next() {
+                        if(!this.hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final Entry<TransferItem, TransferStatus> entry = next;
+                        next = null;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return FileBackedTransferStatusMap.this.size();
+            }
+        };
+    }
+
+    /**
+     * @return Entry on disk for key or null if not found
+     */
+    private Entry<TransferItem, TransferStatus> lookup(final TransferItem key) {
+        final Long offset = index.get(fingerprint(key));
+        if(null == offset) {
+            return null;
+        }
+        final Entry<TransferItem, TransferStatus> entry = this.read(offset);
+        if(null == entry || !key.equals(entry.getKey())) {
+            // Fingerprint of other key
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Write completed entries to disk in order of insertion. Records are serialized to a single buffer appended to
+     * the file.
+     */
+    private void spill() {
+        if(!spilling.compareAndSet(false, true)) {
+            // Already writing entries in other thread
+            return;
+        }
+        try {
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            final DataOutputStream records = new DataOutputStream(buffer);
+            final Map<TransferItem, TransferStatus> written = new HashMap<>();
+            final Map<TransferItem, Integer> positions = new HashMap<>();
+            // Search every entry at most once
+            for(int remaining = order.size(); remaining > 0 && memory.size() - written.size() > budget; remaining--) {
+                final TransferItem item = order.poll();
+                if(null == item) {
+                    break;
+                }
+                final TransferStatus status = memory.get(item);
+                if(null == status) {
+                    // Removed
+                    continue;
+                }
+                if(!isSpillable(item, status)) {
+                    if(!item.remote.isDirectory()) {
+                        // Search again when complete
+                        order.add(item);
+                    }
+                    continue;
+                }
+                if(index.containsKey(fingerprint(item))) {
+                    log.warn(String.format("Keep %s with fingerprint of other entry in memory", item));
+                    continue;
+                }
+                final int position = buffer.size();
+                final ByteArrayOutputStream record = new ByteArrayOutputStream();
+                write(new DataOutputStream(record), item, status);
+                records.writeInt(record.size());
+                record.writeTo(records);
+                written.put(item, status);
+                positions.put(item, position);
+            }
+            records.flush();
+            if(written.isEmpty()) {
+                return;
+            }
+            final long offset = this.append(buffer);
+            int count = 0;
+            for(Entry<TransferItem, TransferStatus> entry : written.entrySet()) {
+                final Long fingerprint = fingerprint(entry.getKey());
+                index.put(fingerprint, offset + positions.get(entry.getKey()));
+                if(!memory.remove(entry.getKey(), entry.getValue())) {
+                    // Replaced concurrently
+                    index.remove(fingerprint);
+                    if(memory.containsKey(entry.getKey())) {
+                        order.add(entry.getKey());
+                    }
+                    continue;
+                }
+                count++;
+            }
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Moved %d entries to %s", count, file));
+            }
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure writing transfer status to %s. %s", file, e.getMessage()));
+        }
+        finally {
+            // Search again only after entries in memory have grown by half when most transfers are not yet complete
+            threshold = Math.max(budget, memory.size() + memory.size() / 2);
+            spilling.set(false);
+        }
+    }
+
+    /**
+     * @return Offset of buffer in file
+     */
+    private synchronized long append(final ByteArrayOutputStream buffer) throws IOException {
+        if(null == out) {
+            file = new File(folder, String.format("%s.transfer", UUID.randomUUID()));
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Write transfer status to %s", file));
+            }
+            out = new RandomAccessFile(file, "rw");
+        }
+        final long offset = out.length();
+        out.seek(offset);
+        out.write(buffer.toByteArray());
+        return offset;
+    }
+
+    /**
+     * @param offset Position of entry in file
+     * @return Null on failure reading file
+     */
+    private synchronized Entry<TransferItem, TransferStatus> read(final long offset) {
+        if(null == out) {
+            return null;
+        }
+        try {
+            out.seek(offset);
+            final byte[] buffer = new byte[out.readInt()];
+            out.readFully(buffer);
+            final DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer));
+            return new SimpleImmutableEntry<>(readKey(in), read(in));
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure reading transfer status from %s. %s", file, e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * @return Fingerprint of remote path and type with local path
+     */
+    private static Long fingerprint(final TransferItem item) {
+        final String remote = null == item.remote ? StringUtils.EMPTY : new SimplePathPredicate(item.remote).toString();
+        final String local = null == item.local ? StringUtils.EMPTY : item.local.getAbsolute();
+        return (long) remote.hashCode() << 32 ^ (local.hashCode() & 0xffffffffL);
+    }
+
+    /**
+     * @return True for completed files with all properties of status written to disk
+     */
+    private static boolean isSpillable(final TransferItem item, final TransferStatus status) {
+        if(null == item.remote || item.remote.isDirectory()) {
+            return false;
+        }
+        if(!status.isComplete()) {
+            return false;
+        }
+        return isSerializable(status);
+    }
+
+    private static boolean isSerializable(final TransferStatus status) {
+        if(status.getNonces() != null || status.getLockId() != null) {
+            return false;
+        }
+        if(!isEmpty(status.getAcl()) || !isEmpty(status.getRemote().getAcl())) {
+            return false;
+        }
+        for(TransferStatus segment : status.getSegments()) {
+            if(!isSerializable(segment)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isEmpty(final Acl acl) {
+        return null == acl || acl.isEmpty();
+    }
+
+    private static void write(final DataOutputStream out, final TransferItem item, final TransferStatus status) throws IOException {
+        writePath(out, item.remote);
+        writeLocal(out, item.local);
+        write(out, status);
+        out.flush();
+    }
+
+    private static TransferItem readKey(final DataInputStream in) throws IOException {
+        return new TransferItem(readPath(in), readLocal(in));
+    }
+
+    private static void write(final DataOutputStream out, final TransferStatus status) throws IOException {
+        out.writeLong(status.getLength());
+        out.writeLong(status.getOffset());
+        out.writeBoolean(status.isComplete());
+        out.writeBoolean(status.isExists());
+        out.writeBoolean(status.isAppend());
+        out.writeBoolean(status.isSegment());
+        out.writeBoolean(status.isInplace());
+        out.writeBoolean(status.isRejected());
+        out.writeBoolean(status.isHidden());
+        writePath(out, status.getRename().remote);
+        writeLocal(out, status.getRename().local);
+        writePath(out, status.getDisplayname().remote);
+        writeLocal(out, status.getDisplayname().local);
+        writeChecksum(out, status.getChecksum());
+        writeNullable(out, status.getMime());
+        writeAttributes(out, status.getRemote());
+        writePermission(out, status.getPermission());
+        writeEncryption(out, status.getEncryption());
+        writeNullable(out, status.getStorageClass());
+        writeNullable(out, null == status.getTimestamp() ? null : String.valueOf(status.getTimestamp()));
+        writeMap(out, status.getParameters());
+        writeMap(out, status.getMetadata());
+        writeNullable(out, null == status.getPart() ? null : String.valueOf(status.getPart()));
+        writeBuffer(out, status.getHeader());
+        writeBuffer(out, status.getFilekey());
+        writeNullable(out, null == status.getVersion() ? null : status.getVersion().id);
+        out.writeInt(status.getSegments().size());
+        for(TransferStatus segment : status.getSegments()) {
+            write(out, segment);
+        }
+    }
+
+    private static TransferStatus read(final DataInputStream in) throws IOException {
+        final TransferStatus status = new TransferStatus()
+            .length(in.readLong())
+            .skip(in.readLong());
+        final boolean complete = in.readBoolean();
+        status.setExists(in.readBoolean());
+        status.setAppend(in.readBoolean());
+        status.setSegment(in.readBoolean());
+        status.setInplace(in.readBoolean());
+        status.setRejected(in.readBoolean());
+        status.setHidden(in.readBoolean());
+        status.rename(readPath(in));
+        status.rename(readLocal(in));
+        status.withDisplayname(readPath(in));
+        status.withDisplayname(readLocal(in));
+        status.setChecksum(readChecksum(in));
+        status.setMime(readNullable(in));
+        status.setRemote(readAttributes(in));
+        status.setPermission(readPermission(in));
+        status.setEncryption(readEncryption(in));
+        status.setStorageClass(readNullable(in));
+        final String timestamp = readNullable(in);
+        if(timestamp != null) {
+            status.setTimestamp(Long.valueOf(timestamp));
+        }
+        status.setParameters(readMap(in));
+        status.setMetadata(readMap(in));
+        final String part = readNullable(in);
+        if(part != null) {
+            status.setPart(Integer.valueOf(part));
+        }
+        status.setHeader(readBuffer(in));
+        status.setFilekey(readBuffer(in));
+        final String version = readNullable(in);
+        if(version != null) {
+            status.setVersion(new VersionId(version));
+        }
+        final int count = in.readInt();
+        if(count > 0) {
+            final List<TransferStatus> segments = new ArrayList<>(count);
+            for(int i = 0; i < count; i++) {
+                segments.add(read(in));
+            }
+            status.withSegments(segments);
+        }
+        if(complete) {
+            status.setComplete();
+        }
+        return status;
+    }
+
+    private static void writePath(final DataOutputStream out, final Path file) throws IOException {
+        out.writeBoolean(file != null);
+        if(file != null) {
+            out.writeUTF(file.getAbsolute());
+            final EnumSet<Path.Type> type = file.getType();
+            out.writeInt(type.size());
+            for(Path.Type t : type) {
+                out.writeUTF(t.name());
+            }
+            writeAttributes(out, file.attributes());
+        }
+    }
+
+    private static Path readPath(final DataInputStream in) throws IOException {
+        if(!in.readBoolean()) {
+            return null;
+        }
+        final String path = in.readUTF();
+        final EnumSet<Path.Type> type = EnumSet.noneOf(Path.Type.class);
+        for(int i = in.readInt(); i > 0; i--) {
+            type.add(Path.Type.valueOf(in.readUTF()));
+        }
+        return new Path(path, type, readAttributes(in));
+    }
+
+    private static void writeAttributes(final DataOutputStream out, final PathAttributes attributes) throws IOException {
+        out.writeBoolean(attributes != null && attributes != PathAttributes.EMPTY);
+        if(attributes != null && attributes != PathAttributes.EMPTY) {
+            out.writeLong(attributes.getSize());
+            out.writeLong(attributes.getModificationDate());
+            out.writeLong(attributes.getCreationDate());
+            out.writeLong(attributes.getAccessedDate());
+            writeNullable(out, attributes.getETag());
+            writeNullable(out, attributes.getVersionId());
+            writeNullable(out, attributes.getRegion());
+            writeNullable(out, attributes.getStorageClass());
+            writeNullable(out, attributes.getOwner());
+            writeNullable(out, attributes.getGroup());
+            writePermission(out, attributes.getPermission());
+            writeChecksum(out, attributes.getChecksum());
+            writeEncryption(out, attributes.getEncryption());
+            out.writeBoolean(attributes.isDuplicate());
+            out.writeBoolean(attributes.isHidden());
+            writeNullable(out, attributes.getLockId());
+            writeNullable(out, attributes.getDirectoryId());
+            writeNullable(out, null == attributes.getRevision() ? null : String.valueOf(attributes.getRevision()));
+            writeNullable(out, attributes.getDisplayname());
+            writeMap(out, attributes.getMetadata());
+            writeMap(out, attributes.getCustom());
+        }
+    }
+
+    private static PathAttributes readAttributes(final DataInputStream in) throws IOException {
+        if(!in.readBoolean()) {
+            return PathAttributes.EMPTY;
+        }
+        final PathAttributes attributes = new PathAttributes();
+        attributes.setSize(in.readLong());
+        attributes.setModificationDate(in.readLong());
+        attributes.setCreationDate(in.readLong());
+        attributes.setAccessedDate(in.readLong());
+        attributes.setETag(readNullable(in));
+        attributes.setVersionId(readNullable(in));
+        attributes.setRegion(readNullable(in));
+        attributes.setStorageClass(readNullable(in));
+        attributes.setOwner(readNullable(in));
+        attributes.setGroup(readNullable(in));
+        attributes.setPermission(readPermission(in));
+        attributes.setChecksum(readChecksum(in));
+        attributes.setEncryption(readEncryption(in));
+        attributes.setDuplicate(in.readBoolean());
+        if(in.readBoolean()) {
+            attributes.setHidden(true);
+        }
+        attributes.setLockId(readNullable(in));
+        attributes.setDirectoryId(readNullable(in));
+        final String revision = readNullable(in);
+        if(revision != null) {
+            attributes.setRevision(Long.valueOf(revision));
+        }
+        attributes.setDisplayname(readNullable(in));
+        attributes.setMetadata(readMap(in));
+        attributes.setCustom(readMap(in));
+        return attributes;
+    }
+
+    private static void writeLocal(final DataOutputStream out, final Local local) throws IOException {
+        writeNullable(out, null == local ? null : local.getAbsolute());
+    }
+
+    private static Local readLocal(final DataInputStream in) throws IOException {
+        final String local = readNullable(in);
+        return null == local ? null : LocalFactory.get(local);
+    }
+
+    private static void writeChecksum(final DataOutputStream out, final Checksum checksum) throws IOException {
+        writeNullable(out, null == checksum || null == checksum.algorithm ? null : checksum.algorithm.name());
+        writeNullable(out, null == checksum ? null : checksum.hash);
+    }
+
+    private static Checksum readChecksum(final DataInputStream in) throws IOException {
+        final String algorithm = readNullable(in);
+        final String hash = readNullable(in);
+        if(null == algorithm) {
+            return Checksum.NONE;
+        }
+        return new Checksum(HashAlgorithm.valueOf(algorithm), hash);
+    }
+
+    private static void writePermission(final DataOutputStream out, final Permission permission) throws IOException {
+        writeNullable(out, null == permission || Permission.EMPTY == permission ? null : permission.getMode());
+    }
+
+    private static Permission readPermission(final DataInputStream in) throws IOException {
+        final String mode = readNullable(in);
+        return null == mode ? Permission.EMPTY : new Permission(mode);
+    }
+
+    private static void writeEncryption(final DataOutputStream out, final Encryption.Algorithm encryption) throws IOException {
+        out.writeBoolean(encryption != null && !Encryption.Algorithm.NONE.equals(encryption));
+        if(encryption != null && !Encryption.Algorithm.NONE.equals(encryption)) {
+            writeNullable(out, encryption.algorithm);
+            writeNullable(out, encryption.key);
+        }
+    }
+
+    private static Encryption.Algorithm readEncryption(final DataInputStream in) throws IOException {
+        if(!in.readBoolean()) {
+            return Encryption.Algorithm.NONE;
+        }
+        return new Encryption.Algorithm(readNullable(in), readNullable(in));
+    }
+
+    private static void writeBuffer(final DataOutputStream out, final ByteBuffer buffer) throws IOException {
+        out.writeInt(null == buffer ? -1 : buffer.remaining());
+        if(buffer != null) {
+            final byte[] bytes = new byte[buffer.remaining()];
+            buffer.duplicate().get(bytes);
+            out.write(bytes);
+        }
+    }
+
+    private static ByteBuffer readBuffer(final DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if(length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return ByteBuffer.wrap(bytes);
+    }
+
+    private static void writeMap(final DataOutputStream out, final Map<String, String> map) throws IOException {
+        if(null == map) {
+            out.writeInt(0);
+            return;
+        }
+        out.writeInt(map.size());
+        for(Entry<String, String> entry : map.entrySet()) {
+            out.writeUTF(entry.getKey());
+            writeNullable(out, entry.getValue());
+        }
+    }
+
+    private static Map<String, String> readMap(final DataInputStream in) throws IOException {
+        final int count = in.readInt();
+        if(0 == count) {
+            return Collections.emptyMap();
+        }
+        final Map<String, String> map = new HashMap<>();
+        for(int i = 0; i < count; i++) {
+            map.put(in.readUTF(), readNullable(in));
+        }
+        return map;
+    }
+
+    private static void writeNullable(final DataOutputStream out, final String value) throws IOException {
+        out.writeBoolean(value != null);
+        if(value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(final DataInputStream in) throws IOException {
+        if(in.readBoolean()) {
+            return in.readUTF();
+        }
+        return null;
+    }
+
+    private synchronized void close() {
+        if(out != null) {
+            try {
+                out.close();
+            }
+            catch(IOException e) {
+                log.warn(String.format("Failure closing %s. %s", file, e.getMessage()));
+            }
+            out = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("FileBackedTransferStatusMap{");
+        sb.append("budget=").append(budget);
+        sb.append(", file=").append(file);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -38,6 +38,7 @@ import ch.cyberduck.core.shared.DefaultFindFeature;
 import ch.cyberduck.core.synchronization.CachingComparisonServiceFilter;
 import ch.cyberduck.core.synchronization.Comparison;
 import ch.cyberduck.core.synchronization.ComparisonServiceFilter;
+import ch.cyberduck.core.synchronization.SyncStateStore;
 import ch.cyberduck.core.transfer.synchronisation.SynchronizationPathFilter;
 
 import org.apache.commons.collections4.map.LRUMap;
@@ -73,6 +74,11 @@ public class SyncTransfer extends Transfer {
     private Cache<Path> cache
         = new PathCache(PreferencesFactory.get().getInteger("transfer.cache.size"));
 
+    /**
+     * Files found equal in previous synchronization
+     */
+    private SyncStateStore state;
+
     private final Map<TransferItem, Comparison> comparisons = Collections.synchronizedMap(new LRUMap<TransferItem, Comparison>(
         PreferencesFactory.get().getInteger("transfer.cache.size")));
 
@@ -155,11 +161,16 @@ public class SyncTransfer extends Transfer {
         if(log.isDebugEnabled()) {
             log.debug(String.format("Filter transfer with action %s", action));
         }
+        final ComparisonServiceFilter compare = new ComparisonServiceFilter(source, source.getHost().getTimezone(), listener).withCache(cache);
+        if(PreferencesFactory.get().getBoolean("queue.sync.state.enable")) {
+            if(null == state) {
+                state = new SyncStateStore(host, item.local, PreferencesFactory.get().getInteger("queue.sync.state.cache.size"));
+            }
+            compare.withState(state);
+        }
         // Set chosen action (upload, download, mirror) from prompt
         return new SynchronizationPathFilter(
-            comparison = new CachingComparisonServiceFilter(
-                new ComparisonServiceFilter(source, source.getHost().getTimezone(), listener).withCache(cache)
-            ).withCache(comparisons),
+            comparison = new CachingComparisonServiceFilter(compare).withCache(comparisons),
             download.filter(source, destination, TransferAction.overwrite, listener),
             upload.filter(source, destination, TransferAction.overwrite, listener),
             action
@@ -258,6 +269,9 @@ public class SyncTransfer extends Transfer {
         upload.stop();
         cache.clear();
         comparisons.clear();
+        if(state != null) {
+            state.flush();
+        }
         super.stop();
     }
 
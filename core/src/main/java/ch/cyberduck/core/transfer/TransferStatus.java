@@ -80,6 +80,11 @@ public class TransferStatus implements StreamCancelation, StreamProgress {
      */
     private boolean segment = false;
 
+    /**
+     * Segments are written at their offset to the target file instead of separate segment files
+     */
+    private boolean inplace = false;
+
     /**
      * Not accepted
      */
@@ -194,6 +199,7 @@ public class TransferStatus implements StreamCancelation, StreamProgress {
         this.append = copy.append;
         this.segment = copy.segment;
         this.segments = copy.segments;
+        this.inplace = copy.inplace;
         this.rejected = copy.rejected;
         this.hidden = copy.hidden;
         this.offset.set(copy.offset.get());
@@ -364,6 +370,19 @@ public class TransferStatus implements StreamCancelation, StreamProgress {
         return this;
     }
 
+    public boolean isInplace() {
+        return inplace;
+    }
+
+    public void setInplace(final boolean inplace) {
+        this.inplace = inplace;
+    }
+
+    public TransferStatus inplace(final boolean inplace) {
+        this.inplace = inplace;
+        return this;
+    }
+
     public void setRejected(boolean rejected) {
         this.rejected = rejected;
     }
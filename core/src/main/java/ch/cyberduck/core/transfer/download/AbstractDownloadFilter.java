@@ -198,7 +198,8 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
                 catch(IOException e) {
                     log.warn(String.format("Failure to determine disk space for %s", file.getParent()));
                 }
-                if(status.getLength() * 2 > space) {
+                // Segment files require additional space until concatenated
+                if(status.getLength() * (options.inplace ? 1 : 2) > space) {
                     log.warn(String.format("Insufficient free disk space %d for segmented download of %s", space, file));
                 }
                 else {
@@ -218,36 +219,58 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
                                 status.getLength() / preferences.getInteger("queue.connections.limit"));
                             // Sorted list
                             final List<TransferStatus> segments = new ArrayList<TransferStatus>();
-                            final Local segmentsFolder = LocalFactory.get(local.getParent(), String.format("%s.cyberducksegment", local.getName()));
-                            for(int segmentNumber = 1; remaining > 0; segmentNumber++) {
-                                final Local segmentFile = LocalFactory.get(
-                                    segmentsFolder, String.format("%s-%d.cyberducksegment", local.getName(), segmentNumber));
-                                try {
-                                    // Test path length
-                                    Paths.get(segmentFile.getAbsolute()).toRealPath();
+                            if(options.inplace) {
+                                while(remaining > 0) {
+                                    // Last part can be less than 5 MB. Adjust part size.
+                                    long length = Math.min(partsize, remaining);
+                                    // Target file is set when applied
+                                    final TransferStatus segmentStatus = new TransferStatus()
+                                        .segment(true) // Skip completion filter for single segment
+                                        .inplace(true) // Write at offset to target file
+                                        .append(true) // Read with offset
+                                        .skip(offset)
+                                        .length(length);
+                                    if(log.isDebugEnabled()) {
+                                        log.debug(String.format("Adding status %s for segment at offset %d", segmentStatus, offset));
+                                    }
+                                    segments.add(segmentStatus);
+                                    remaining -= length;
+                                    offset += length;
                                 }
-                                catch(NoSuchFileException e) {
-                                    // Continue
-                                }
-                                catch(InvalidPathException | IOException e) {
-                                    log.error(String.format("Failure to create path for segment %s. %s", segmentFile, e.getMessage()));
-                                    segments.clear();
-                                    break;
-                                }
-                                // Last part can be less than 5 MB. Adjust part size.
-                                long length = Math.min(partsize, remaining);
-                                final TransferStatus segmentStatus = new TransferStatus()
-                                    .segment(true) // Skip completion filter for single segment
-                                    .append(true) // Read with offset
-                                    .skip(offset)
-                                    .length(length)
-                                    .rename(segmentFile);
-                                if(log.isDebugEnabled()) {
-                                    log.debug(String.format("Adding status %s for segment %s", segmentStatus, segmentFile));
+                                status.inplace(true);
+                            }
+                            else {
+                                final Local segmentsFolder = LocalFactory.get(local.getParent(), String.format("%s.cyberducksegment", local.getName()));
+                                for(int segmentNumber = 1; remaining > 0; segmentNumber++) {
+                                    final Local segmentFile = LocalFactory.get(
+                                        segmentsFolder, String.format("%s-%d.cyberducksegment", local.getName(), segmentNumber));
+                                    try {
+                                        // Test path length
+                                        Paths.get(segmentFile.getAbsolute()).toRealPath();
+                                    }
+                                    catch(NoSuchFileException e) {
+                                        // Continue
+                                    }
+                                    catch(InvalidPathException | IOException e) {
+                                        log.error(String.format("Failure to create path for segment %s. %s", segmentFile, e.getMessage()));
+                                        segments.clear();
+                                        break;
+                                    }
+                                    // Last part can be less than 5 MB. Adjust part size.
+                                    long length = Math.min(partsize, remaining);
+                                    final TransferStatus segmentStatus = new TransferStatus()
+                                        .segment(true) // Skip completion filter for single segment
+                                        .append(true) // Read with offset
+                                        .skip(offset)
+                                        .length(length)
+                                        .rename(segmentFile);
+                                    if(log.isDebugEnabled()) {
+                                        log.debug(String.format("Adding status %s for segment %s", segmentStatus, segmentFile));
+                                    }
+                                    segments.add(segmentStatus);
+                                    remaining -= length;
+                                    offset += length;
                                 }
-                                segments.add(segmentStatus);
-                                remaining -= length;
-                                offset += length;
                             }
                             status.withSegments(segments);
                         }
@@ -264,7 +287,20 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
     @Override
     public void apply(final Path file, final Local local, final TransferStatus status,
                       final ProgressListener listener) throws BackgroundException {
-        //
+        if(status.isSegmented() && status.isInplace()) {
+            for(TransferStatus segmentStatus : status.getSegments()) {
+                segmentStatus.rename(local);
+            }
+            if(!status.isAppend()) {
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("Preallocate %d bytes for file %s", status.getLength(), local));
+                }
+                // Discard previous content
+                local.allocate(status.getLength());
+                // Size of preallocated file does not tell about progress
+                new InplaceSegmentProgress(local).create(status.getSegments().get(0).getLength());
+            }
+        }
     }
 
     /**
@@ -278,13 +314,20 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
             log.debug(String.format("Complete %s with status %s", file.getAbsolute(), status));
         }
         if(status.isSegment()) {
+            if(status.isInplace() && status.isComplete()) {
+                // Offset of segment advanced to end
+                new InplaceSegmentProgress(local).complete(status.getOffset());
+            }
             if(log.isDebugEnabled()) {
                 log.debug(String.format("Skip completion for single segment %s", status));
             }
             return;
         }
         if(status.isComplete()) {
-            if(status.isSegmented()) {
+            if(status.isSegmented() && status.isInplace()) {
+                new InplaceSegmentProgress(local).delete();
+            }
+            if(status.isSegmented() && !status.isInplace()) {
                 // Obtain ordered list of segments to reassemble
                 final List<TransferStatus> segments = status.getSegments();
                 if(log.isInfoEnabled()) {
@@ -0,0 +1,134 @@
+package ch.cyberduck.core.transfer.download;
+
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.LocalAccessDeniedException;
+import ch.cyberduck.core.exception.NotfoundException;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sidecar file recording segments written in place to a preallocated target file. The first line is the segment
+ * size followed by the end offset of every completed segment. Accessed with streams of {@link Local} to obtain access
+ * to files outside of the sandbox.
+ */
+final class InplaceSegmentProgress {
+    private static final Logger log = Logger.getLogger(InplaceSegmentProgress.class);
+
+    /**
+     * Segments complete concurrently with different filter instances
+     */
+    private static final Object lock = new Object();
+
+    private final Local file;
+
+    public InplaceSegmentProgress(final Local local) {
+        this.file = LocalFactory.get(local.getParent(), String.format("%s.cyberduckprogress", local.getName()));
+    }
+
+    public boolean exists() {
+        return file.exists();
+    }
+
+    /**
+     * @param partsize Size of segments
+     */
+    public void create(final long partsize) throws AccessDeniedException {
+        this.write(String.valueOf(partsize), false);
+    }
+
+    /**
+     * @param end Offset of last byte written plus one
+     */
+    public void complete(final long end) throws AccessDeniedException {
+        this.write(String.valueOf(end), true);
+    }
+
+    private void write(final String line, final boolean append) throws AccessDeniedException {
+        synchronized(lock) {
+            final OutputStream out = file.getOutputStream(append);
+            try {
+                IOUtils.writeLines(Collections.singletonList(line), IOUtils.LINE_SEPARATOR_UNIX, out, StandardCharsets.UTF_8);
+            }
+            catch(IOException e) {
+                throw new LocalAccessDeniedException(e.getMessage(), e);
+            }
+            finally {
+                IOUtils.closeQuietly(out);
+            }
+        }
+    }
+
+    /**
+     * @param partsize Size of segments
+     * @return End offsets of completed segments or empty if not recorded for segments of given size
+     */
+    public Set<Long> find(final long partsize) {
+        final Set<Long> completed = new HashSet<>();
+        synchronized(lock) {
+            InputStream in = null;
+            try {
+                in = file.getInputStream();
+                final List<String> lines = IOUtils.readLines(in, StandardCharsets.UTF_8);
+                if(lines.isEmpty() || !StringUtils.equals(String.valueOf(partsize), lines.get(0))) {
+                    log.warn(String.format("Ignore progress in %s for segments with different size", file));
+                    return completed;
+                }
+                for(String line : lines.subList(1, lines.size())) {
+                    if(StringUtils.isNotBlank(line)) {
+                        completed.add(Long.valueOf(line));
+                    }
+                }
+            }
+            catch(AccessDeniedException | IOException | NumberFormatException e) {
+                log.warn(String.format("Failure reading progress from %s. %s", file, e.getMessage()));
+                completed.clear();
+            }
+            finally {
+                IOUtils.closeQuietly(in);
+            }
+        }
+        return completed;
+    }
+
+    public void delete() {
+        synchronized(lock) {
+            try {
+                if(file.exists()) {
+                    file.delete();
+                }
+            }
+            catch(AccessDeniedException | NotfoundException e) {
+                log.warn(String.format("Failure deleting %s. %s", file, e.getMessage()));
+            }
+        }
+    }
+}
@@ -32,6 +32,8 @@ import ch.cyberduck.core.transfer.symlink.SymlinkResolver;
 
 import org.apache.log4j.Logger;
 
+import java.util.Set;
+
 public class ResumeFilter extends AbstractDownloadFilter {
     private static final Logger log = Logger.getLogger(ResumeFilter.class);
 
@@ -55,7 +57,7 @@ public class ResumeFilter extends AbstractDownloadFilter {
     @Override
     public boolean accept(final Path file, final Local local, final TransferStatus parent) throws BackgroundException {
         if(local.isFile()) {
-            if(local.exists()) {
+            if(local.exists() && !new InplaceSegmentProgress(local).exists()) {
                 // Read remote attributes
                 final PathAttributes attributes = attribute.find(file);
                 if(local.attributes().getSize() == attributes.getSize()) {
@@ -87,7 +89,33 @@ public class ResumeFilter extends AbstractDownloadFilter {
     @Override
     public TransferStatus prepare(final Path file, final Local local, final TransferStatus parent, final ProgressListener progress) throws BackgroundException {
         final TransferStatus status = super.prepare(file, local, parent, progress);
-        if(status.isSegmented()) {
+        if(status.isSegmented() && status.isInplace()) {
+            // Segments written to preallocated target file cannot be resumed from file size
+            final InplaceSegmentProgress progress = new InplaceSegmentProgress(local);
+            if(progress.exists() && local.attributes().getSize() == status.getLength()) {
+                final Set<Long> completed = progress.find(status.getSegments().get(0).getLength());
+                for(TransferStatus segmentStatus : status.getSegments()) {
+                    if(completed.contains(segmentStatus.getOffset() + segmentStatus.getLength())) {
+                        if(log.isInfoEnabled()) {
+                            log.info(String.format("Skip completed segment %s", segmentStatus));
+                        }
+                        segmentStatus.setComplete();
+                        // Recalculate transfer length
+                        status.setLength(status.getLength() - segmentStatus.getLength());
+                    }
+                }
+                if(!completed.isEmpty()) {
+                    // Keep preallocated file
+                    status.setAppend(true);
+                }
+            }
+            else {
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("Download all segments of %s", file));
+                }
+            }
+        }
+        else if(status.isSegmented()) {
             for(TransferStatus segmentStatus : status.getSegments()) {
                 final Local segmentFile = segmentStatus.getRename().local;
                 if(segmentFile.exists()) {
@@ -36,6 +36,7 @@ import ch.cyberduck.core.features.Timestamp;
 import ch.cyberduck.core.features.UnixPermission;
 import ch.cyberduck.core.features.Write;
 import ch.cyberduck.core.io.ChecksumCompute;
+import ch.cyberduck.core.io.LocalChecksumCache;
 import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.shared.DefaultAttributesFinderFeature;
@@ -272,7 +273,7 @@ public abstract class AbstractUploadFilter implements TransferPathFilter {
                     progress.message(MessageFormat.format(LocaleFactory.localizedString("Calculate checksum for {0}", "Status"),
                         file.getName()));
                     try {
-                        status.setChecksum(feature.compute(local.getInputStream(), status));
+                        status.setChecksum(LocalChecksumCache.get().compute(feature, local, status));
                     }
                     catch(LocalAccessDeniedException e) {
                         // Ignore failure reading file when in sandbox when we miss a security scoped access bookmark.
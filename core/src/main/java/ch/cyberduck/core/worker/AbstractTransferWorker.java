@@ -39,6 +39,7 @@ import ch.cyberduck.core.notification.NotificationService;
 import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.threading.TransferBackgroundActionState;
+import ch.cyberduck.core.transfer.FileBackedTransferStatusMap;
 import ch.cyberduck.core.transfer.SynchronizingTransferErrorCallback;
 import ch.cyberduck.core.transfer.Transfer;
 import ch.cyberduck.core.transfer.TransferAction;
@@ -55,10 +56,17 @@ import org.apache.commons.lang3.concurrent.ConcurrentUtils;
 import org.apache.log4j.Logger;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
     private static final Logger log = Logger.getLogger(AbstractTransferWorker.class);
@@ -88,6 +96,27 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
     private final ProgressListener progress;
     private final StreamListener stream;
     private final Preferences preferences = PreferencesFactory.get();
+    /**
+     * Hand over files to transfer queue as soon as their status is determined while still preparing
+     */
+    private final boolean streaming = preferences.getBoolean("queue.transfer.streaming");
+    /**
+     * Maximum number of segments submitted to the transfer queue and not yet completed in streaming mode
+     */
+    private final Semaphore window = new Semaphore(preferences.getInteger("queue.transfer.streaming.window"));
+    /**
+     * Number of prepared files passed to bulk features at once before handing them over to the transfer queue in
+     * streaming mode
+     */
+    private final int batchsize = preferences.getInteger("queue.transfer.streaming.batch");
+    /**
+     * Prepared files not yet handed over to transfer queue in streaming mode. Guarded by itself
+     */
+    private final List<TransferItem> batch = new ArrayList<>();
+    /**
+     * Directories with post processing deferred until all children are transferred in streaming mode
+     */
+    private final Deque<TransferItem> directories = new ConcurrentLinkedDeque<>();
 
     public AbstractTransferWorker(final Transfer transfer, final TransferOptions options,
                                   final TransferPrompt prompt, final TransferSpeedometer meter,
@@ -107,7 +136,10 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                                   final ConnectionCallback connect,
                                   final NotificationService notification,
                                   final Cache<TransferItem> cache) {
-        this(transfer, options, prompt, meter, error, progress, stream, connect, notification, cache, new ConcurrentHashMap<TransferItem, TransferStatus>());
+        this(transfer, options, prompt, meter, error, progress, stream, connect, notification, cache,
+            PreferencesFactory.get().getInteger("queue.transfer.table.size") > 0 ?
+                new FileBackedTransferStatusMap(PreferencesFactory.get().getInteger("queue.transfer.table.size")) :
+                new ConcurrentHashMap<TransferItem, TransferStatus>());
     }
 
     public AbstractTransferWorker(final Transfer transfer, final TransferOptions options,
@@ -212,18 +244,42 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
             progress.message(MessageFormat.format(LocaleFactory.localizedString("Prepare {0} ({1})", "Status"), transfer.getName(), action.getTitle()));
             transfer.normalize();
 
-            // Calculate information about the files in advance to give progress information
-            for(TransferItem next : transfer.getRoots()) {
-                this.prepare(next.remote, next.local, new TransferStatus().exists(true).withLockId(next.lockId).withChecksum(next.checksum), action);
+            if(streaming) {
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("Transfer files while preparing with window of %d", window.availablePermits()));
+                }
+                meter.reset();
+                // Obtain locks before directories are created
+                transfer.pre(source, destination, Collections.<TransferItem, TransferStatus>emptyMap(), connect);
+                // Prepare and transfer files in a single pass
+                for(TransferItem next : transfer.getRoots()) {
+                    this.prepare(next.remote, next.local, new TransferStatus().exists(true).withLockId(next.lockId).withChecksum(next.checksum), action);
+                }
+                this.await();
+                // Hand over remaining prepared files
+                final List<TransferItem> remaining;
+                synchronized(batch) {
+                    remaining = new ArrayList<>(batch);
+                    batch.clear();
+                }
+                this.flush(remaining, action);
+                this.await();
+                this.complete(action);
             }
-            this.await();
-            meter.reset();
-            transfer.pre(source, destination, table, connect);
-            // Transfer all files sequentially
-            for(TransferItem next : transfer.getRoots()) {
-                this.transfer(next, action);
+            else {
+                // Calculate information about the files in advance to give progress information
+                for(TransferItem next : transfer.getRoots()) {
+                    this.prepare(next.remote, next.local, new TransferStatus().exists(true).withLockId(next.lockId).withChecksum(next.checksum), action);
+                }
+                this.await();
+                meter.reset();
+                transfer.pre(source, destination, table, connect);
+                // Transfer all files sequentially
+                for(TransferItem next : transfer.getRoots()) {
+                    this.transfer(next, action);
+                }
+                this.await();
             }
-            this.await();
             transfer.post(source, destination, table, connect);
         }
         finally {
@@ -237,10 +293,96 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
             sleep.release(lock);
             table.clear();
             cache.clear();
+            directories.clear();
+            synchronized(batch) {
+                batch.clear();
+            }
         }
         return true;
     }
 
+    /**
+     * Pass prepared files to bulk features of transfer and hand over to transfer queue in streaming mode
+     *
+     * @param items  Prepared files
+     * @param action Transfer action for existing files
+     */
+    private void flush(final List<TransferItem> items, final TransferAction action) throws BackgroundException {
+        if(items.isEmpty()) {
+            return;
+        }
+        final Map<TransferItem, TransferStatus> files = new LinkedHashMap<>();
+        for(TransferItem item : items) {
+            final TransferStatus status = table.get(item);
+            if(null != status) {
+                files.put(item, status);
+            }
+        }
+        final Session<?> source = this.borrow(Connection.source);
+        final Session<?> destination = this.borrow(Connection.destination);
+        try {
+            transfer.pre(source, destination, files, connect);
+        }
+        finally {
+            this.release(source, Connection.source, null);
+            this.release(destination, Connection.destination, null);
+        }
+        for(Map.Entry<TransferItem, TransferStatus> entry : files.entrySet()) {
+            // Hand over to transfer queue without waiting for the remaining files to be prepared
+            if(window.tryAcquire(entry.getValue().getSegments().size())) {
+                this.transfer(entry.getKey(), action, false);
+            }
+            else {
+                // Window is full. Transfer in this thread after connections for preparing are released
+                this.transfer(entry.getKey(), action, true);
+            }
+        }
+    }
+
+    /**
+     * @return True if transfer is for a single file only
+     */
+    private boolean isSingleFile() {
+        if(streaming) {
+            // Table is incomplete while remaining files are prepared
+            final List<TransferItem> roots = transfer.getRoots();
+            return roots.size() == 1 && roots.get(0).remote.isFile();
+        }
+        return table.size() == 1;
+    }
+
+    /**
+     * Post process directories in streaming mode after all files are transferred. Children are completed
+     * before their parent directory.
+     *
+     * @param action Transfer action for existing files
+     */
+    protected void complete(final TransferAction action) throws BackgroundException {
+        final Session<?> source = this.borrow(Connection.source);
+        final Session<?> destination = this.borrow(Connection.destination);
+        try {
+            final TransferPathFilter filter = transfer.filter(source, destination, action, progress);
+            for(Iterator<TransferItem> iter = directories.descendingIterator(); iter.hasNext(); ) {
+                if(this.isCanceled()) {
+                    throw new TransferCanceledException();
+                }
+                final TransferItem item = iter.next();
+                final TransferStatus status = table.get(item);
+                if(null == status) {
+                    continue;
+                }
+                filter.complete(
+                    status.getRename().remote != null ? status.getRename().remote : item.remote,
+                    status.getRename().local != null ? status.getRename().local : item.local,
+                    options, status, progress);
+            }
+        }
+        finally {
+            this.release(source, Connection.source, null);
+            this.release(destination, Connection.destination, null);
+        }
+    }
+
     /**
      * To be called before any file is actually transferred
      *
@@ -255,7 +397,7 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
             throw new TransferCanceledException();
         }
         if(prompt.isSelected(new TransferItem(file, local))) {
-            return this.submit(new RetryTransferCallable(transfer.getSource(),
+            final TransferCallable callable = new RetryTransferCallable(transfer.getSource(),
                 preferences.getInteger("transfer.connection.retry"), preferences.getInteger("transfer.connection.retry.delay")) {
 
                 @Override
@@ -282,7 +424,8 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                                 file.getName(), action.getTitle()));
                             // Determine transfer status
                             final TransferStatus status = filter.prepare(file, local, parent, progress);
-                            table.put(new TransferItem(file, local), status);
+                            final TransferItem key = new TransferItem(file, local);
+                            table.put(key, status);
                             final TransferItem item = new TransferItem(
                                 status.getRename().remote != null ? status.getRename().remote : file,
                                 status.getRename().local != null ? status.getRename().local : local
@@ -293,13 +436,22 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                             transfer.addSize(status.getLength() + status.getOffset());
                             // Add skipped bytes
                             transfer.addTransferred(status.getOffset());
+                            if(streaming) {
+                                if(file.isDirectory()) {
+                                    // Create directory before children are transferred
+                                    transfer.transfer(source, destination, item.remote, item.local, options, status, connect, progress, stream);
+                                    directories.add(key);
+                                }
+                            }
                             // Recursive
                             if(file.isDirectory()) {
                                 final List<TransferItem> children;
                                 // Call recursively for all children
                                 children = transfer.list(source, file, local, new WorkerListProgressListener(AbstractTransferWorker.this, progress));
-                                // Put into cache for later reference when transferring
-                                cache.put(item, new AttributedList<TransferItem>(children));
+                                if(!streaming) {
+                                    // Put into cache for later reference when transferring
+                                    cache.put(item, new AttributedList<TransferItem>(children));
+                                }
                                 // Call recursively
                                 for(TransferItem f : children) {
                                     // Change download path relative to parent local folder
@@ -348,7 +500,35 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                     sb.append('}');
                     return sb.toString();
                 }
-            });
+            };
+            if(streaming && !file.isDirectory()) {
+                return this.submit(new TransferCallable() {
+                    @Override
+                    public TransferStatus call() throws BackgroundException {
+                        final TransferStatus status = callable.call();
+                        if(null == status) {
+                            return null;
+                        }
+                        final List<TransferItem> ready;
+                        synchronized(batch) {
+                            batch.add(new TransferItem(file, local));
+                            if(batch.size() < batchsize) {
+                                return status;
+                            }
+                            ready = new ArrayList<>(batch);
+                            batch.clear();
+                        }
+                        flush(ready, action);
+                        return status;
+                    }
+
+                    @Override
+                    public String toString() {
+                        return callable.toString();
+                    }
+                });
+            }
+            return this.submit(callable);
         }
         else {
             log.info(String.format("Skip unchecked file %s for transfer %s", file, this));
@@ -361,6 +541,15 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
      * @param action Transfer action for existing files
      */
     public Future<TransferStatus> transfer(final TransferItem item, final TransferAction action) throws BackgroundException {
+        return this.transfer(item, action, false);
+    }
+
+    /**
+     * @param item   File to transfer
+     * @param action Transfer action for existing files
+     * @param inline Run in current thread instead of submitting to pool
+     */
+    private Future<TransferStatus> transfer(final TransferItem item, final TransferAction action, final boolean inline) throws BackgroundException {
         if(this.isCanceled()) {
             throw new TransferCanceledException();
         }
@@ -371,13 +560,27 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
             final List<TransferStatus> segments = status.getSegments();
             for(final TransferStatus segment : segments) {
                 if(segment.isComplete()) {
+                    if(streaming && !inline) {
+                        window.release();
+                    }
                     continue;
                 }
-                this.submit(new RetryTransferCallable(transfer.getSource(),
+                this.execute(new RetryTransferCallable(transfer.getSource(),
                     preferences.getInteger("transfer.connection.retry"), preferences.getInteger("transfer.connection.retry.delay")) {
 
                     @Override
                     public TransferStatus call() throws BackgroundException {
+                        try {
+                            return this.proceed();
+                        }
+                        finally {
+                            if(streaming && !inline) {
+                                window.release();
+                            }
+                        }
+                    }
+
+                    private TransferStatus proceed() throws BackgroundException {
                         status.validate();
                         // Transfer
                         // Do transfer with retry
@@ -415,6 +618,8 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                         if(log.isDebugEnabled()) {
                             log.debug(String.format("Transfer item %s with status %s", item, segment));
                         }
+                        // End of segment written in place
+                        final long end = segment.getOffset() + segment.getLength();
                         final Session<?> s = borrow(Connection.source);
                         final Session<?> d = borrow(Connection.destination);
                         try {
@@ -433,6 +638,14 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                             release(d, Connection.destination, e);
                             log.warn(String.format("Failure transferring %s. %s", item, e));
                             if(this.retry(e, progress, new TransferBackgroundActionState(status))) {
+                                if(segment.isSegment() && segment.isInplace()) {
+                                    log.info(String.format("Retry %s at offset %d with transfer status %s", item, segment.getOffset(), segment));
+                                    // Continue with bytes not yet written to target file
+                                    this.retry(segment
+                                        .length(end - segment.getOffset())
+                                        .append(true));
+                                    return;
+                                }
                                 final Session<?> source = borrow(Connection.source);
                                 final Session<?> destination = borrow(Connection.destination);
                                 try {
@@ -460,7 +673,7 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                                 log.debug(String.format("Cancel retry for %s", item));
                             }
                             segment.setFailure();
-                            if(table.size() == 1) {
+                            if(isSingleFile()) {
                                 // Fail fast when transferring single file
                                 throw e;
                             }
@@ -487,9 +700,9 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                         sb.append('}');
                         return sb.toString();
                     }
-                });
+                }, inline);
             }
-            return this.submit(new TransferCallable() {
+            return this.execute(new TransferCallable() {
                 @Override
                 public TransferStatus call() throws BackgroundException {
                     status.validate();
@@ -535,7 +748,7 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                     sb.append('}');
                     return sb.toString();
                 }
-            });
+            }, inline);
         }
         else {
             log.warn(String.format("Skip file %s with unknown transfer status", item));
@@ -543,6 +756,17 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
         return ConcurrentUtils.constantFuture(null);
     }
 
+    /**
+     * @param callable Repeatable
+     * @param inline   Run in current thread
+     */
+    private Future<TransferStatus> execute(final TransferCallable callable, final boolean inline) throws BackgroundException {
+        if(inline) {
+            return ConcurrentUtils.constantFuture(callable.call());
+        }
+        return this.submit(callable);
+    }
+
     @Override
     public String getActivity() {
         return BookmarkNameProvider.toString(transfer.getSource());
@@ -19,17 +19,21 @@ package ch.cyberduck.core.worker;
  * dkocher@cyberduck.ch
  */
 
+import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.LocaleFactory;
+import ch.cyberduck.core.NullFilter;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.ProgressListener;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.pool.SessionPool;
 
 import java.text.MessageFormat;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class CalculateSizeWorker extends Worker<Long> {
 
@@ -39,20 +43,31 @@ public abstract class CalculateSizeWorker extends Worker<Long> {
     private final List<Path> files;
 
     private final ProgressListener listener;
+    private final ConcurrentTreeWalker walker;
 
     public CalculateSizeWorker(final List<Path> files, final ProgressListener listener) {
         this.files = files;
         this.listener = listener;
+        this.walker = new ConcurrentTreeWalker(SessionPool.DISCONNECTED, this, listener, new NullFilter<Path>(), 1);
     }
 
-    private Long total = 0L;
+    /**
+     * @param pool Connection pool to list directories concurrently
+     */
+    public CalculateSizeWorker(final List<Path> files, final SessionPool pool, final ProgressListener listener) {
+        this.files = files;
+        this.listener = listener;
+        this.walker = new ConcurrentTreeWalker(pool, this, listener, new NullFilter<Path>());
+    }
+
+    private final AtomicLong total = new AtomicLong();
 
     @Override
     public Long run(final Session<?> session) throws BackgroundException {
         for(Path next : files) {
             next.attributes().setSize(this.calculateSize(session, next));
         }
-        return total;
+        return total.get();
     }
 
     /**
@@ -63,27 +78,38 @@ public abstract class CalculateSizeWorker extends Worker<Long> {
      * @return The size of the file or the sum of all containing files if a directory
      */
     private long calculateSize(final Session<?> session, final Path p) throws BackgroundException {
-        long size = 0;
         if(this.isCanceled()) {
             throw new ConnectionCanceledException();
         }
         listener.message(MessageFormat.format(LocaleFactory.localizedString("Getting size of {0}", "Status"),
                 p.getName()));
         if(p.isDirectory()) {
-            for(Path next : session.getFeature(ListService.class).list(p, new WorkerListProgressListener(this, listener))) {
-                size += this.calculateSize(session, next);
-            }
+            final AtomicLong size = new AtomicLong();
+            walker.walk(session.getFeature(ListService.class), p, new ConcurrentTreeWalker.Visitor() {
+                @Override
+                public AttributedList<Path> visit(final Path directory, final AttributedList<Path> children) {
+                    listener.message(MessageFormat.format(LocaleFactory.localizedString("Getting size of {0}", "Status"),
+                            directory.getName()));
+                    for(Path child : children) {
+                        if(child.isFile()) {
+                            size.addAndGet(child.attributes().getSize());
+                            update(total.addAndGet(child.attributes().getSize()));
+                        }
+                    }
+                    return children;
+                }
+            });
+            return size.get();
         }
         else if(p.isFile()) {
-            size += p.attributes().getSize();
-            total += size;
-            this.update(total);
+            this.update(total.addAndGet(p.attributes().getSize()));
+            return p.attributes().getSize();
         }
-        return size;
+        return 0L;
     }
 
     /**
-     * Incremental update with latest size value.
+     * Incremental update with latest size value. May be called concurrently.
      *
      * @param size Current known size
      */
@@ -97,7 +123,7 @@ public abstract class CalculateSizeWorker extends Worker<Long> {
 
     @Override
     public Long initialize() {
-        return total;
+        return total.get();
     }
 
     @Override
@@ -0,0 +1,229 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Filter;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.ListService;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.ProgressListener;
+import ch.cyberduck.core.Protocol;
+import ch.cyberduck.core.RecursiveListService;
+import ch.cyberduck.core.Session;
+import ch.cyberduck.core.cache.RecursiveCacheListService;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.pool.DefaultSessionPool;
+import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.BackgroundActionState;
+import ch.cyberduck.core.threading.SharedThreadPool;
+import ch.cyberduck.core.threading.ThreadPool;
+
+import org.apache.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recursively list directories with sibling directories listed concurrently using connections from the session pool.
+ * Every task lists a single directory and submits a new task for each child directory to the queue of the shared
+ * thread pool where it is picked up by the next idle thread.
+ */
+public class ConcurrentTreeWalker {
+    private static final Logger log = Logger.getLogger(ConcurrentTreeWalker.class);
+
+    private final SessionPool pool;
+    private final Worker<?> worker;
+    private final ProgressListener listener;
+    private final Filter<Path> filter;
+    private final int concurrency;
+
+    /**
+     * @param pool     Connection pool to borrow sessions for listing from
+     * @param worker   Checked for cancellation before listing a directory
+     * @param listener Progress listener
+     * @param filter   Filter applied to directory listings
+     */
+    public ConcurrentTreeWalker(final SessionPool pool, final Worker<?> worker, final ProgressListener listener, final Filter<Path> filter) {
+        this(pool, worker, listener, filter, concurrency(pool));
+    }
+
+    public ConcurrentTreeWalker(final SessionPool pool, final Worker<?> worker, final ProgressListener listener, final Filter<Path> filter,
+                                final int concurrency) {
+        this.pool = pool;
+        this.worker = worker;
+        this.listener = listener;
+        this.filter = filter;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * @return Number of concurrent listings supported by the connection pool
+     */
+    private static int concurrency(final SessionPool pool) {
+        final Preferences preferences = PreferencesFactory.get();
+        final Host host = pool.getHost();
+        if(host.getProtocol().getStatefulness() == Protocol.Statefulness.stateless) {
+            return preferences.getInteger("queue.list.concurrency");
+        }
+        if(pool instanceof DefaultSessionPool) {
+            // Additional connections to stateful servers only when configured for host
+            final int concurrency = preferences.getInteger(String.format("queue.list.concurrency.%s", host.getHostname()));
+            if(concurrency > 1) {
+                return concurrency;
+            }
+        }
+        // Single connection locked by the running worker
+        return 1;
+    }
+
+    /**
+     * Visit directory with all its descendants
+     *
+     * @param service   List service of open connection used when not listing concurrently
+     * @param directory Directory to list recursively
+     * @param visitor   Callback for directory listings. May be called concurrently
+     */
+    public void walk(final ListService service, final Path directory, final Visitor visitor) throws BackgroundException {
+        if(service instanceof RecursiveListService && ((RecursiveListService) service).isRecursive(directory)) {
+            // Descendants retrieved with listing of directory
+            this.sequential(new RecursiveCacheListService(service), directory, visitor);
+        }
+        else if(concurrency > 1) {
+            this.concurrent(directory, visitor);
+        }
+        else {
+            this.sequential(service, directory, visitor);
+        }
+    }
+
+    private void sequential(final ListService service, final Path directory, final Visitor visitor) throws BackgroundException {
+        final Deque<Path> queue = new ArrayDeque<>();
+        queue.push(directory);
+        while(!queue.isEmpty()) {
+            final Path next = queue.pop();
+            for(Path child : this.list(service, next, visitor)) {
+                if(child.isDirectory()) {
+                    queue.push(child);
+                }
+            }
+        }
+    }
+
+    private void concurrent(final Path directory, final Visitor visitor) throws BackgroundException {
+        final ThreadPool executor = new SharedThreadPool(pool.getHost(), "list", concurrency);
+        final CompletionService<Void> completion = new ExecutorCompletionService<>(executor.executor());
+        // Keep number of submitted tasks
+        final AtomicInteger size = new AtomicInteger();
+        try {
+            this.submit(completion, size, directory, visitor);
+            while(size.get() > 0) {
+                try {
+                    completion.take().get();
+                }
+                catch(InterruptedException e) {
+                    throw new ConnectionCanceledException(e);
+                }
+                catch(ExecutionException e) {
+                    if(e.getCause() instanceof BackgroundException) {
+                        throw (BackgroundException) e.getCause();
+                    }
+                    throw new DefaultExceptionMappingService().map(e.getCause());
+                }
+                finally {
+                    size.decrementAndGet();
+                }
+            }
+        }
+        finally {
+            // Discard pending tasks on failure
+            executor.shutdown(false);
+        }
+    }
+
+    private void submit(final CompletionService<Void> completion, final AtomicInteger size, final Path directory, final Visitor visitor) {
+        size.incrementAndGet();
+        completion.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws BackgroundException {
+                final Session<?> session = pool.borrow(new BackgroundActionState() {
+                    @Override
+                    public boolean isCanceled() {
+                        return worker.isCanceled();
+                    }
+
+                    @Override
+                    public boolean isRunning() {
+                        return true;
+                    }
+                });
+                BackgroundException failure = null;
+                try {
+                    for(Path child : list(session.getFeature(ListService.class), directory, visitor)) {
+                        if(child.isDirectory()) {
+                            submit(completion, size, child, visitor);
+                        }
+                    }
+                }
+                catch(BackgroundException e) {
+                    failure = e;
+                    throw e;
+                }
+                finally {
+                    pool.release(session, failure);
+                }
+                return null;
+            }
+        });
+    }
+
+    private AttributedList<Path> list(final ListService service, final Path directory, final Visitor visitor) throws BackgroundException {
+        if(worker.isCanceled()) {
+            throw new ConnectionCanceledException();
+        }
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("List directory %s", directory));
+        }
+        final AttributedList<Path> children = service.list(directory, new WorkerListProgressListener(worker, listener)).filter(filter);
+        return visitor.visit(directory, children);
+    }
+
+    public interface Visitor {
+        /**
+         * @param directory Directory listed
+         * @param children  Filtered contents of directory
+         * @return Children to descend into
+         */
+        AttributedList<Path> visit(Path directory, AttributedList<Path> children) throws BackgroundException;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ConcurrentTreeWalker{");
+        sb.append("pool=").append(pool);
+        sb.append(", concurrency=").append(concurrency);
+        sb.append('}');
+        return sb.toString();
+    }
+}
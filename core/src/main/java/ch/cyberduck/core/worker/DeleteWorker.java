@@ -18,6 +18,7 @@ package ch.cyberduck.core.worker;
  * dkocher@cyberduck.ch
  */
 
+import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.Cache;
 import ch.cyberduck.core.Filter;
 import ch.cyberduck.core.Host;
@@ -32,6 +33,7 @@ import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.pool.SessionPool;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.ui.browser.PathReloadFinder;
 
@@ -44,6 +46,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DeleteWorker extends Worker<List<Path>> {
 
@@ -57,6 +60,7 @@ public class DeleteWorker extends Worker<List<Path>> {
     private final Cache<Path> cache;
     private final ProgressListener listener;
     private final Filter<Path> filter;
+    private final ConcurrentTreeWalker walker;
 
     public DeleteWorker(final LoginCallback prompt, final List<Path> files, final Cache<Path> cache, final ProgressListener listener) {
         this(prompt, files, cache, new NullFilter<Path>(), listener);
@@ -68,6 +72,20 @@ public class DeleteWorker extends Worker<List<Path>> {
         this.cache = cache;
         this.listener = listener;
         this.filter = filter;
+        this.walker = new ConcurrentTreeWalker(SessionPool.DISCONNECTED, this, listener, filter, 1);
+    }
+
+    /**
+     * @param pool Connection pool to list directories concurrently
+     */
+    public DeleteWorker(final LoginCallback prompt, final List<Path> files, final Cache<Path> cache, final Filter<Path> filter, final ProgressListener listener,
+                        final SessionPool pool) {
+        this.files = files;
+        this.prompt = prompt;
+        this.cache = cache;
+        this.listener = listener;
+        this.filter = filter;
+        this.walker = new ConcurrentTreeWalker(pool, this, listener, filter);
     }
 
     @Override
@@ -94,6 +112,41 @@ public class DeleteWorker extends Worker<List<Path>> {
     protected Map<Path, TransferStatus> compile(final Host host, final Delete delete, final ListService list, final ListProgressListener listener, final Path file) throws BackgroundException {
         // Compile recursive list
         final Map<Path, TransferStatus> recursive = new LinkedHashMap<>();
+        if(file.isFile() || file.isSymbolicLink()) {
+            recursive.putAll(this.compile(host, file));
+        }
+        else if(file.isDirectory()) {
+            if(!delete.isRecursive()) {
+                // Listings of all descendant directories
+                final Map<Path, AttributedList<Path>> tree = new ConcurrentHashMap<>();
+                walker.walk(list, file, new ConcurrentTreeWalker.Visitor() {
+                    @Override
+                    public AttributedList<Path> visit(final Path directory, final AttributedList<Path> children) {
+                        tree.put(directory, children);
+                        // Do not follow symbolic links
+                        final AttributedList<Path> directories = new AttributedList<>();
+                        for(Path child : children) {
+                            if(child.isDirectory() && !child.isSymbolicLink()) {
+                                directories.add(child);
+                            }
+                        }
+                        return directories;
+                    }
+                });
+                this.compile(host, tree, file, recursive);
+            }
+            else {
+                // Contents deleted recursively by feature
+                recursive.put(file, new TransferStatus().withLockId(this.getLockId(file)));
+            }
+        }
+        return recursive;
+    }
+
+    /**
+     * @param file File or symbolic link
+     */
+    private Map<Path, TransferStatus> compile(final Host host, final Path file) {
         if(file.isFile() || file.isSymbolicLink()) {
             final Path copy = new Path(file);
             switch(host.getProtocol().getType()) {
@@ -106,21 +159,28 @@ public class DeleteWorker extends Worker<List<Path>> {
                         }
                     }
             }
-            recursive.put(copy, new TransferStatus().withLockId(this.getLockId(copy)));
+            return Collections.singletonMap(copy, new TransferStatus().withLockId(this.getLockId(copy)));
         }
-        else if(file.isDirectory()) {
-            if(!delete.isRecursive()) {
-                for(Path child : list.list(file, listener).filter(filter)) {
-                    if(this.isCanceled()) {
-                        throw new ConnectionCanceledException();
-                    }
-                    recursive.putAll(this.compile(host, delete, list, listener, child));
-                }
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Add files from listings with children before their parent directory
+     */
+    private void compile(final Host host, final Map<Path, AttributedList<Path>> tree, final Path directory, final Map<Path, TransferStatus> recursive) throws BackgroundException {
+        for(Path child : tree.get(directory)) {
+            if(this.isCanceled()) {
+                throw new ConnectionCanceledException();
+            }
+            if(child.isFile() || child.isSymbolicLink()) {
+                recursive.putAll(this.compile(host, child));
+            }
+            else if(child.isDirectory()) {
+                this.compile(host, tree, child, recursive);
             }
-            // Add parent after children
-            recursive.put(file, new TransferStatus().withLockId(this.getLockId(file)));
         }
-        return recursive;
+        // Add parent after children
+        recursive.put(directory, new TransferStatus().withLockId(this.getLockId(directory)));
     }
 
     protected String getLockId(final Path file) {
@@ -24,6 +24,7 @@ import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.Session;
+import ch.cyberduck.core.cache.PersistentCacheListService;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.exception.ListCanceledException;
@@ -54,7 +55,13 @@ public class SessionListWorker extends Worker<AttributedList<Path>> {
                 listener.chunk(directory, list);
                 return list;
             }
-            final ListService service = session.getFeature(ListService.class).withCache(cache);
+            final ListService service;
+            if(PersistentCacheListService.isSupported(session.getHost())) {
+                service = new PersistentCacheListService(session.getHost(), session.getFeature(ListService.class)).withCache(cache);
+            }
+            else {
+                service = session.getFeature(ListService.class).withCache(cache);
+            }
             if(log.isDebugEnabled()) {
                 log.debug(String.format("Run with feature %s", service));
             }
@@ -3,6 +3,8 @@ package ch.cyberduck.core;
 import org.junit.Test;
 
 import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.regex.Pattern;
 
 import static org.junit.Assert.*;
@@ -80,4 +82,75 @@ public class AttributedListTest {
         assertNotSame(list, list.filter(new NullFilter<>()));
         assertEquals(list, list.filter(new NullFilter<>()));
     }
+
+    @Test
+    public void testGetReference() {
+        final AttributedList<Path> list = new AttributedList<Path>();
+        final Path a = new Path("/a", EnumSet.of(Path.Type.directory));
+        final Path b = new Path("/b", EnumSet.of(Path.Type.file));
+        assertNull(list.get(a));
+        assertTrue(list.add(a));
+        assertTrue(list.add(b));
+        assertSame(a, list.get(new Path("/a", EnumSet.of(Path.Type.directory))));
+        assertSame(b, list.get(new Path("/b", EnumSet.of(Path.Type.file))));
+        assertNull(list.get(new Path("/b", EnumSet.of(Path.Type.directory))));
+        assertTrue(list.contains(b));
+        assertEquals(1, list.indexOf(b));
+        assertTrue(list.remove(a));
+        assertNull(list.get(a));
+        assertFalse(list.contains(a));
+        assertEquals(0, list.indexOf(b));
+        final Path c = new Path("/c", EnumSet.of(Path.Type.file));
+        list.set(0, c);
+        assertNull(list.get(b));
+        assertSame(c, list.get(c));
+        list.clear();
+        assertNull(list.get(c));
+    }
+
+    @Test
+    public void testGetModifiedReference() {
+        final AttributedList<Path> list = new AttributedList<Path>();
+        final Path a = new Path("/a", EnumSet.of(Path.Type.file));
+        assertTrue(list.add(a));
+        assertTrue(list.add(new Path("/b", EnumSet.of(Path.Type.file))));
+        assertSame(a, list.get(new Path("/a", EnumSet.of(Path.Type.file))));
+        // Changes hash code of element in index
+        a.attributes().setVersionId("1");
+        final Path reference = new Path("/a", EnumSet.of(Path.Type.file));
+        reference.attributes().setVersionId("1");
+        assertSame(a, list.get(reference));
+        assertTrue(list.contains(reference));
+        assertEquals(0, list.indexOf(reference));
+        assertNull(list.get(new Path("/a", EnumSet.of(Path.Type.file))));
+    }
+
+    @Test
+    public void testSnapshotAfterModification() {
+        final AttributedList<Path> list = new AttributedList<Path>();
+        final Path a = new Path("/a", EnumSet.of(Path.Type.directory));
+        final Path b = new Path("/b", EnumSet.of(Path.Type.file));
+        assertTrue(list.add(a));
+        assertTrue(list.add(b));
+        final List<Path> snapshot = list.toList();
+        list.set(0, new Path("/c", EnumSet.of(Path.Type.file)));
+        list.remove(b);
+        assertEquals(2, snapshot.size());
+        assertSame(a, snapshot.get(0));
+        assertSame(b, snapshot.get(1));
+        assertEquals(1, list.size());
+        assertEquals(new Path("/c", EnumSet.of(Path.Type.file)), list.get(0));
+    }
+
+    @Test
+    public void testIteratorSnapshot() {
+        final AttributedList<Path> list = new AttributedList<Path>();
+        final Path a = new Path("/a", EnumSet.of(Path.Type.directory));
+        assertTrue(list.add(a));
+        final Iterator<Path> iterator = list.iterator();
+        assertTrue(list.add(new Path("/b", EnumSet.of(Path.Type.file))));
+        assertEquals(a, iterator.next());
+        assertFalse(iterator.hasNext());
+        assertEquals(2, list.toList().size());
+    }
 }
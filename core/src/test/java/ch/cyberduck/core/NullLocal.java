@@ -39,4 +39,9 @@ public class NullLocal extends Local {
     public OutputStream getOutputStream(boolean append) {
         return new NullOutputStream();
     }
+
+    @Override
+    public OutputStream getOutputStream(final long position) {
+        return new NullOutputStream();
+    }
 }
@@ -2,6 +2,7 @@ package ch.cyberduck.core;
 
 import org.junit.Test;
 
+import java.util.Collections;
 import java.util.EnumSet;
 
 import static org.junit.Assert.*;
@@ -23,6 +24,82 @@ public class PathCacheTest {
         assertNotNull(cache.lookup(new DefaultPathPredicate(file2)));
     }
 
+    @Test
+    public void testLookupIndex() {
+        final PathCache cache = new PathCache(1);
+        final Path directory = new Path("/p", EnumSet.of(Path.Type.directory));
+        final Path file = new Path(directory, "name", EnumSet.of(Path.Type.file));
+        cache.put(directory, new AttributedList<>(Collections.singletonList(file)));
+        assertSame(file, cache.lookup(new DefaultPathPredicate(new Path(directory, "name", EnumSet.of(Path.Type.file)))));
+        assertEquals(1L, cache.getHits());
+        assertEquals(0L, cache.getMisses());
+        assertNull(cache.lookup(new DefaultPathPredicate(new Path(directory, "name", EnumSet.of(Path.Type.directory)))));
+        assertEquals(1L, cache.getMisses());
+    }
+
+    @Test
+    public void testLookupIndexReplaced() {
+        final PathCache cache = new PathCache(1);
+        final Path directory = new Path("/p", EnumSet.of(Path.Type.directory));
+        final Path file = new Path(directory, "name", EnumSet.of(Path.Type.file));
+        cache.put(directory, new AttributedList<>(Collections.singletonList(file)));
+        final Path replacement = new Path(directory, "name", EnumSet.of(Path.Type.file));
+        cache.put(directory, new AttributedList<>(Collections.singletonList(replacement)));
+        assertSame(replacement, cache.lookup(new DefaultPathPredicate(file)));
+        cache.put(directory, new AttributedList<>());
+        assertNull(cache.lookup(new DefaultPathPredicate(file)));
+    }
+
+    @Test
+    public void testLookupIndexRemoved() {
+        final PathCache cache = new PathCache(1);
+        final Path directory = new Path("/p", EnumSet.of(Path.Type.directory));
+        final Path file = new Path(directory, "name", EnumSet.of(Path.Type.file));
+        cache.put(directory, new AttributedList<>(Collections.singletonList(file)));
+        cache.remove(directory);
+        assertNull(cache.lookup(new DefaultPathPredicate(file)));
+    }
+
+    @Test
+    public void testLookupIndexEvicted() {
+        final PathCache cache = new PathCache(1);
+        final Path directory = new Path("/p", EnumSet.of(Path.Type.directory));
+        final Path file = new Path(directory, "name", EnumSet.of(Path.Type.file));
+        cache.put(directory, new AttributedList<>(Collections.singletonList(file)));
+        cache.put(new Path("/o", EnumSet.of(Path.Type.directory)), new AttributedList<>());
+        assertFalse(cache.isCached(directory));
+        assertNull(cache.lookup(new DefaultPathPredicate(file)));
+    }
+
+    @Test
+    public void testLookupIndexListModified() {
+        final PathCache cache = new PathCache(1);
+        final Path directory = new Path("/p", EnumSet.of(Path.Type.directory));
+        final Path file = new Path(directory, "name", EnumSet.of(Path.Type.file));
+        final AttributedList<Path> list = new AttributedList<>(Collections.singletonList(file));
+        cache.put(directory, list);
+        assertSame(file, cache.lookup(new DefaultPathPredicate(file)));
+        list.remove(file);
+        assertNull(cache.lookup(new DefaultPathPredicate(file)));
+        final Path added = new Path(directory, "added", EnumSet.of(Path.Type.file));
+        list.add(added);
+        assertSame(added, cache.lookup(new DefaultPathPredicate(added)));
+        assertSame(added, cache.lookup(new DefaultPathPredicate(added)));
+        assertEquals(2L, cache.getHits());
+    }
+
+    @Test
+    public void testLookupIndexAttributesModified() {
+        final PathCache cache = new PathCache(1);
+        final Path directory = new Path("/p", EnumSet.of(Path.Type.directory));
+        final Path file = new Path(directory, "name", EnumSet.of(Path.Type.file));
+        cache.put(directory, new AttributedList<>(Collections.singletonList(file)));
+        final DefaultPathPredicate previous = new DefaultPathPredicate(file);
+        file.attributes().setVersionId("1");
+        assertNull(cache.lookup(previous));
+        assertSame(file, cache.lookup(new DefaultPathPredicate(file)));
+    }
+
     @Test
     public void testIsEmpty() {
         final PathCache cache = new PathCache(1);
@@ -0,0 +1,123 @@
+package ch.cyberduck.core.cache;
+
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.TestProtocol;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class PersistentListCacheTest {
+
+    @Test
+    public void testPutGet() throws Exception {
+        final File folder = new File(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        try {
+            final PersistentListCache cache = new PersistentListCache(folder);
+            final Host host = new Host(new TestProtocol(), "h");
+            final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+            assertNull(cache.get(host, directory));
+            final AttributedList<Path> list = new AttributedList<>();
+            list.attributes().setETag("e");
+            final Path file = new Path(directory, "f", EnumSet.of(Path.Type.file));
+            file.attributes().setSize(3L);
+            file.attributes().setModificationDate(1000L);
+            file.attributes().setVersionId("v");
+            file.attributes().setDirectoryId("i");
+            file.attributes().setCustom(Collections.singletonMap("k", "c"));
+            list.add(file);
+            list.add(new Path(directory, "s", EnumSet.of(Path.Type.directory)));
+            cache.put(host, directory, list);
+            final AttributedList<Path> cached = cache.get(host, directory);
+            assertNotNull(cached);
+            assertEquals("e", cached.attributes().getETag());
+            assertEquals(2, cached.size());
+            assertEquals(file, cached.get(0));
+            assertEquals(3L, cached.get(0).attributes().getSize());
+            assertEquals(1000L, cached.get(0).attributes().getModificationDate());
+            assertEquals("v", cached.get(0).attributes().getVersionId());
+            assertEquals("i", cached.get(0).attributes().getDirectoryId());
+            assertEquals("c", cached.get(0).attributes().getCustom().get("k"));
+            assertTrue(cached.get(1).isDirectory());
+            assertNull(cache.get(new Host(new TestProtocol(), "other"), directory));
+            assertNull(cache.get(host, new Path("/other", EnumSet.of(Path.Type.directory))));
+            cache.remove(host, directory);
+            assertNull(cache.get(host, directory));
+        }
+        finally {
+            FileUtils.deleteQuietly(folder);
+        }
+    }
+
+    @Test
+    public void testSymlinkDirectoryTarget() throws Exception {
+        final File folder = new File(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        try {
+            final PersistentListCache cache = new PersistentListCache(folder);
+            final Host host = new Host(new TestProtocol(), "h");
+            final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+            final AttributedList<Path> list = new AttributedList<>();
+            final Path link = new Path(directory, "l", EnumSet.of(Path.Type.directory, Path.Type.symboliclink));
+            link.setSymlinkTarget(new Path("/t", EnumSet.of(Path.Type.directory)));
+            list.add(link);
+            cache.put(host, directory, list);
+            final Path cached = cache.get(host, directory).get(0);
+            assertTrue(cached.isSymbolicLink());
+            assertEquals(new Path("/t", EnumSet.of(Path.Type.directory)), cached.getSymlinkTarget());
+            assertTrue(cached.getSymlinkTarget().isDirectory());
+        }
+        finally {
+            FileUtils.deleteQuietly(folder);
+        }
+    }
+
+    @Test
+    public void testEvict() throws Exception {
+        final File folder = new File(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        try {
+            final PersistentListCache cache = new PersistentListCache(folder, 2);
+            final Host host = new Host(new TestProtocol(), "h");
+            final Path a = new Path("/a", EnumSet.of(Path.Type.directory));
+            final Path b = new Path("/b", EnumSet.of(Path.Type.directory));
+            final Path c = new Path("/c", EnumSet.of(Path.Type.directory));
+            cache.put(host, a, new AttributedList<>());
+            cache.put(host, b, new AttributedList<>());
+            // Mark first listing as least recently used
+            for(File file : folder.listFiles()[0].listFiles()) {
+                assertTrue(file.setLastModified(System.currentTimeMillis() - 60000L));
+            }
+            assertNotNull(cache.get(host, b));
+            cache.put(host, c, new AttributedList<>());
+            assertNull(cache.get(host, a));
+            assertNotNull(cache.get(host, b));
+            assertNotNull(cache.get(host, c));
+        }
+        finally {
+            FileUtils.deleteQuietly(folder);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package ch.cyberduck.core.cache;
+
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.ListService;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.RecursiveListService;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class RecursiveCacheListServiceTest {
+
+    @Test
+    public void testList() throws Exception {
+        final Path root = new Path("/d", EnumSet.of(Path.Type.directory));
+        final Path child = new Path(root, "c", EnumSet.of(Path.Type.directory));
+        final Path file = new Path(child, "f", EnumSet.of(Path.Type.file));
+        final AtomicInteger count = new AtomicInteger();
+        final ListService service = new RecursiveCacheListService(new RecursiveListService() {
+            @Override
+            public boolean isRecursive(final Path directory) {
+                return true;
+            }
+
+            @Override
+            public AttributedList<Path> list(final Path directory, final ListProgressListener listener, final Cache<Path> cache) {
+                count.incrementAndGet();
+                cache.put(child, new AttributedList<>(Collections.singletonList(file)));
+                return new AttributedList<>(Collections.singletonList(child));
+            }
+
+            @Override
+            public AttributedList<Path> list(final Path directory, final ListProgressListener listener) {
+                fail();
+                return null;
+            }
+
+            @Override
+            public ListService withCache(final Cache<Path> cache) {
+                return this;
+            }
+        });
+        assertTrue(service.list(root, new DisabledListProgressListener()).contains(child));
+        assertEquals(1, count.get());
+        assertTrue(service.list(new Path("/d/c", EnumSet.of(Path.Type.directory)), new DisabledListProgressListener()).contains(file));
+        assertEquals(1, count.get());
+        // Only returned once
+        service.list(child, new DisabledListProgressListener());
+        assertEquals(2, count.get());
+    }
+}
@@ -0,0 +1,57 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ByteArrayPoolTest {
+
+    @Test
+    public void testSizeClass() {
+        final ByteArrayPool pool = new ByteArrayPool(1);
+        assertEquals(4096, pool.acquire(1).length);
+        assertEquals(4096, pool.acquire(4096).length);
+        assertEquals(8192, pool.acquire(4097).length);
+        assertEquals(32768, pool.acquire(32768).length);
+        assertEquals(65536, pool.acquire(32816).length);
+        assertEquals(2000000, pool.acquire(2000000).length);
+    }
+
+    @Test
+    public void testReuse() {
+        final ByteArrayPool pool = new ByteArrayPool(1, true);
+        final byte[] a = pool.acquire(16384);
+        final byte[] b = pool.acquire(16384);
+        assertNotSame(a, b);
+        pool.release(a);
+        pool.release(b);
+        // Exceeds capacity of size class
+        assertSame(a, pool.acquire(16384));
+        assertNotSame(b, pool.acquire(16384));
+    }
+
+    @Test
+    public void testReleaseTwice() {
+        final ByteArrayPool pool = new ByteArrayPool(2, true);
+        final byte[] a = pool.acquire(16384);
+        pool.release(a);
+        pool.release(a);
+        assertSame(a, pool.acquire(16384));
+        assertNotSame(a, pool.acquire(16384));
+    }
+}
@@ -0,0 +1,96 @@
+package ch.cyberduck.core.io;
+
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.exception.ChecksumException;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class LocalChecksumCacheTest {
+
+    @Test
+    public void testCompute() throws Exception {
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final File file = new File(local.getAbsolute());
+        try {
+            FileUtils.writeStringToFile(file, "a", StandardCharsets.UTF_8);
+            final AtomicInteger count = new AtomicInteger();
+            final ChecksumCompute compute = new SHA256ChecksumCompute() {
+                @Override
+                public Checksum compute(final InputStream in, final TransferStatus status) throws ChecksumException {
+                    count.incrementAndGet();
+                    return super.compute(in, status);
+                }
+            };
+            final LocalChecksumCache cache = new LocalChecksumCache(true, false, 10);
+            final Checksum checksum = cache.compute(compute, local, new TransferStatus());
+            assertEquals(new SHA256ChecksumCompute().compute("61", new TransferStatus()), checksum);
+            assertEquals(checksum, cache.compute(compute, local, new TransferStatus()));
+            assertEquals(1, count.get());
+            // Partial checksums are not cached
+            cache.compute(compute, local, new TransferStatus().skip(1L));
+            assertEquals(2, count.get());
+            FileUtils.writeStringToFile(file, "bc", StandardCharsets.UTF_8);
+            assertEquals(new SHA256ChecksumCompute().compute("6263", new TransferStatus()), cache.compute(compute, local, new TransferStatus()));
+            assertEquals(3, count.get());
+        }
+        finally {
+            FileUtils.deleteQuietly(file);
+        }
+    }
+
+    @Test
+    public void testComputeDerivedContent() throws Exception {
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final File file = new File(local.getAbsolute());
+        try {
+            FileUtils.writeStringToFile(file, "a", StandardCharsets.UTF_8);
+            final AtomicInteger count = new AtomicInteger();
+            final ChecksumCompute compute = new AbstractChecksumCompute() {
+                @Override
+                public Checksum compute(final InputStream in, final TransferStatus status) throws ChecksumException {
+                    count.incrementAndGet();
+                    // Side effect on transfer status
+                    status.setHeader(ByteBuffer.allocate(1));
+                    return new SHA256ChecksumCompute().compute(in, status);
+                }
+            };
+            final LocalChecksumCache cache = new LocalChecksumCache(true, false, 10);
+            cache.compute(compute, local, new TransferStatus());
+            final TransferStatus status = new TransferStatus();
+            cache.compute(compute, local, status);
+            assertEquals(2, count.get());
+            assertNotNull(status.getHeader());
+        }
+        finally {
+            FileUtils.deleteQuietly(file);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.transfer.TransferStatus;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.NullInputStream;
 import org.apache.commons.io.output.NullOutputStream;
@@ -11,7 +12,11 @@ import org.apache.commons.text.RandomStringGenerator;
 import org.junit.Test;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -32,6 +37,28 @@ public class StreamCopierTest {
         assertTrue(status.isComplete());
     }
 
+    @Test
+    public void testTransferFileChannel() throws Exception {
+        final byte[] bytes = new RandomStringGenerator.Builder().build().generate(100000).getBytes();
+        final File source = File.createTempFile("source", null);
+        final File target = File.createTempFile("target", null);
+        try {
+            FileUtils.writeByteArrayToFile(source, bytes);
+            final TransferStatus status = new TransferStatus();
+            new StreamCopier(status, status).withChunksize(32768).withOffset(10L).withLimit(90000L).transfer(
+                new FileChannelInputStream(FileChannel.open(source.toPath(), StandardOpenOption.READ)),
+                new ThrottledOutputStream(new VoidStatusOutputStream(new FileChannelOutputStream(FileChannel.open(target.toPath(), StandardOpenOption.WRITE))),
+                    new BandwidthThrottle(BandwidthThrottle.UNLIMITED)));
+            assertEquals(90000L, status.getOffset(), 0L);
+            assertTrue(status.isComplete());
+            assertArrayEquals(Arrays.copyOfRange(bytes, 10, 90010), FileUtils.readFileToByteArray(target));
+        }
+        finally {
+            FileUtils.deleteQuietly(source);
+            FileUtils.deleteQuietly(target);
+        }
+    }
+
     @Test
     public void testTransferUnknownLength() throws Exception {
         final TransferStatus status = new TransferStatus();
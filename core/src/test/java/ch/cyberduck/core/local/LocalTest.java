@@ -34,6 +34,17 @@ public class LocalTest {
         l.getInputStream();
     }
 
+    @Test
+    public void testAllocate() throws Exception {
+        final TestLocal l = new TestLocal(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        l.allocate(1024L);
+        assertTrue(l.exists());
+        assertEquals(1024L, l.attributes().getSize());
+        l.allocate(2L);
+        assertEquals(2L, l.attributes().getSize());
+        l.delete();
+    }
+
     @Test
     public void testGetParent() {
         assertNotNull(new TestLocal(System.getProperty("java.io.tmpdir")).getParent());
@@ -0,0 +1,207 @@
+package ch.cyberduck.core.shared;
+
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.DisabledConnectionCallback;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.features.AttributesFinder;
+import ch.cyberduck.core.features.Read;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.RandomUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentRangeInputStreamTest {
+
+    @Test
+    public void testRead() throws Exception {
+        final byte[] content = RandomUtils.nextBytes(100 * 1024 + 1);
+        final AtomicInteger count = new AtomicInteger();
+        final Read reader = new Read() {
+            @Override
+            public InputStream read(final Path file, final TransferStatus status, final ConnectionCallback callback) {
+                assertTrue(status.isAppend());
+                count.incrementAndGet();
+                return new ByteArrayInputStream(content, (int) status.getOffset(), (int) status.getLength());
+            }
+
+            @Override
+            public boolean offset(final Path file) {
+                return true;
+            }
+        };
+        final Path file = new Path("/f", EnumSet.of(Path.Type.file));
+        {
+            final InputStream in = new ConcurrentRangeInputStream(new Host(new TestProtocol()), reader, file,
+                new TransferStatus().length(content.length), new DisabledConnectionCallback(), 1024, 4);
+            assertArrayEquals(content, IOUtils.toByteArray(in));
+            assertEquals(-1, in.read());
+            in.close();
+            assertEquals(101, count.get());
+        }
+        {
+            final InputStream in = new ConcurrentRangeInputStream(new Host(new TestProtocol()), reader, file,
+                new TransferStatus().append(true).skip(1000L).length(content.length - 1000L), new DisabledConnectionCallback(), 1024, 2);
+            assertArrayEquals(Arrays.copyOfRange(content, 1000, content.length), IOUtils.toByteArray(in));
+            in.close();
+        }
+    }
+
+    @Test
+    public void testCloseBeforeEnd() throws Exception {
+        final byte[] content = RandomUtils.nextBytes(10 * 1024);
+        final Read reader = new Read() {
+            @Override
+            public InputStream read(final Path file, final TransferStatus status, final ConnectionCallback callback) {
+                return new ByteArrayInputStream(content, (int) status.getOffset(), (int) status.getLength());
+            }
+
+            @Override
+            public boolean offset(final Path file) {
+                return true;
+            }
+        };
+        final InputStream in = new ConcurrentRangeInputStream(new Host(new TestProtocol()), reader, new Path("/f", EnumSet.of(Path.Type.file)),
+            new TransferStatus().length(content.length), new DisabledConnectionCallback(), 1024, 4);
+        final byte[] buffer = new byte[1500];
+        IOUtils.readFully(in, buffer);
+        assertArrayEquals(Arrays.copyOfRange(content, 0, 1500), buffer);
+        in.close();
+    }
+
+    @Test
+    public void testModifiedWhileReading() throws Exception {
+        final byte[] content = RandomUtils.nextBytes(10 * 1024);
+        final Read reader = new Read() {
+            @Override
+            public InputStream read(final Path file, final TransferStatus status, final ConnectionCallback callback) {
+                return new ByteArrayInputStream(content, (int) status.getOffset(), (int) status.getLength());
+            }
+
+            @Override
+            public boolean offset(final Path file) {
+                return true;
+            }
+        };
+        final AtomicInteger count = new AtomicInteger();
+        final AttributesFinder attributes = new AttributesFinder() {
+            @Override
+            public PathAttributes find(final Path file) {
+                final PathAttributes attributes = new PathAttributes();
+                attributes.setETag(String.valueOf(count.incrementAndGet()));
+                return attributes;
+            }
+        };
+        final InputStream in = new ConcurrentRangeInputStream(new Host(new TestProtocol()), reader, attributes, new Path("/f", EnumSet.of(Path.Type.file)),
+            new TransferStatus().length(content.length), new DisabledConnectionCallback(), 1024, 4);
+        try {
+            IOUtils.toByteArray(in);
+            fail();
+        }
+        catch(IOException e) {
+            assertEquals(2, count.get());
+        }
+        in.close();
+    }
+
+    @Test(expected = IOException.class)
+    public void testRangeIgnored() throws Exception {
+        final byte[] content = RandomUtils.nextBytes(10 * 1024);
+        final Read reader = new Read() {
+            @Override
+            public InputStream read(final Path file, final TransferStatus status, final ConnectionCallback callback) {
+                // Remaining content of file from offset
+                return new ByteArrayInputStream(content, (int) status.getOffset(), content.length - (int) status.getOffset());
+            }
+
+            @Override
+            public boolean offset(final Path file) {
+                return true;
+            }
+        };
+        final InputStream in = new ConcurrentRangeInputStream(new Host(new TestProtocol()), reader, new Path("/f", EnumSet.of(Path.Type.file)),
+            new TransferStatus().length(content.length), new DisabledConnectionCallback(), 1024, 4);
+        try {
+            IOUtils.toByteArray(in);
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void testConditionalRange() throws Exception {
+        final byte[] content = RandomUtils.nextBytes(10 * 1024);
+        final Read reader = new Read() {
+            @Override
+            public InputStream read(final Path file, final TransferStatus status, final ConnectionCallback callback) {
+                assertEquals("e", status.getRemote().getETag());
+                return new ByteArrayInputStream(content, (int) status.getOffset(), (int) status.getLength());
+            }
+
+            @Override
+            public boolean offset(final Path file) {
+                return true;
+            }
+        };
+        final AttributesFinder attributes = new AttributesFinder() {
+            @Override
+            public PathAttributes find(final Path file) {
+                final PathAttributes attributes = new PathAttributes();
+                attributes.setETag("e");
+                return attributes;
+            }
+        };
+        final InputStream in = new ConcurrentRangeInputStream(new Host(new TestProtocol()), reader, attributes, new Path("/f", EnumSet.of(Path.Type.file)),
+            new TransferStatus().length(content.length), new DisabledConnectionCallback(), 1024, 4);
+        assertArrayEquals(content, IOUtils.toByteArray(in));
+        in.close();
+    }
+
+    @Test(expected = NotfoundException.class)
+    public void testFailureFirstRange() throws Exception {
+        final Read reader = new Read() {
+            @Override
+            public InputStream read(final Path file, final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
+                throw new NotfoundException(file.getAbsolute());
+            }
+
+            @Override
+            public boolean offset(final Path file) {
+                return true;
+            }
+        };
+        new ConcurrentRangeInputStream(new Host(new TestProtocol()), reader, new Path("/f", EnumSet.of(Path.Type.file)),
+            new TransferStatus().length(10000L), new DisabledConnectionCallback(), 1024, 4);
+    }
+}
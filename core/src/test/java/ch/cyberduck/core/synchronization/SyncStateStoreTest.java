@@ -0,0 +1,89 @@
+package ch.cyberduck.core.synchronization;
+
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalAttributes;
+import ch.cyberduck.core.NullLocal;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.EnumSet;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class SyncStateStoreTest {
+
+    @Test
+    public void testUnchanged() {
+        final File folder = new File(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        try {
+            final SyncStateStore store = new SyncStateStore(folder, 1);
+            final Path file = new Path("/d/f", EnumSet.of(Path.Type.file));
+            final Local local = this.local("/t/d/f", 3L, 1000L);
+            final PathAttributes remote = new PathAttributes();
+            remote.setSize(3L);
+            remote.setModificationDate(1000L);
+            remote.setETag("e");
+            assertFalse(store.isUnchanged(file, local, remote));
+            store.put(file, local, remote);
+            assertTrue(store.isUnchanged(file, local, remote));
+            assertFalse(store.isUnchanged(file, this.local("/t/d/f", 4L, 1000L), remote));
+            assertFalse(store.isUnchanged(file, this.local("/t/d/f", 3L, 2000L), remote));
+            assertFalse(store.isUnchanged(file, this.local("/t/other/f", 3L, 1000L), remote));
+            final PathAttributes modified = new PathAttributes(remote);
+            modified.setETag("m");
+            assertFalse(store.isUnchanged(file, local, modified));
+            // Evict directory from memory
+            assertFalse(store.isUnchanged(new Path("/other/f", EnumSet.of(Path.Type.file)), local, remote));
+            assertTrue(store.isUnchanged(file, local, remote));
+            store.flush();
+            assertTrue(new SyncStateStore(folder, 1).isUnchanged(file, local, remote));
+            store.remove(file);
+            assertFalse(store.isUnchanged(file, local, remote));
+            store.flush();
+            assertFalse(new SyncStateStore(folder, 1).isUnchanged(file, local, remote));
+        }
+        finally {
+            FileUtils.deleteQuietly(folder);
+        }
+    }
+
+    private Local local(final String path, final long size, final long modified) {
+        return new NullLocal(path) {
+            @Override
+            public LocalAttributes attributes() {
+                return new LocalAttributes(path) {
+                    @Override
+                    public long getSize() {
+                        return size;
+                    }
+
+                    @Override
+                    public long getModificationDate() {
+                        return modified;
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,156 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SharedThreadPoolTest {
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testShutdown() {
+        final SharedThreadPool p = new SharedThreadPool(new Host(new TestProtocol(), "h"), "test", 1);
+        p.shutdown(true);
+        p.execute(new Callable<Void>() {
+            @Override
+            public Void call() {
+                fail();
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void testConcurrencyBudget() throws Exception {
+        final SharedThreadPool p = new SharedThreadPool(new Host(new TestProtocol(), "h"), "test", 2);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger max = new AtomicInteger();
+        final List<Future<Integer>> wait = new ArrayList<>();
+        for(int i = 0; i < 10; i++) {
+            wait.add(p.execute(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    max.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(10L);
+                    return running.decrementAndGet();
+                }
+            }));
+        }
+        for(Future<Integer> f : wait) {
+            f.get();
+        }
+        assertEquals(2, max.get());
+        p.shutdown(true);
+    }
+
+    @Test
+    public void testNestedExhaustedBudget() throws Exception {
+        final Host host = new Host(new TestProtocol(), "h");
+        final SharedThreadPool parent = new SharedThreadPool(host, "parent", 1);
+        final SharedThreadPool child = new SharedThreadPool(host, "child", 1);
+        final AtomicInteger counter = new AtomicInteger();
+        assertEquals(5, parent.execute(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                final Thread caller = Thread.currentThread();
+                final List<Future<Integer>> wait = new ArrayList<>();
+                for(int i = 0; i < 5; i++) {
+                    wait.add(child.execute(new Callable<Integer>() {
+                        @Override
+                        public Integer call() throws Exception {
+                            // Never run in thread of parent task
+                            assertNotSame(caller, Thread.currentThread());
+                            Thread.sleep(10L);
+                            return counter.incrementAndGet();
+                        }
+                    }));
+                }
+                for(Future<Integer> f : wait) {
+                    f.get();
+                }
+                return counter.get();
+            }
+        }).get(), 0);
+        parent.shutdown(true);
+        child.shutdown(true);
+    }
+
+    @Test
+    public void testSeparateBudgetForPrefix() throws Exception {
+        final Host host = new Host(new TestProtocol(), "budget");
+        final SharedThreadPool transfer = new SharedThreadPool(host, "transfer", 50);
+        final SharedThreadPool list = new SharedThreadPool(host, "list", 1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Future<Void>> wait = new ArrayList<>();
+        final int limit = PreferencesFactory.get().getInteger("threading.shared.host.limit");
+        for(int i = 0; i < limit; i++) {
+            wait.add(transfer.execute(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    release.await();
+                    return null;
+                }
+            }));
+        }
+        // Not queued behind transfers exhausting limit for host
+        assertTrue(list.execute(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return true;
+            }
+        }).get(10L, TimeUnit.SECONDS));
+        release.countDown();
+        for(Future<Void> f : wait) {
+            f.get();
+        }
+        transfer.shutdown(true);
+        list.shutdown(true);
+    }
+
+    @Test
+    public void testUncaughtExceptionHandler() throws Exception {
+        final CountDownLatch failure = new CountDownLatch(1);
+        final SharedThreadPool p = new SharedThreadPool(new Host(new TestProtocol(), "h"), "test", 1, ThreadPool.Priority.norm,
+            new Thread.UncaughtExceptionHandler() {
+                @Override
+                public void uncaughtException(final Thread t, final Throwable e) {
+                    failure.countDown();
+                }
+            });
+        p.executor().execute(new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalStateException();
+            }
+        });
+        assertTrue(failure.await(10L, TimeUnit.SECONDS));
+        p.shutdown(true);
+    }
+}
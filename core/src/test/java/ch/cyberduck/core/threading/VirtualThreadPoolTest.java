@@ -0,0 +1,97 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class VirtualThreadPoolTest {
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testShutdown() {
+        final VirtualThreadPool p = new VirtualThreadPool(1);
+        p.shutdown(true);
+        p.execute(new Callable<Void>() {
+            @Override
+            public Void call() {
+                fail();
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void testExecute() throws Exception {
+        final VirtualThreadPool p = new VirtualThreadPool("test", Integer.MAX_VALUE);
+        final AtomicReference<String> name = new AtomicReference<>();
+        p.execute(new Callable<Void>() {
+            @Override
+            public Void call() {
+                name.set(Thread.currentThread().getName());
+                return null;
+            }
+        }).get();
+        assertTrue(name.get().startsWith("test-"));
+        p.shutdown(true);
+    }
+
+    @Test
+    public void testShutdownNowCancelPending() throws Exception {
+        final VirtualThreadPool p = new VirtualThreadPool("test", 1);
+        final CountDownLatch running = new CountDownLatch(1);
+        final Future<Void> first = p.execute(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                running.countDown();
+                Thread.sleep(Long.MAX_VALUE);
+                return null;
+            }
+        });
+        running.await();
+        final Future<Void> pending = p.execute(new Callable<Void>() {
+            @Override
+            public Void call() {
+                fail();
+                return null;
+            }
+        });
+        assertEquals(1, p.executor().shutdownNow().size());
+        try {
+            // Must not block
+            pending.get();
+            fail();
+        }
+        catch(CancellationException e) {
+            // Expected
+        }
+        try {
+            first.get();
+            fail();
+        }
+        catch(ExecutionException e) {
+            assertTrue(e.getCause() instanceof InterruptedException);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.NullLocal;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.Permission;
+import ch.cyberduck.core.VersionId;
+import ch.cyberduck.core.features.Encryption;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.HashAlgorithm;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class FileBackedTransferStatusMapTest {
+
+    @Test
+    public void testSpill() {
+        final FileBackedTransferStatusMap table = new FileBackedTransferStatusMap(2);
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final TransferItem parent = new TransferItem(directory, new NullLocal("/t/d"));
+        table.put(parent, new TransferStatus().exists(true));
+        final Set<TransferItem> items = new HashSet<>();
+        for(int i = 0; i < 10; i++) {
+            final Path file = new Path(directory, String.format("f-%d", i), EnumSet.of(Path.Type.file));
+            file.attributes().setVersionId(String.valueOf(i));
+            final TransferItem item = new TransferItem(file, new NullLocal("/t/d", file.getName()));
+            final TransferStatus status = new TransferStatus().length(i).skip(1L);
+            status.setVersion(new VersionId(String.valueOf(i)));
+            status.setComplete();
+            table.put(item, status);
+            items.add(item);
+        }
+        final Path pending = new Path(directory, "pending", EnumSet.of(Path.Type.file));
+        final TransferItem incomplete = new TransferItem(pending, new NullLocal("/t/d", "pending"));
+        table.put(incomplete, new TransferStatus().length(1L));
+        assertEquals(12, table.size());
+        assertTrue(table.containsKey(parent));
+        assertTrue(table.containsKey(incomplete));
+        assertFalse(table.get(incomplete).isComplete());
+        for(TransferItem item : items) {
+            assertTrue(table.containsKey(item));
+            final TransferStatus status = table.get(item);
+            assertTrue(status.isComplete());
+            assertEquals(Long.parseLong(item.remote.getName().substring(2)), status.getLength());
+            assertEquals(1L, status.getOffset());
+            assertEquals(new VersionId(item.remote.getName().substring(2)), status.getVersion());
+        }
+        int count = 0;
+        for(Map.Entry<TransferItem, TransferStatus> entry : table.entrySet()) {
+            assertTrue(items.contains(entry.getKey()) || parent.equals(entry.getKey()) || incomplete.equals(entry.getKey()));
+            count++;
+        }
+        assertEquals(12, count);
+        assertFalse(table.containsKey(new TransferItem(new Path(directory, "f-11", EnumSet.of(Path.Type.file)), new NullLocal("/t/d", "f-11"))));
+        table.clear();
+        assertEquals(0, table.size());
+        assertTrue(table.isEmpty());
+        assertFalse(table.entrySet().iterator().hasNext());
+    }
+
+    @Test
+    public void testReplaceAndRemoveSpilled() {
+        final FileBackedTransferStatusMap table = new FileBackedTransferStatusMap(1);
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final TransferItem first = new TransferItem(new Path(directory, "a", EnumSet.of(Path.Type.file)), new NullLocal("/t/d", "a"));
+        final TransferStatus status = new TransferStatus().length(1L);
+        status.rename(new Path(directory, "a-1", EnumSet.of(Path.Type.file)));
+        status.withDisplayname(new NullLocal("/t/d", "a-2"));
+        status.setComplete();
+        table.put(first, status);
+        final TransferItem second = new TransferItem(new Path(directory, "b", EnumSet.of(Path.Type.file)), new NullLocal("/t/d", "b"));
+        table.put(second, new TransferStatus().length(2L));
+        assertEquals(2, table.size());
+        // Written to disk
+        final TransferStatus spilled = table.get(first);
+        assertNotSame(status, spilled);
+        assertEquals(new Path(directory, "a-1", EnumSet.of(Path.Type.file)), spilled.getRename().remote);
+        assertEquals("a-2", spilled.getDisplayname().local.getName());
+        // Replace entry on disk
+        final TransferStatus replaced = table.put(first, new TransferStatus().length(3L));
+        assertNotNull(replaced);
+        assertEquals(1L, replaced.getLength());
+        assertEquals(2, table.size());
+        assertEquals(3L, table.get(first).getLength());
+        final TransferStatus completed = new TransferStatus().length(4L);
+        completed.setComplete();
+        table.put(first, completed);
+        table.put(new TransferItem(new Path(directory, "c", EnumSet.of(Path.Type.file)), new NullLocal("/t/d", "c")), new TransferStatus());
+        assertEquals(3, table.size());
+        assertEquals(4L, table.remove(first).getLength());
+        assertEquals(2, table.size());
+        assertFalse(table.containsKey(first));
+        assertNull(table.get(first));
+        table.clear();
+    }
+
+    @Test
+    public void testRoundtripFullStatus() {
+        final FileBackedTransferStatusMap table = new FileBackedTransferStatusMap(1);
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final Path file = new Path(directory, "a", EnumSet.of(Path.Type.file));
+        file.attributes().setVersionId("v");
+        final TransferItem item = new TransferItem(file, new NullLocal("/t/d", "a"));
+        final TransferStatus status = new TransferStatus().length(2L).skip(1L).exists(true).append(true);
+        status.setChecksum(new Checksum(HashAlgorithm.md5, "d41d8cd98f00b204e9800998ecf8427e"));
+        status.setMime("text/plain");
+        final PathAttributes remote = new PathAttributes();
+        remote.setSize(3L);
+        remote.setETag("e");
+        remote.setCustom(Collections.singletonMap("k", "v"));
+        status.setRemote(remote);
+        status.setPermission(new Permission(644));
+        status.setEncryption(new Encryption.Algorithm("AES256", null));
+        status.setStorageClass("STANDARD");
+        status.setTimestamp(1000L);
+        status.setMetadata(Collections.singletonMap("Content-Type", "text/plain"));
+        status.setParameters(Collections.singletonMap("p", "1"));
+        status.setHeader(ByteBuffer.wrap(new byte[]{1, 2}));
+        final TransferStatus segment = new TransferStatus().segment(true).length(1L);
+        segment.setPart(1);
+        segment.rename(new NullLocal("/t/d", "a-1.cyberducksegment"));
+        segment.setComplete();
+        status.withSegments(Collections.singletonList(segment));
+        status.setComplete();
+        table.put(item, status);
+        // Locked entry kept in memory
+        final TransferItem locked = new TransferItem(new Path(directory, "b", EnumSet.of(Path.Type.file)), new NullLocal("/t/d", "b"));
+        final TransferStatus lock = new TransferStatus().withLockId("l");
+        lock.setComplete();
+        table.put(locked, lock);
+        table.put(new TransferItem(new Path(directory, "c", EnumSet.of(Path.Type.file)), new NullLocal("/t/d", "c")), new TransferStatus());
+        assertSame(lock, table.get(locked));
+        final TransferStatus spilled = table.get(item);
+        assertNotSame(status, spilled);
+        assertTrue(spilled.isComplete());
+        assertTrue(spilled.isExists());
+        assertTrue(spilled.isAppend());
+        assertEquals(2L, spilled.getLength());
+        assertEquals(1L, spilled.getOffset());
+        assertEquals(status.getChecksum(), spilled.getChecksum());
+        assertEquals("text/plain", spilled.getMime());
+        assertEquals(3L, spilled.getRemote().getSize());
+        assertEquals("e", spilled.getRemote().getETag());
+        assertEquals("v", spilled.getRemote().getCustom().get("k"));
+        assertEquals(new Permission(644), spilled.getPermission());
+        assertEquals(new Encryption.Algorithm("AES256", null), spilled.getEncryption());
+        assertEquals("STANDARD", spilled.getStorageClass());
+        assertEquals(1000L, spilled.getTimestamp(), 0L);
+        assertEquals("text/plain", spilled.getMetadata().get("Content-Type"));
+        assertEquals("1", spilled.getParameters().get("p"));
+        assertEquals(ByteBuffer.wrap(new byte[]{1, 2}), spilled.getHeader());
+        assertEquals(1, spilled.getSegments().size());
+        assertTrue(spilled.getSegments().get(0).isSegment());
+        assertTrue(spilled.getSegments().get(0).isComplete());
+        assertEquals(1, spilled.getSegments().get(0).getPart(), 0);
+        assertEquals("a-1.cyberducksegment", spilled.getSegments().get(0).getRename().local.getName());
+        boolean found = false;
+        for(Map.Entry<TransferItem, TransferStatus> entry : table.entrySet()) {
+            if(item.equals(entry.getKey())) {
+                assertEquals("v", entry.getKey().remote.attributes().getVersionId());
+                found = true;
+            }
+        }
+        assertTrue(found);
+        table.clear();
+    }
+}
@@ -0,0 +1,33 @@
+package ch.cyberduck.core.transfer.download;
+
+import ch.cyberduck.core.Local;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class InplaceSegmentProgressTest {
+
+    @Test
+    public void testFind() throws Exception {
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final InplaceSegmentProgress progress = new InplaceSegmentProgress(local);
+        assertFalse(progress.exists());
+        assertTrue(progress.find(5L).isEmpty());
+        progress.create(5L);
+        assertTrue(progress.exists());
+        assertTrue(progress.find(5L).isEmpty());
+        progress.complete(10L);
+        progress.complete(5L);
+        assertEquals(new HashSet<>(Arrays.asList(5L, 10L)), progress.find(5L));
+        // Segments of different size
+        assertEquals(Collections.emptySet(), progress.find(4L));
+        progress.delete();
+        assertFalse(progress.exists());
+    }
+}
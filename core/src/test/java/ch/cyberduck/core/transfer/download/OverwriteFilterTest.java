@@ -1,5 +1,6 @@
 package ch.cyberduck.core.transfer.download;
 
+import ch.cyberduck.core.ConnectionCallback;
 import ch.cyberduck.core.DisabledProgressListener;
 import ch.cyberduck.core.Host;
 import ch.cyberduck.core.LocalAttributes;
@@ -10,12 +11,16 @@ import ch.cyberduck.core.Path;
 import ch.cyberduck.core.Permission;
 import ch.cyberduck.core.TestProtocol;
 import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.features.Read;
 import ch.cyberduck.core.local.DefaultLocalTouchFeature;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.core.transfer.symlink.DisabledDownloadSymlinkResolver;
 
+import org.apache.commons.io.input.NullInputStream;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.InputStream;
 import java.util.EnumSet;
 import java.util.UUID;
 
@@ -98,4 +103,51 @@ public class OverwriteFilterTest {
         new DefaultLocalTouchFeature().touch(l);
         f.prepare(new Path("a", EnumSet.of(Path.Type.directory)), l, new TransferStatus().exists(true), new DisabledProgressListener());
     }
+
+    @Test
+    public void testPrepareSegmentsInplace() throws Exception {
+        final DownloadFilterOptions options = new DownloadFilterOptions();
+        options.segments = true;
+        options.inplace = true;
+        final OverwriteFilter f = new OverwriteFilter(new DisabledDownloadSymlinkResolver(), new NullTransferSession(new Host(new TestProtocol())) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Read.class) {
+                    return (T) new Read() {
+                        @Override
+                        public InputStream read(final Path file, final TransferStatus status, final ConnectionCallback callback) {
+                            return new NullInputStream(status.getLength());
+                        }
+
+                        @Override
+                        public boolean offset(final Path file) {
+                            return true;
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+        }, options);
+        final Path p = new Path("a", EnumSet.of(Path.Type.file));
+        p.attributes().setSize(32L * 1024L * 1024L);
+        final NullLocal local = new NullLocal(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final TransferStatus status = f.prepare(p, local, new TransferStatus(), new DisabledProgressListener());
+        assertTrue(status.isSegmented());
+        assertTrue(status.isInplace());
+        long offset = 0L;
+        for(TransferStatus segment : status.getSegments()) {
+            assertTrue(segment.isSegment());
+            assertTrue(segment.isInplace());
+            assertEquals(offset, segment.getOffset());
+            offset += segment.getLength();
+        }
+        assertEquals(p.attributes().getSize(), offset);
+        f.apply(p, local, status, new DisabledProgressListener());
+        for(TransferStatus segment : status.getSegments()) {
+            assertEquals(local, segment.getRename().local);
+        }
+        assertEquals(p.attributes().getSize(), new File(local.getAbsolute()).length());
+        local.delete();
+    }
 }
@@ -6,6 +6,7 @@ import ch.cyberduck.core.DisabledLoginCallback;
 import ch.cyberduck.core.DisabledProgressListener;
 import ch.cyberduck.core.Host;
 import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.NullFilter;
 import ch.cyberduck.core.NullSession;
 import ch.cyberduck.core.PasswordCallback;
 import ch.cyberduck.core.Path;
@@ -13,6 +14,7 @@ import ch.cyberduck.core.PathCache;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.TestProtocol;
 import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.pool.SessionPool;
 import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.junit.Test;
@@ -21,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
@@ -76,6 +79,52 @@ public class DeleteWorkerTest {
         assertEquals(4, worker.run(session).size());
     }
 
+    @Test
+    public void testCompileConcurrent() throws Exception {
+        final Session session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Delete.class) {
+                    return (T) new Delete() {
+                        @Override
+                        public void delete(final Map<Path, TransferStatus> files, final PasswordCallback prompt, final Callback callback) {
+                            final List<Path> list = new ArrayList<>(files.keySet());
+                            assertEquals(new Path("/t/a/f", EnumSet.of(Path.Type.file)), list.get(0));
+                            assertEquals(new Path("/t/a", EnumSet.of(Path.Type.directory)), list.get(1));
+                            assertEquals(new Path("/t/b/f", EnumSet.of(Path.Type.file)), list.get(2));
+                            assertEquals(new Path("/t/b", EnumSet.of(Path.Type.directory)), list.get(3));
+                            assertEquals(new Path("/t", EnumSet.of(Path.Type.directory)), list.get(4));
+                        }
+
+                        @Override
+                        public boolean isRecursive() {
+                            return false;
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+
+            @Override
+            public AttributedList<Path> list(final Path file, final ListProgressListener listener) {
+                if(file.equals(new Path("/t", EnumSet.of(Path.Type.directory)))) {
+                    return new AttributedList<Path>(Arrays.asList(
+                        new Path("/t/a", EnumSet.of(Path.Type.directory)),
+                        new Path("/t/b", EnumSet.of(Path.Type.directory))
+                    ));
+                }
+                return new AttributedList<Path>(Collections.singletonList(
+                    new Path(file, "f", EnumSet.of(Path.Type.file))
+                ));
+            }
+        };
+        final DeleteWorker worker = new DeleteWorker(new DisabledLoginCallback(),
+            Collections.singletonList(new Path("/t", EnumSet.of(Path.Type.directory))), PathCache.empty(),
+            new NullFilter<Path>(), new DisabledProgressListener(), new SessionPool.SingleSessionPool(session));
+        assertEquals(5, worker.run(session).size());
+    }
+
     @Test
     public void testSymlink() throws Exception {
         final Session session = new NullSession(new Host(new TestProtocol())) {
@@ -20,6 +20,7 @@ import ch.cyberduck.core.features.AttributesFinder;
 import ch.cyberduck.core.io.DisabledStreamListener;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.notification.DisabledNotificationService;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.transfer.DisabledTransferErrorCallback;
 import ch.cyberduck.core.transfer.DisabledTransferPrompt;
 import ch.cyberduck.core.transfer.DownloadTransfer;
@@ -34,8 +35,13 @@ import ch.cyberduck.core.transfer.download.AbstractDownloadFilter;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Future;
 
 import static org.junit.Assert.*;
@@ -252,6 +258,91 @@ public class SingleTransferWorkerTest {
         assertTrue(worker.getCache().isEmpty());
     }
 
+    @Test
+    public void testDownloadStreaming() throws Exception {
+        final Path child = new Path("/t/c", EnumSet.of(Path.Type.file));
+        final Path root = new Path("/t", EnumSet.of(Path.Type.directory));
+        final NullLocal local = new NullLocal("l") {
+            @Override
+            public boolean exists() {
+                return true;
+            }
+
+            @Override
+            public boolean isDirectory() {
+                return true;
+            }
+
+            @Override
+            public boolean isFile() {
+                return false;
+            }
+
+            @Override
+            public AttributedList<Local> list() {
+                return AttributedList.emptyList();
+            }
+        };
+        final List<Path> transferred = new ArrayList<>();
+        final List<Map<TransferItem, TransferStatus>> batches = new ArrayList<>();
+        final Transfer t = new DownloadTransfer(new Host(new TestProtocol()), root, local) {
+            @Override
+            public void transfer(final Session<?> source, final Session<?> destination, final Path file, Local local,
+                                 final TransferOptions options, final TransferStatus status,
+                                 final ConnectionCallback connectionCallback,
+                                 final ProgressListener listener, final StreamListener streamListener) {
+                transferred.add(file);
+            }
+
+            @Override
+            public void pre(final Session<?> source, final Session<?> destination, final Map<TransferItem, TransferStatus> files, final ConnectionCallback callback) throws BackgroundException {
+                batches.add(new HashMap<>(files));
+                super.pre(source, destination, files, callback);
+            }
+
+            @Override
+            public AbstractDownloadFilter filter(final Session<?> source, final Session<?> destination, final TransferAction action, final ProgressListener listener) {
+                return super.filter(source, destination, action, listener).withAttributes(new AttributesFinder() {
+                    @Override
+                    public PathAttributes find(final Path file) {
+                        return file.attributes();
+                    }
+                });
+            }
+        };
+        final NullSession session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            public AttributedList<Path> list(final Path file, final ListProgressListener listener) {
+                // Directory must be transferred before listing its children
+                assertEquals(Collections.singletonList(root), transferred);
+                final AttributedList<Path> children = new AttributedList<Path>();
+                children.add(child);
+                return children;
+            }
+        };
+        PreferencesFactory.get().setProperty("queue.transfer.streaming", true);
+        try {
+            final SingleTransferWorker worker = new SingleTransferWorker(session, session, t, new TransferOptions(), new TransferSpeedometer(t), new DisabledTransferPrompt() {
+                @Override
+                public TransferAction prompt(final TransferItem file) {
+                    return TransferAction.overwrite;
+                }
+            }, new DisabledTransferErrorCallback(),
+                new DisabledProgressListener(), new DisabledStreamListener(), new DisabledLoginCallback(), new DisabledNotificationService());
+            worker.run(session);
+            assertEquals(Arrays.asList(root, child), transferred);
+            assertTrue(worker.getCache().isEmpty());
+            // Locks obtained before transfer and bulk features called once for single batch of files
+            assertEquals(2, batches.size());
+            assertTrue(batches.get(0).isEmpty());
+            assertEquals(1, batches.get(1).size());
+            assertEquals(child, batches.get(1).keySet().iterator().next().remote);
+        }
+        finally {
+            PreferencesFactory.get().deleteProperty("queue.transfer.streaming");
+        }
+    }
+
     @Test(expected = NotfoundException.class)
     public void testUploadFileNotFound() throws Exception {
         // #7791
@@ -15,6 +15,8 @@ package ch.cyberduck.core.cryptomator;
  * GNU General Public License for more details.
  */
 
+import ch.cyberduck.core.io.ByteArrayPool;
+
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.ProxyInputStream;
 import org.cryptomator.cryptolib.api.CryptoException;
@@ -23,7 +25,12 @@ import org.cryptomator.cryptolib.api.FileHeader;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class CryptoInputStream extends ProxyInputStream {
 
@@ -39,13 +46,33 @@ public class CryptoInputStream extends ProxyInputStream {
     private long chunkIndexOffset;
     private final int chunkSize;
 
+    /**
+     * Number of chunks decrypted in parallel in shared threads
+     */
+    private final int concurrency;
+    /**
+     * Chunks read ahead pending decryption in order of chunk index
+     */
+    private final Deque<Future<ByteBuffer>> pending = new ArrayDeque<>();
+    private boolean eof;
+
     public CryptoInputStream(final InputStream proxy, final FileContentCryptor cryptor, final FileHeader header, final long chunkIndexOffset) {
+        this(proxy, cryptor, header, chunkIndexOffset, 1);
+    }
+
+    /**
+     * @param concurrency Number of chunks decrypted in parallel with threads shared by all streams. When greater than
+     *                    one, up to twice as many chunks are read ahead from the proxy stream
+     */
+    public CryptoInputStream(final InputStream proxy, final FileContentCryptor cryptor, final FileHeader header, final long chunkIndexOffset,
+                             final int concurrency) {
         super(proxy);
         this.proxy = proxy;
         this.cryptor = cryptor;
         this.header = header;
         this.chunkSize = cryptor.ciphertextChunkSize();
         this.chunkIndexOffset = chunkIndexOffset;
+        this.concurrency = concurrency;
     }
 
     @Override
@@ -79,20 +106,94 @@ public class CryptoInputStream extends ProxyInputStream {
         return IOUtils.skip(this, len);
     }
 
+    @Override
+    public void close() throws IOException {
+        // Wait for pending decryption to release buffers
+        Future<ByteBuffer> future;
+        while((future = pending.poll()) != null) {
+            try {
+                future.get();
+            }
+            catch(InterruptedException e) {
+                throw new InterruptedIOException(e.getMessage());
+            }
+            catch(ExecutionException e) {
+                // Ignore failure of chunk not read
+            }
+        }
+        super.close();
+    }
+
     private int readNextChunk() throws IOException {
-        final ByteBuffer ciphertextBuf = ByteBuffer.allocate(chunkSize);
-        final int read = IOUtils.read(proxy, ciphertextBuf.array());
-        if(read == 0) {
+        if(concurrency > 1) {
+            return this.readNextChunkAhead();
+        }
+        final byte[] ciphertext = ByteArrayPool.get().acquire(chunkSize);
+        try {
+            final int read = IOUtils.read(proxy, ciphertext, 0, chunkSize);
+            if(read == 0) {
+                return IOUtils.EOF;
+            }
+            try {
+                buffer = cryptor.decryptChunk(ByteBuffer.wrap(ciphertext, 0, read), chunkIndexOffset++, header, true);
+            }
+            catch(CryptoException e) {
+                throw new IOException(e.getMessage(), new CryptoAuthenticationException(e.getMessage(), e));
+            }
+            return read;
+        }
+        finally {
+            ByteArrayPool.get().release(ciphertext);
+        }
+    }
+
+    /**
+     * Fill pipeline with chunks read from proxy stream and return the next decrypted chunk in sequence
+     */
+    private int readNextChunkAhead() throws IOException {
+        while(!eof && pending.size() < concurrency * 2) {
+            final byte[] ciphertext = ByteArrayPool.get().acquire(chunkSize);
+            final int read;
+            try {
+                read = IOUtils.read(proxy, ciphertext, 0, chunkSize);
+            }
+            catch(IOException e) {
+                ByteArrayPool.get().release(ciphertext);
+                throw e;
+            }
+            if(read < chunkSize) {
+                eof = true;
+            }
+            if(read == 0) {
+                ByteArrayPool.get().release(ciphertext);
+                break;
+            }
+            final long index = chunkIndexOffset++;
+            pending.add(CryptoThreadPool.decrypt().execute(() -> {
+                try {
+                    return cryptor.decryptChunk(ByteBuffer.wrap(ciphertext, 0, read), index, header, true);
+                }
+                finally {
+                    ByteArrayPool.get().release(ciphertext);
+                }
+            }));
+        }
+        final Future<ByteBuffer> next = pending.poll();
+        if(null == next) {
             return IOUtils.EOF;
         }
-        ciphertextBuf.position(read);
-        ciphertextBuf.flip();
         try {
-            buffer = cryptor.decryptChunk(ciphertextBuf, chunkIndexOffset++, header, true);
+            buffer = next.get();
         }
-        catch(CryptoException e) {
-            throw new IOException(e.getMessage(), new CryptoAuthenticationException(e.getMessage(), e));
+        catch(InterruptedException e) {
+            throw new InterruptedIOException(e.getMessage());
         }
-        return read;
+        catch(ExecutionException e) {
+            if(e.getCause() instanceof CryptoException) {
+                throw new IOException(e.getCause().getMessage(), new CryptoAuthenticationException(e.getCause().getMessage(), (CryptoException) e.getCause()));
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+        return buffer.remaining();
     }
 }
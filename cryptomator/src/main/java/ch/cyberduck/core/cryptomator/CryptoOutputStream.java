@@ -26,9 +26,14 @@ import org.cryptomator.cryptolib.api.FileContentCryptor;
 import org.cryptomator.cryptolib.api.FileHeader;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class CryptoOutputStream<Reply> extends StatusOutputStream<Reply> {
 
@@ -36,7 +41,16 @@ public class CryptoOutputStream<Reply> extends StatusOutputStream<Reply> {
 
     public CryptoOutputStream(final StatusOutputStream<Reply> proxy, final FileContentCryptor cryptor, final FileHeader header,
                               final NonceGenerator nonces, final long chunkIndexOffset) {
-        super(new MemorySegementingOutputStream(new EncryptingOutputStream(proxy, cryptor, header, nonces, chunkIndexOffset),
+        this(proxy, cryptor, header, nonces, chunkIndexOffset, 1);
+    }
+
+    /**
+     * @param concurrency Number of chunks encrypted in parallel with threads shared by all streams. When greater than
+     *                    one, at most twice as many chunks are pending encryption before writing blocks
+     */
+    public CryptoOutputStream(final StatusOutputStream<Reply> proxy, final FileContentCryptor cryptor, final FileHeader header,
+                              final NonceGenerator nonces, final long chunkIndexOffset, final int concurrency) {
+        super(new MemorySegementingOutputStream(new EncryptingOutputStream(proxy, cryptor, header, nonces, chunkIndexOffset, concurrency),
             cryptor.cleartextChunkSize()));
         this.proxy = proxy;
     }
@@ -63,14 +77,24 @@ public class CryptoOutputStream<Reply> extends StatusOutputStream<Reply> {
         private final NonceGenerator nonces;
         private long chunkIndexOffset;
 
+        /**
+         * Number of chunks encrypted in parallel in shared threads
+         */
+        private final int concurrency;
+        /**
+         * Chunks pending encryption in order of chunk index
+         */
+        private final Deque<Future<ByteBuffer>> pending = new ArrayDeque<>();
+
         public EncryptingOutputStream(final OutputStream proxy, final FileContentCryptor cryptor, final FileHeader header,
-                                      final NonceGenerator nonces, final long chunkIndexOffset) {
+                                      final NonceGenerator nonces, final long chunkIndexOffset, final int concurrency) {
             super(proxy);
             this.cryptor = cryptor;
             this.header = header;
             this.chunksize = cryptor.cleartextChunkSize();
             this.nonces = nonces;
             this.chunkIndexOffset = chunkIndexOffset;
+            this.concurrency = concurrency;
         }
 
         @Override
@@ -80,6 +104,10 @@ public class CryptoOutputStream<Reply> extends StatusOutputStream<Reply> {
 
         @Override
         public void write(final byte[] b, final int off, final int len) throws IOException {
+            if(concurrency > 1) {
+                this.submit(b, off, len);
+                return;
+            }
             try {
                 for(int chunkOffset = off; chunkOffset < len; chunkOffset += chunksize) {
                     int chunkLen = Math.min(chunksize, len - chunkOffset);
@@ -93,5 +121,67 @@ public class CryptoOutputStream<Reply> extends StatusOutputStream<Reply> {
                 throw new IOException(e.getMessage(), new CryptoAuthenticationException(e.getMessage(), e));
             }
         }
+
+        /**
+         * Submit chunks for encryption. Nonces are obtained in order of chunk index on the calling thread
+         */
+        private void submit(final byte[] b, final int off, final int len) throws IOException {
+            for(int chunkOffset = off; chunkOffset < off + len; chunkOffset += chunksize) {
+                final int chunkLen = Math.min(chunksize, off + len - chunkOffset);
+                final ByteBuffer cleartext = ByteBuffer.wrap(Arrays.copyOfRange(b, chunkOffset, chunkOffset + chunkLen));
+                final long index = chunkIndexOffset++;
+                final byte[] nonce = nonces.next();
+                while(pending.size() >= concurrency * 2) {
+                    // Block until oldest chunk is written
+                    this.drain(1);
+                }
+                pending.add(CryptoThreadPool.encrypt().execute(() -> cryptor.encryptChunk(cleartext, index, header, nonce)));
+            }
+        }
+
+        /**
+         * Write encrypted chunks in order
+         *
+         * @param count Maximum number of chunks to write
+         */
+        private void drain(final int count) throws IOException {
+            for(int i = 0; i < count && !pending.isEmpty(); i++) {
+                final Future<ByteBuffer> next = pending.poll();
+                try {
+                    super.write(next.get().array());
+                }
+                catch(InterruptedException e) {
+                    throw new InterruptedIOException(e.getMessage());
+                }
+                catch(ExecutionException e) {
+                    if(e.getCause() instanceof CryptoException) {
+                        throw new IOException(e.getCause().getMessage(), new CryptoAuthenticationException(e.getCause().getMessage(), (CryptoException) e.getCause()));
+                    }
+                    throw new IOException(e.getCause().getMessage(), e.getCause());
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            this.drain(Integer.MAX_VALUE);
+            super.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                this.drain(Integer.MAX_VALUE);
+            }
+            finally {
+                for(Future<ByteBuffer> future : pending) {
+                    // Discard chunks not written after failure
+                    future.cancel(false);
+                }
+                pending.clear();
+                // Close proxy stream and its connection also after failure
+                super.close();
+            }
+        }
     }
 }
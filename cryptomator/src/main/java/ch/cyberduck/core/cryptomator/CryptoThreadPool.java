@@ -0,0 +1,64 @@
+package ch.cyberduck.core.cryptomator;
+
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Threads shared by all streams of vaults to process chunks in parallel. The number of threads is bounded by the
+ * number of processors regardless of the number of open streams.
+ */
+public final class CryptoThreadPool {
+
+    private CryptoThreadPool() {
+        //
+    }
+
+    private static final class Decrypt {
+        private static final ThreadPool pool = create("decrypt");
+    }
+
+    /**
+     * @return Shared pool for decryption of chunks
+     */
+    public static ThreadPool decrypt() {
+        return Decrypt.pool;
+    }
+
+    private static final class Encrypt {
+        private static final ThreadPool pool = create("encrypt");
+    }
+
+    /**
+     * @return Shared pool for encryption of chunks
+     */
+    public static ThreadPool encrypt() {
+        return Encrypt.pool;
+    }
+
+    private static ThreadPool create(final String prefix) {
+        final ThreadPool pool = ThreadPoolFactory.get(prefix, Runtime.getRuntime().availableProcessors());
+        if(pool.executor() instanceof ThreadPoolExecutor) {
+            // Do not keep idle threads
+            ((ThreadPoolExecutor) pool.executor()).allowCoreThreadTimeOut(true);
+        }
+        return pool;
+    }
+}
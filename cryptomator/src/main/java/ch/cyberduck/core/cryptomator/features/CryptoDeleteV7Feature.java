@@ -112,7 +112,8 @@ public class CryptoDeleteV7Feature implements Delete {
 
     @Override
     public boolean isRecursive() {
-        return proxy.isRecursive();
+        // Data directories of nested directories are not descendants of the encrypted directory
+        return false;
     }
 
     @Override
@@ -23,6 +23,7 @@ import ch.cyberduck.core.cryptomator.CryptoInputStream;
 import ch.cyberduck.core.cryptomator.CryptoVault;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.Read;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.apache.commons.io.IOUtils;
@@ -64,12 +65,14 @@ public class CryptoReadFeature implements Read {
                 IOUtils.closeQuietly(in);
                 final TransferStatus s = new TransferStatus(status).length(-1L);
                 s.setOffset(this.align(status.getOffset()));
-                final CryptoInputStream crypto = new CryptoInputStream(proxy.read(encrypted, s, callback), vault.getFileContentCryptor(), header, this.chunk(status.getOffset()));
+                final CryptoInputStream crypto = new CryptoInputStream(proxy.read(encrypted, s, callback), vault.getFileContentCryptor(), header, this.chunk(status.getOffset()),
+                    PreferencesFactory.get().getInteger("cryptomator.read.concurrency"));
                 crypto.skip(this.position(status.getOffset()));
                 return crypto;
             }
             else {
-                return new CryptoInputStream(in, vault.getFileContentCryptor(), header, vault.numberOfChunks(status.getOffset()));
+                return new CryptoInputStream(in, vault.getFileContentCryptor(), header, vault.numberOfChunks(status.getOffset()),
+                    PreferencesFactory.get().getInteger("cryptomator.read.concurrency"));
             }
         }
         catch(IOException e) {
@@ -29,6 +29,7 @@ import ch.cyberduck.core.features.Find;
 import ch.cyberduck.core.features.Write;
 import ch.cyberduck.core.io.ChecksumCompute;
 import ch.cyberduck.core.io.StatusOutputStream;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.shared.DefaultAttributesFinderFeature;
 import ch.cyberduck.core.shared.DefaultFindFeature;
 import ch.cyberduck.core.transfer.TransferStatus;
@@ -79,7 +80,7 @@ public class CryptoWriteFeature<Reply> implements Write<Reply> {
                         withMime(null), callback);
             }
             return new CryptoOutputStream<Reply>(out, vault.getFileContentCryptor(), vault.getFileHeaderCryptor().decryptHeader(status.getHeader()),
-                status.getNonces(), vault.numberOfChunks(status.getOffset()));
+                status.getNonces(), vault.numberOfChunks(status.getOffset()), PreferencesFactory.get().getInteger("cryptomator.write.concurrency"));
         }
         catch(IOException e) {
             throw new DefaultIOExceptionMappingService().map(e);
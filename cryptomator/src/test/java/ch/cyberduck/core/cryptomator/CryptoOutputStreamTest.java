@@ -144,4 +144,54 @@ public class CryptoOutputStreamTest {
 
         assertArrayEquals(cleartext, read);
     }
+
+    @Test
+    public void testReadAhead() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final ByteArrayOutputStream cipherText = new ByteArrayOutputStream();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        final CryptoOutputStream<?> stream = new CryptoOutputStream<>(new StatusOutputStream<Void>(cipherText) {
+            @Override
+            public Void getStatus() {
+                return null;
+            }
+        }, vault.getFileContentCryptor(), header, new RandomNonceGenerator(), 0);
+
+        final byte[] cleartext = RandomUtils.nextBytes(vault.getFileContentCryptor().cleartextChunkSize() * 10 + 1);
+        stream.write(cleartext, 0, cleartext.length);
+        stream.close();
+
+        final byte[] read = new byte[cleartext.length];
+        final CryptoInputStream cryptoInputStream = new CryptoInputStream(new ByteArrayInputStream(cipherText.toByteArray()), vault.getFileContentCryptor(), header, 0, 3);
+        IOUtils.readFully(cryptoInputStream, read);
+        assertEquals(IOUtils.EOF, cryptoInputStream.read(new byte[1]));
+        cryptoInputStream.close();
+
+        assertArrayEquals(cleartext, read);
+    }
+
+    @Test
+    public void testWriteConcurrent() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final ByteArrayOutputStream cipherText = new ByteArrayOutputStream();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        final CryptoOutputStream<?> stream = new CryptoOutputStream<>(new StatusOutputStream<Void>(cipherText) {
+            @Override
+            public Void getStatus() {
+                return null;
+            }
+        }, vault.getFileContentCryptor(), header, new RandomNonceGenerator(), 0, 3);
+
+        final byte[] cleartext = RandomUtils.nextBytes(vault.getFileContentCryptor().cleartextChunkSize() * 10 + 1);
+        stream.write(cleartext, 0, 1024);
+        stream.write(cleartext, 1024, cleartext.length - 1024);
+        stream.close();
+
+        final byte[] read = new byte[cleartext.length];
+        final CryptoInputStream cryptoInputStream = new CryptoInputStream(new ByteArrayInputStream(cipherText.toByteArray()), vault.getFileContentCryptor(), header, 0);
+        IOUtils.readFully(cryptoInputStream, read);
+        cryptoInputStream.close();
+
+        assertArrayEquals(cleartext, read);
+    }
 }
@@ -43,6 +43,7 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.net.Inet6Address;
 import java.net.Socket;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -67,6 +68,22 @@ public class FTPClient extends FTPSClient {
     private final Preferences preferences
             = PreferencesFactory.get();
 
+    /**
+     * Send command to enter passive mode for next data connection before reading the completion reply of a transfer
+     */
+    private boolean pipelining;
+
+    /**
+     * Command sent ahead with reply not yet read
+     */
+    private String pending;
+    private long timestamp;
+
+    /**
+     * Representation type set or -1 if unknown
+     */
+    private int type = -1;
+
     public FTPClient(final Protocol protocol, final SSLSocketFactory f, final SSLContext c) {
         super(false, c);
         this.protocol = protocol;
@@ -77,6 +94,89 @@ public class FTPClient extends FTPSClient {
         this.protocol = protocol;
     }
 
+    public void setPipelining(final boolean pipelining) {
+        this.pipelining = pipelining;
+    }
+
+    /**
+     * Send PASV or EPSV for the next data connection without waiting for the reply. Must be called after closing the
+     * data connection and before reading the completion reply of the transfer. The reply is read when passive mode
+     * is requested for the next data connection or discarded before sending any other command.
+     */
+    public void pipeline() throws IOException {
+        if(!pipelining) {
+            return;
+        }
+        if(pending != null) {
+            return;
+        }
+        if(this.getDataConnectionMode() != PASSIVE_LOCAL_DATA_CONNECTION_MODE) {
+            return;
+        }
+        if(null == features || features.containsKey("PRET")) {
+            // PRET must precede passive mode command
+            return;
+        }
+        final String command = this.isUseEPSVwithIPv4() || this.getRemoteAddress() instanceof Inet6Address ?
+                FTPCmd.EPSV.getCommand() : FTPCmd.PASV.getCommand();
+        final String message = String.format("%s\r\n", command);
+        _controlOutput_.write(message);
+        _controlOutput_.flush();
+        _commandSupport_.fireCommandSent(command, message);
+        pending = command;
+        timestamp = System.currentTimeMillis();
+    }
+
+    @Override
+    public int sendCommand(final String command, final String args) throws IOException {
+        if(pending != null) {
+            if(pending.equalsIgnoreCase(command) && null == args
+                    && System.currentTimeMillis() - timestamp < preferences.getLong("ftp.pipeline.timeout")) {
+                pending = null;
+                // Reply to command sent ahead
+                return this.getReply();
+            }
+            this.discard();
+        }
+        if(StringUtils.startsWithIgnoreCase(command, FTPCmd.TYPE.getCommand())) {
+            type = -1;
+        }
+        return super.sendCommand(command, args);
+    }
+
+    /**
+     * Read reply to command sent ahead
+     */
+    private void discard() throws IOException {
+        if(pending != null) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Discard reply to %s sent ahead", pending));
+            }
+            pending = null;
+            this.getReply();
+        }
+    }
+
+    @Override
+    public boolean setFileType(final int fileType) throws IOException {
+        if(pipelining && type == fileType) {
+            // Skip round trip for representation type already set
+            return true;
+        }
+        if(super.setFileType(fileType)) {
+            type = fileType;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void disconnect() throws IOException {
+        pending = null;
+        type = -1;
+        super.disconnect();
+    }
+
     @Override
     protected Socket _openDataConnection_(final String command, final String arg) throws IOException {
         final Socket socket = super._openDataConnection_(command, arg);
@@ -196,6 +296,69 @@ public class FTPClient extends FTPSClient {
         return results;
     }
 
+    /**
+     * Send STAT with every line of the reply passed to the callback when read from the control connection
+     *
+     * @param pathname Directory
+     * @param callback Receives reply lines including status code
+     * @return Reply code
+     */
+    public int stat(final String pathname, final ReplyLineCallback callback) throws IOException {
+        this.discard();
+        final BufferedReader input = _controlInput_;
+        _controlInput_ = new ObservingReader(input, callback);
+        try {
+            return this.stat(pathname);
+        }
+        finally {
+            _controlInput_ = input;
+        }
+    }
+
+    public interface ReplyLineCallback {
+        void line(String line);
+    }
+
+    private static final class ObservingReader extends BufferedReader {
+        private final BufferedReader proxy;
+        private final ReplyLineCallback callback;
+
+        public ObservingReader(final BufferedReader proxy, final ReplyLineCallback callback) {
+            super(proxy, 1);
+            this.proxy = proxy;
+            this.callback = callback;
+        }
+
+        @Override
+        public String readLine() throws IOException {
+            final String line = proxy.readLine();
+            if(line != null) {
+                callback.line(line);
+            }
+            return line;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return proxy.read();
+        }
+
+        @Override
+        public int read(final char[] cbuf, final int off, final int len) throws IOException {
+            return proxy.read(cbuf, off, len);
+        }
+
+        @Override
+        public boolean ready() throws IOException {
+            return proxy.ready();
+        }
+
+        @Override
+        public void close() throws IOException {
+            proxy.close();
+        }
+    }
+
     /**
      * Query the server for a supported feature, and returns its values (if any).
      * Caches the parsed response to avoid resending the command repeatedly.
@@ -83,6 +83,7 @@ public class FTPReadFeature implements Read {
     private final class ReadReplyInputStream extends ProxyInputStream {
         private final AtomicBoolean close;
         private final TransferStatus status;
+        private boolean eof;
 
         public ReadReplyInputStream(final InputStream proxy, final TransferStatus status) {
             super(proxy);
@@ -90,6 +91,13 @@ public class FTPReadFeature implements Read {
             this.close = new AtomicBoolean();
         }
 
+        @Override
+        protected void afterRead(final int n) {
+            if(-1 == n) {
+                eof = true;
+            }
+        }
+
         @Override
         public void close() throws IOException {
             if(close.get()) {
@@ -99,6 +107,10 @@ public class FTPReadFeature implements Read {
             try {
                 super.close();
                 if(session.isConnected()) {
+                    if(eof) {
+                        // Request passive mode for next transfer while waiting for completion
+                        session.getClient().pipeline();
+                    }
                     // Read 226 status after closing stream
                     int reply = session.getClient().getReply();
                     if(!FTPReply.isPositiveCompletion(reply)) {
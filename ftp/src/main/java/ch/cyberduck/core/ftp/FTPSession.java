@@ -159,6 +159,7 @@ public class FTPSession extends SSLSession<FTPClient> {
         }
         client.setStrictMultilineParsing(preferences.getBoolean("ftp.parser.multiline.strict"));
         client.setStrictReplyParsing(preferences.getBoolean("ftp.parser.reply.strict"));
+        client.setPipelining(preferences.getBoolean("ftp.pipeline.enable"));
     }
 
     @Override
@@ -89,6 +89,7 @@ public class FTPWriteFeature extends AppendWriteFeature<Integer> {
         private final AtomicBoolean close;
         private final TransferStatus status;
         private Integer reply;
+        private long written;
 
         public ReadReplyOutputStream(final OutputStream proxy, final TransferStatus status) {
             super(proxy);
@@ -96,6 +97,11 @@ public class FTPWriteFeature extends AppendWriteFeature<Integer> {
             this.close = new AtomicBoolean();
         }
 
+        @Override
+        protected void afterWrite(final int n) {
+            written += n;
+        }
+
         @Override
         public void close() throws IOException {
             if(close.get()) {
@@ -105,6 +111,10 @@ public class FTPWriteFeature extends AppendWriteFeature<Integer> {
             try {
                 super.close();
                 if(session.isConnected()) {
+                    if(!status.isSegment() && written == status.getLength()) {
+                        // Request passive mode for next transfer while waiting for completion
+                        session.getClient().pipeline();
+                    }
                     // Read 226 status after closing stream
                     reply = session.getClient().getReply();
                     if(!FTPReply.isPositiveCompletion(reply)) {
@@ -50,12 +50,25 @@ public class FTPListResponseReader implements FTPDataResponseReader {
     @Override
     public AttributedList<Path> read(final Path directory, final List<String> replies, final ListProgressListener listener) throws FTPInvalidListException {
         final AttributedList<Path> children = new AttributedList<Path>();
-        // At least one entry successfully parsed
-        boolean success = false;
+        if(!this.read(directory, replies, children, false)) {
+            throw new FTPInvalidListException(children);
+        }
+        return children;
+    }
+
+    /**
+     * Parse lines of listing incrementally
+     *
+     * @param lines    Part of listing
+     * @param children Parsed entries are added to
+     * @param success  At least one entry successfully parsed from previous lines
+     * @return True if at least one entry has been successfully parsed
+     */
+    public boolean read(final Path directory, final List<String> lines, final AttributedList<Path> children, boolean success) {
         // Call hook for those implementors which need to perform some action upon the list after it has been created
         // from the server stream, but before any clients see the list
-        parser.preParse(replies);
-        for(String line : replies) {
+        parser.preParse(lines);
+        for(String line : lines) {
             final FTPFile f = parser.parseFTPEntry(line);
             if(null == f) {
                 continue;
@@ -160,9 +173,6 @@ public class FTPListResponseReader implements FTPDataResponseReader {
             }
             children.add(parsed);
         }
-        if(!success) {
-            throw new FTPInvalidListException(children);
-        }
-        return children;
+        return success;
     }
 }
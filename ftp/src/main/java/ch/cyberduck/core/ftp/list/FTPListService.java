@@ -28,6 +28,7 @@ import ch.cyberduck.core.ftp.FTPExceptionMappingService;
 import ch.cyberduck.core.ftp.FTPParserSelector;
 import ch.cyberduck.core.ftp.FTPSession;
 import ch.cyberduck.core.ftp.parser.CompositeFileEntryParser;
+import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 
 import org.apache.commons.lang3.StringUtils;
@@ -50,6 +51,14 @@ public class FTPListService implements ListService {
     private static final Logger log = Logger.getLogger(FTPListService.class);
 
     private final FTPSession session;
+    private final CompositeFileEntryParser parser;
+    private final Preferences preferences = PreferencesFactory.get();
+
+    /**
+     * Listing strategy found working for server previously. Tried first with other strategies as fallback
+     */
+    private Command remembered;
+    private String current;
 
     protected final Map<Command, ListService> implementations
         = new HashMap<Command, ListService>();
@@ -93,7 +102,7 @@ public class FTPListService implements ListService {
     public FTPListService(final FTPSession session, final String system, final TimeZone zone) {
         this.session = session;
         // Directory listing parser depending on response for SYST command
-        final CompositeFileEntryParser parser = new FTPParserSelector().getParser(system, zone);
+        parser = new FTPParserSelector().getParser(system, zone);
         this.implementations.put(Command.list, new FTPDefaultListService(session, parser, Command.list));
         if(PreferencesFactory.get().getBoolean("ftp.command.stat")) {
             if(StringUtils.isNotBlank(system)) {
@@ -112,8 +121,60 @@ public class FTPListService implements ListService {
         if(PreferencesFactory.get().getBoolean("ftp.command.lista")) {
             this.implementations.put(Command.lista, new FTPDefaultListService(session, parser, Command.lista));
         }
+        final String command = preferences.getProperty(String.format("ftp.command.list.%s", this.key()));
+        if(StringUtils.isNotBlank(command)) {
+            try {
+                remembered = Command.valueOf(command);
+            }
+            catch(IllegalArgumentException e) {
+                log.warn(String.format("Unknown listing strategy %s", command));
+            }
+        }
+        if(remembered != null && implementations.containsKey(remembered)) {
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Use listing strategy %s found working in previous session", remembered));
+            }
+            current = preferences.getProperty(String.format("ftp.parser.%s", this.key()));
+            if(StringUtils.isNotBlank(current)) {
+                parser.setCurrent(current);
+            }
+        }
+    }
+
+    /**
+     * @return Identifier of server and login for saved listing strategy
+     */
+    private String key() {
+        return String.format("%s@%s:%d", session.getHost().getCredentials().getUsername(),
+            session.getHost().getHostname(), session.getHost().getPort());
+    }
+
+    /**
+     * Save listing strategy and parser implementation for next session
+     *
+     * @param command Listing strategy with successful reply
+     */
+    protected void remember(final Command command) {
+        if(command != remembered) {
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Remember listing strategy %s", command));
+            }
+            preferences.setProperty(String.format("ftp.command.list.%s", this.key()), command.name());
+            remembered = command;
+        }
+        if(Command.mlsd != command) {
+            if(parser.getCurrent() != null) {
+                if(!StringUtils.equals(current, parser.getCurrent().getClass().getName())) {
+                    current = parser.getCurrent().getClass().getName();
+                    preferences.setProperty(String.format("ftp.parser.%s", this.key()), current);
+                }
+            }
+        }
     }
 
+    /**
+     * Strategies failing are removed for the lifetime of this connection only and tried again after reconnect
+     */
     protected void remove(final Command command) {
         log.warn(String.format("Remove %s from listing strategies", command));
         implementations.remove(command);
@@ -122,12 +183,44 @@ public class FTPListService implements ListService {
     @Override
     public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
         try {
-            if(implementations.containsKey(Command.mlsd)) {
+            if(remembered != null && implementations.containsKey(remembered)) {
+                final AttributedList<Path> list = this.list(remembered, directory, listener);
+                if(list != null) {
+                    return list;
+                }
+            }
+            for(Command command : new Command[]{Command.mlsd, Command.stat, Command.lista}) {
+                if(command == remembered) {
+                    continue;
+                }
+                if(implementations.containsKey(command)) {
+                    final AttributedList<Path> list = this.list(command, directory, listener);
+                    if(list != null) {
+                        return list;
+                    }
+                }
+            }
+            return this.list(Command.list, directory, listener);
+        }
+        catch(IOException e) {
+            throw new FTPExceptionMappingService().map("Listing directory {0} failed", e, directory);
+        }
+    }
+
+    /**
+     * @param command Listing strategy
+     * @return Null if listing strategy failed and the next should be tried
+     */
+    private AttributedList<Path> list(final Command command, final Path directory, final ListProgressListener listener) throws IOException, BackgroundException {
+        switch(command) {
+            case mlsd:
                 // Note that there is no distinct FEAT output for MLSD. The presence of the MLST feature
                 // indicates that both MLST and MLSD are supported.
                 if(session.getClient().hasFeature(FTPCmd.MLST.getCommand())) {
                     try {
-                        return this.post(directory, implementations.get(Command.mlsd).list(directory, listener), listener);
+                        final AttributedList<Path> list = implementations.get(Command.mlsd).list(directory, listener);
+                        this.remember(Command.mlsd);
+                        return this.post(directory, list, listener);
                     }
                     catch(InteroperabilityException | FTPInvalidListException e) {
                         this.remove(Command.mlsd);
@@ -136,18 +229,22 @@ public class FTPListService implements ListService {
                 else {
                     this.remove(Command.mlsd);
                 }
-            }
-            if(implementations.containsKey(Command.stat)) {
+                return null;
+            case stat:
                 try {
-                    return this.post(directory, implementations.get(Command.stat).list(directory, listener), listener);
+                    final AttributedList<Path> list = implementations.get(Command.stat).list(directory, listener);
+                    this.remember(Command.stat);
+                    return this.post(directory, list, listener);
                 }
                 catch(FTPInvalidListException | InteroperabilityException | AccessDeniedException | NotfoundException e) {
                     this.remove(Command.stat);
                 }
-            }
-            if(implementations.containsKey(Command.lista)) {
+                return null;
+            case lista:
                 try {
-                    return this.post(directory, implementations.get(Command.lista).list(directory, listener), listener);
+                    final AttributedList<Path> list = implementations.get(Command.lista).list(directory, listener);
+                    this.remember(Command.lista);
+                    return this.post(directory, list, listener);
                 }
                 catch(InteroperabilityException e) {
                     this.remove(Command.lista);
@@ -155,17 +252,17 @@ public class FTPListService implements ListService {
                 catch(FTPInvalidListException e) {
                     // Empty directory listing. #7737
                 }
-            }
-            try {
-                return this.post(directory, implementations.get(Command.list).list(directory, listener), listener);
-            }
-            catch(FTPInvalidListException f) {
-                // Empty directory listing
-                return this.post(directory, f.getParsed(), listener);
-            }
-        }
-        catch(IOException e) {
-            throw new FTPExceptionMappingService().map("Listing directory {0} failed", e, directory);
+                return null;
+            default:
+                try {
+                    final AttributedList<Path> list = implementations.get(Command.list).list(directory, listener);
+                    this.remember(Command.list);
+                    return this.post(directory, list, listener);
+                }
+                catch(FTPInvalidListException f) {
+                    // Empty directory listing
+                    return this.post(directory, f.getParsed(), listener);
+                }
         }
     }
 
@@ -21,11 +21,15 @@ import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.ftp.FTPClient;
 import ch.cyberduck.core.ftp.FTPException;
 import ch.cyberduck.core.ftp.FTPExceptionMappingService;
 import ch.cyberduck.core.ftp.FTPSession;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.commons.net.ftp.FTPFileEntryParser;
 import org.apache.commons.net.ftp.FTPReply;
 import org.apache.log4j.Logger;
@@ -38,19 +42,38 @@ public class FTPStatListService implements ListService {
     private static final Logger log = Logger.getLogger(FTPListService.class);
 
     private final FTPSession session;
-    private final FTPDataResponseReader reader;
+    private final FTPListResponseReader reader;
+
+    /**
+     * Number of reply lines parsed before notifying listener
+     */
+    private final int chunksize;
 
     public FTPStatListService(final FTPSession session, final FTPFileEntryParser parser) {
+        this(session, parser, PreferencesFactory.get().getInteger("ftp.listing.chunksize"));
+    }
+
+    public FTPStatListService(final FTPSession session, final FTPFileEntryParser parser, final int chunksize) {
         this.session = session;
         this.reader = new FTPListResponseReader(parser, true);
+        this.chunksize = chunksize;
     }
 
     @Override
     public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
         try {
-            final int response = session.getClient().stat(directory.getAbsolute());
+            // Parse reply while reading from control connection
+            final ChunkReplyLineCallback callback = new ChunkReplyLineCallback(directory, listener);
+            final int response = session.getClient().stat(directory.getAbsolute(), callback);
             if(FTPReply.isPositiveCompletion(response)) {
-                return reader.read(directory, this.parse(response, session.getClient().getReplyStrings()), listener);
+                callback.flush(false);
+                if(callback.canceled != null) {
+                    throw callback.canceled;
+                }
+                if(!callback.success) {
+                    throw new FTPInvalidListException(callback.children);
+                }
+                return callback.children;
             }
             else {
                 throw new FTPException(session.getClient().getReplyCode(), session.getClient().getReplyString());
@@ -83,6 +106,53 @@ public class FTPStatListService implements ListService {
         return result;
     }
 
+    private final class ChunkReplyLineCallback implements FTPClient.ReplyLineCallback {
+        private final Path directory;
+        private final ListProgressListener listener;
+        private final AttributedList<Path> children = new AttributedList<Path>();
+        private final List<String> lines = new ArrayList<String>();
+
+        /**
+         * Status code of first reply line
+         */
+        private int response = -1;
+        private boolean success;
+        private ConnectionCanceledException canceled;
+
+        public ChunkReplyLineCallback(final Path directory, final ListProgressListener listener) {
+            this.directory = directory;
+            this.listener = listener;
+        }
+
+        @Override
+        public void line(final String line) {
+            if(-1 == response) {
+                response = NumberUtils.toInt(StringUtils.substring(line, 0, 3), 0);
+            }
+            lines.add(line);
+            if(lines.size() >= chunksize) {
+                this.flush(true);
+            }
+        }
+
+        private void flush(final boolean notify) {
+            if(lines.isEmpty()) {
+                return;
+            }
+            success = reader.read(directory, parse(response, lines.toArray(new String[lines.size()])), children, success);
+            lines.clear();
+            if(notify && null == canceled) {
+                try {
+                    listener.chunk(directory, children);
+                }
+                catch(ConnectionCanceledException e) {
+                    // Continue reading reply to keep control connection usable
+                    canceled = e;
+                }
+            }
+        }
+    }
+
     @Override
     public ListService withCache(final Cache<Path> cache) {
         return this;
@@ -69,6 +69,20 @@ public class CompositeFileEntryParser extends FTPFileEntryParserImpl implements
         return current;
     }
 
+    /**
+     * Try parser with given class name first
+     *
+     * @param name Class name of parser found matching previously
+     */
+    public void setCurrent(final String name) {
+        for(FTPFileEntryParser parser : parsers) {
+            if(parser.getClass().getName().equals(name)) {
+                current = parser;
+                return;
+            }
+        }
+    }
+
     @Override
     public void configure(final FTPClientConfig config) {
         for(FTPFileEntryParser parser : parsers) {
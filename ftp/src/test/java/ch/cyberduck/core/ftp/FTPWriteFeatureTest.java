@@ -68,6 +68,28 @@ public class FTPWriteFeatureTest extends AbstractFTPTest {
         new FTPDeleteFeature(session).delete(Collections.singletonList(test), new DisabledLoginCallback(), new Delete.DisabledCallback());
     }
 
+    @Test
+    public void testReadWritePipelined() throws Exception {
+        session.getClient().setPipelining(true);
+        final Path workdir = new FTPWorkdirService(session).find();
+        for(int i = 0; i < 3; i++) {
+            final byte[] content = RandomUtils.nextBytes(1024 * (i + 1));
+            final TransferStatus status = new TransferStatus().length(content.length);
+            final Path test = new Path(workdir, UUID.randomUUID().toString(), EnumSet.of(Path.Type.file));
+            final OutputStream out = new FTPWriteFeature(session).write(test, status, new DisabledConnectionCallback());
+            new StreamCopier(new TransferStatus(), new TransferStatus()).transfer(new ByteArrayInputStream(content), out);
+            out.close();
+            final InputStream in = new FTPReadFeature(session).read(test, new TransferStatus().length(content.length), new DisabledConnectionCallback());
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream(content.length);
+            new StreamCopier(new TransferStatus(), new TransferStatus()).transfer(in, buffer);
+            in.close();
+            assertArrayEquals(content, buffer.toByteArray());
+            // Reply to passive mode command sent ahead must not interfere with next command
+            assertTrue(session.getFeature(Find.class).find(test));
+            new FTPDeleteFeature(session).delete(Collections.singletonList(test), new DisabledLoginCallback(), new Delete.DisabledCallback());
+        }
+    }
+
     @Test
     public void testWriteContentRange() throws Exception {
         final FTPWriteFeature feature = new FTPWriteFeature(session);
@@ -37,6 +37,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -55,6 +56,26 @@ public class FTPStatListServiceTest extends AbstractFTPTest {
         assertTrue(list.contains(file));
     }
 
+    @Test
+    public void testListChunked() throws Exception {
+        final ListService service = new FTPStatListService(session,
+            new CompositeFileEntryParser(Collections.singletonList(new UnixFTPEntryParser())), 1);
+        final Path directory = new FTPWorkdirService(session).find();
+        final Path file = new Path(directory, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.file));
+        new FTPTouchFeature(session).touch(file, new TransferStatus());
+        final AtomicInteger chunks = new AtomicInteger();
+        final AttributedList<Path> list = service.list(directory, new DisabledListProgressListener() {
+            @Override
+            public void chunk(final Path parent, final AttributedList<Path> list) {
+                chunks.incrementAndGet();
+            }
+        });
+        assertTrue(list.contains(file));
+        assertTrue(chunks.get() > 1);
+        // Control connection in sync after reading reply incrementally
+        assertTrue(service.list(directory, new DisabledListProgressListener()).contains(file));
+    }
+
     @Test
     public void testParse() {
         final List<String> list = new FTPStatListService(null, null).parse(
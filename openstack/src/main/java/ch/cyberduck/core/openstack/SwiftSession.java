@@ -37,6 +37,7 @@ import ch.cyberduck.core.exception.LoginFailureException;
 import ch.cyberduck.core.features.*;
 import ch.cyberduck.core.http.HttpSession;
 import ch.cyberduck.core.proxy.Proxy;
+import ch.cyberduck.core.shared.ConcurrentRangeReadFeature;
 import ch.cyberduck.core.shared.DelegatingSchedulerFeature;
 import ch.cyberduck.core.ssl.X509KeyManager;
 import ch.cyberduck.core.ssl.X509TrustManager;
@@ -133,7 +134,7 @@ public class SwiftSession extends HttpSession<Client> {
             return (T) new SwiftListService(this, regionService);
         }
         if(type == Read.class) {
-            return (T) new SwiftReadFeature(this, regionService);
+            return (T) new ConcurrentRangeReadFeature(host, new SwiftReadFeature(this, regionService), new SwiftAttributesFinderFeature(this, regionService));
         }
         if(type == MultipartWrite.class) {
             return (T) new SwiftLargeUploadWriteFeature(this, regionService, new SwiftSegmentService(this, regionService));
@@ -23,8 +23,8 @@ import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.http.HttpRange;
 import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.SharedThreadPool;
 import ch.cyberduck.core.threading.ThreadPool;
-import ch.cyberduck.core.threading.ThreadPoolFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.apache.commons.lang3.StringUtils;
@@ -51,9 +51,6 @@ public class S3MultipartCopyFeature extends S3CopyFeature {
     private final PathContainerService containerService
         = new S3PathContainerService();
 
-    private final ThreadPool pool
-        = ThreadPoolFactory.get("multipart", PreferencesFactory.get().getInteger("s3.upload.multipart.concurrency"));
-
     /**
      * A split smaller than 5M is not allowed
      */
@@ -71,6 +68,8 @@ public class S3MultipartCopyFeature extends S3CopyFeature {
 
     @Override
     protected String copy(final Path source, final S3Object destination, final TransferStatus status) throws BackgroundException {
+        final ThreadPool pool = new SharedThreadPool(session.getHost(), "multipart",
+            PreferencesFactory.get().getInteger("s3.upload.multipart.concurrency"));
         try {
             final List<MultipartPart> completed = new ArrayList<MultipartPart>();
             // ID for the initiated multipart upload.
@@ -88,7 +87,7 @@ public class S3MultipartCopyFeature extends S3CopyFeature {
                 // Last part can be less than 5 MB. Adjust part size.
                 final Long length = Math.min(Math.max((size / S3DefaultMultipartService.MAXIMUM_UPLOAD_PARTS), partsize), remaining);
                 // Submit to queue
-                parts.add(this.submit(source, multipart, partNumber, offset, length));
+                parts.add(this.submit(pool, source, multipart, partNumber, offset, length));
                 remaining -= length;
                 offset += length;
             }
@@ -126,7 +125,7 @@ public class S3MultipartCopyFeature extends S3CopyFeature {
         }
     }
 
-    private Future<MultipartPart> submit(final Path source,
+    private Future<MultipartPart> submit(final ThreadPool pool, final Path source,
                                          final MultipartUpload multipart,
                                          final int partNumber, final long offset, final long length) {
         if(log.isInfoEnabled()) {
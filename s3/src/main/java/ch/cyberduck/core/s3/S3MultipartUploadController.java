@@ -0,0 +1,230 @@
+package ch.cyberduck.core.s3;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.apache.log4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adjust number of parts in flight and part size of a multipart upload from the measured throughput of completed
+ * parts. The number of parts in flight is increased by one for every round of completed parts improving the aggregate
+ * throughput and decreased multiplicatively when throughput drops or a part fails. With more data in flight than the
+ * bandwidth-delay product of the link, throughput no longer improves and the window settles. Part size is doubled
+ * when parts complete faster than the target duration to amortize the latency of individual requests.
+ */
+public class S3MultipartUploadController {
+    private static final Logger log = Logger.getLogger(S3MultipartUploadController.class);
+
+    /**
+     * Maximum size of a single part allowed by S3
+     */
+    public static final long MAXIMUM_PART_SIZE = 5L * 1024L * 1024L * 1024L;
+
+    /**
+     * Relative improvement of throughput required to open the window further
+     */
+    private static final double GAIN = 0.05d;
+    /**
+     * Relative loss of throughput to shrink the window
+     */
+    private static final double LOSS = 0.2d;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    /**
+     * Part size configured. Part sizes are always a multiple thereof
+     */
+    private final long base;
+    private final long maximumPartsize;
+    private final int maximumConcurrency;
+    /**
+     * Target duration for the transfer of a single part in nanoseconds
+     */
+    private final long duration;
+
+    /**
+     * Guarded by lock
+     */
+    private long partsize;
+    private int window;
+    private int inflight;
+    /**
+     * Best aggregate throughput in bytes per second measured with the current window
+     */
+    private double best;
+    /**
+     * Measurements of the current round
+     */
+    private int count;
+    private long bytes;
+    private long elapsed;
+    private long start = Long.MAX_VALUE;
+    private long end = Long.MIN_VALUE;
+
+    /**
+     * @param partsize           Initial part size
+     * @param concurrency        Initial number of parts in flight
+     * @param maximumPartsize    Upper bound for part size
+     * @param maximumConcurrency Upper bound for number of parts in flight
+     * @param duration           Target duration in seconds for the transfer of a part
+     */
+    public S3MultipartUploadController(final long partsize, final int concurrency,
+                                       final long maximumPartsize, final int maximumConcurrency, final int duration) {
+        this.base = partsize;
+        this.partsize = partsize;
+        this.maximumPartsize = Math.max(partsize, Math.min(maximumPartsize, MAXIMUM_PART_SIZE));
+        this.maximumConcurrency = Math.max(1, maximumConcurrency);
+        this.window = Math.max(1, Math.min(concurrency, this.maximumConcurrency));
+        this.duration = TimeUnit.SECONDS.toNanos(duration);
+    }
+
+    /**
+     * Block until a part can be submitted
+     */
+    public void acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while(inflight >= window) {
+                available.await();
+            }
+            inflight++;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Record completed part
+     *
+     * @param length Number of bytes transferred
+     * @param start  Start time of part transfer in nanoseconds
+     * @param end    Completion time of part transfer in nanoseconds
+     */
+    public void complete(final long length, final long start, final long end) {
+        lock.lock();
+        try {
+            inflight--;
+            count++;
+            bytes += length;
+            elapsed += end - start;
+            this.start = Math.min(this.start, start);
+            this.end = Math.max(this.end, end);
+            if(count >= window) {
+                this.adjust();
+            }
+            available.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Record failed part
+     */
+    public void failure() {
+        lock.lock();
+        try {
+            inflight--;
+            window = Math.max(1, window / 2);
+            best = 0d;
+            this.reset();
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Decrease window to %d parts after failure", window));
+            }
+            available.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void adjust() {
+        if(end <= start) {
+            this.reset();
+            return;
+        }
+        final double throughput = bytes / ((double) (end - start) / TimeUnit.SECONDS.toNanos(1));
+        if(throughput > best * (1d + GAIN)) {
+            best = throughput;
+            window = Math.min(maximumConcurrency, window + 1);
+        }
+        else if(throughput < best * (1d - LOSS)) {
+            best = throughput;
+            window = Math.max(1, window * 3 / 4);
+        }
+        if(elapsed / count < duration) {
+            partsize = Math.min(maximumPartsize, partsize * 2);
+        }
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Measured throughput of %.0f bytes/s with %d parts. Continue with window %d and part size %d",
+                throughput, count, window, partsize));
+        }
+        this.reset();
+    }
+
+    private void reset() {
+        count = 0;
+        bytes = 0L;
+        elapsed = 0L;
+        start = Long.MAX_VALUE;
+        end = Long.MIN_VALUE;
+    }
+
+    /**
+     * @param remaining  Bytes left to upload
+     * @param partNumber Number of next part
+     * @return Length of next part large enough to fit the remaining bytes within the maximum number of parts
+     */
+    public long partsize(final long remaining, final int partNumber) {
+        lock.lock();
+        try {
+            final long parts = Math.max(1, S3DefaultMultipartService.MAXIMUM_UPLOAD_PARTS - partNumber + 1);
+            final long minimum = (remaining + parts - 1) / parts;
+            long length = Math.max(partsize, minimum);
+            // Round up to multiple of configured part size
+            length = (length + base - 1) / base * base;
+            return Math.min(length, remaining);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWindow() {
+        lock.lock();
+        try {
+            return window;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("S3MultipartUploadController{");
+        sb.append("partsize=").append(partsize);
+        sb.append(", window=").append(window);
+        sb.append('}');
+        return sb.toString();
+    }
+}
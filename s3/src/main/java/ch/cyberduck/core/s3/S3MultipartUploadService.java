@@ -35,11 +35,12 @@ import ch.cyberduck.core.io.ChecksumComputeFactory;
 import ch.cyberduck.core.io.HashAlgorithm;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.io.StreamProgress;
+import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.threading.BackgroundExceptionCallable;
 import ch.cyberduck.core.threading.DefaultRetryCallable;
+import ch.cyberduck.core.threading.SharedThreadPool;
 import ch.cyberduck.core.threading.ThreadPool;
-import ch.cyberduck.core.threading.ThreadPoolFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.apache.commons.lang3.StringUtils;
@@ -58,6 +59,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
@@ -79,24 +81,42 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
 
     private final Integer concurrency;
 
+    /**
+     * Adjust part size and number of parts in flight to measured throughput
+     */
+    private final boolean adaptive;
+
+    private final Preferences preferences = PreferencesFactory.get();
+
     public S3MultipartUploadService(final S3Session session, final Write<StorageObject> writer) {
         this(session, writer, PreferencesFactory.get().getLong("s3.upload.multipart.size"),
-            PreferencesFactory.get().getInteger("s3.upload.multipart.concurrency"));
+            PreferencesFactory.get().getInteger("s3.upload.multipart.concurrency"),
+            PreferencesFactory.get().getBoolean("s3.upload.multipart.adaptive"));
     }
 
     public S3MultipartUploadService(final S3Session session, final Write<StorageObject> writer, final Long partsize, final Integer concurrency) {
+        this(session, writer, partsize, concurrency, false);
+    }
+
+    public S3MultipartUploadService(final S3Session session, final Write<StorageObject> writer, final Long partsize, final Integer concurrency,
+                                    final boolean adaptive) {
         super(writer);
         this.session = session;
         this.multipartService = new S3DefaultMultipartService(session);
         this.writer = writer;
         this.partsize = partsize;
         this.concurrency = concurrency;
+        this.adaptive = adaptive;
     }
 
     @Override
     public StorageObject upload(final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
                                 final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
-        final ThreadPool pool = ThreadPoolFactory.get("multipart", concurrency);
+        final S3MultipartUploadController controller = adaptive ? new S3MultipartUploadController(partsize, concurrency,
+            preferences.getLong("s3.upload.multipart.size.maximum"), preferences.getInteger("s3.upload.multipart.concurrency.maximum"),
+            preferences.getInteger("s3.upload.multipart.adaptive.duration")) : null;
+        final ThreadPool pool = new SharedThreadPool(session.getHost(), "multipart",
+            adaptive ? Math.max(concurrency, preferences.getInteger("s3.upload.multipart.concurrency.maximum")) : concurrency);
         try {
             MultipartUpload multipart = null;
             try {
@@ -111,6 +131,8 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
                 log.warn(String.format("Ignore failure listing incomplete multipart uploads. %s", e));
             }
             final List<MultipartPart> completed = new ArrayList<MultipartPart>();
+            // Length of completed parts discarded to upload again
+            long discarded = 0L;
             // Not found or new upload
             if(null == multipart) {
                 if(log.isInfoEnabled()) {
@@ -128,13 +150,31 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
                 if(status.isAppend()) {
                     // Add already completed parts
                     completed.addAll(multipartService.list(multipart));
+                    if(adaptive) {
+                        // Part sizes of previous attempt are unknown for missing parts. Upload again after first gap
+                        completed.sort(new MultipartPart.PartNumberComparator());
+                        for(int i = 0; i < completed.size(); i++) {
+                            if(completed.get(i).getPartNumber() != i + 1) {
+                                if(log.isInfoEnabled()) {
+                                    log.info(String.format("Discard %d completed parts after missing part %d", completed.size() - i, i + 1));
+                                }
+                                final List<MultipartPart> gap = completed.subList(i, completed.size());
+                                for(MultipartPart part : gap) {
+                                    discarded += part.getSize();
+                                }
+                                gap.clear();
+                                break;
+                            }
+                        }
+                    }
                 }
             }
             try {
                 // Full size of file
                 final long size = status.getLength() + status.getOffset();
                 final List<Future<MultipartPart>> parts = new ArrayList<Future<MultipartPart>>();
-                long remaining = status.getLength();
+                // Offset in transfer status includes discarded parts
+                long remaining = status.getLength() + discarded;
                 long offset = 0;
                 for(int partNumber = 1; remaining > 0; partNumber++) {
                     boolean skip = false;
@@ -154,10 +194,24 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
                         }
                     }
                     if(!skip) {
-                        // Last part can be less than 5 MB. Adjust part size.
-                        final Long length = Math.min(Math.max((size / (S3DefaultMultipartService.MAXIMUM_UPLOAD_PARTS - 1)), partsize), remaining);
+                        final long length;
+                        if(adaptive) {
+                            try {
+                                // Wait for window to open
+                                controller.acquire();
+                            }
+                            catch(InterruptedException e) {
+                                status.setCanceled();
+                                throw new ConnectionCanceledException(e);
+                            }
+                            length = controller.partsize(remaining, partNumber);
+                        }
+                        else {
+                            // Last part can be less than 5 MB. Adjust part size.
+                            length = Math.min(Math.max((size / (S3DefaultMultipartService.MAXIMUM_UPLOAD_PARTS - 1)), partsize), remaining);
+                        }
                         // Submit to queue
-                        parts.add(this.submit(pool, file, local, throttle, listener, status, multipart, partNumber, offset, length, callback));
+                        parts.add(this.submit(pool, file, local, throttle, listener, status, multipart, partNumber, offset, length, callback, controller));
                         remaining -= length;
                         offset += length;
                     }
@@ -232,11 +286,12 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
     private Future<MultipartPart> submit(final ThreadPool pool, final Path file, final Local local,
                                          final BandwidthThrottle throttle, final StreamListener listener,
                                          final TransferStatus overall, final MultipartUpload multipart,
-                                         final int partNumber, final long offset, final long length, final ConnectionCallback callback) {
+                                         final int partNumber, final long offset, final long length, final ConnectionCallback callback,
+                                         final S3MultipartUploadController controller) {
         if(log.isInfoEnabled()) {
             log.info(String.format("Submit part %d of %s to queue with offset %d and length %d", partNumber, file, offset, length));
         }
-        return pool.execute(new DefaultRetryCallable<MultipartPart>(session.getHost(), new BackgroundExceptionCallable<MultipartPart>() {
+        final DefaultRetryCallable<MultipartPart> command = new DefaultRetryCallable<MultipartPart>(session.getHost(), new BackgroundExceptionCallable<MultipartPart>() {
             @Override
             public MultipartPart call() throws BackgroundException {
                 overall.validate();
@@ -279,7 +334,32 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
                     part.getContentLength());
 
             }
-        }, overall));
+        }, overall);
+        if(null == controller) {
+            return pool.execute(command);
+        }
+        return pool.execute(new Callable<MultipartPart>() {
+            @Override
+            public MultipartPart call() throws BackgroundException {
+                // Includes time spent for retries
+                final long start = System.nanoTime();
+                boolean success = false;
+                try {
+                    final MultipartPart part = command.call();
+                    success = true;
+                    return part;
+                }
+                finally {
+                    // Release slot for any failure
+                    if(success) {
+                        controller.complete(length, start, System.nanoTime());
+                    }
+                    else {
+                        controller.failure();
+                    }
+                }
+            }
+        });
     }
 
     @Override
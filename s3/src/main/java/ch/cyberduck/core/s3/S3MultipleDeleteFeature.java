@@ -17,30 +17,54 @@ package ch.cyberduck.core.s3;
  * Bug fixes, suggestions and comments should be sent to feedback@cyberduck.ch
  */
 
+import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.Credentials;
+import ch.cyberduck.core.DefaultIOExceptionMappingService;
+import ch.cyberduck.core.DisabledListProgressListener;
 import ch.cyberduck.core.PasswordCallback;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathContainerService;
 import ch.cyberduck.core.collections.Partition;
+import ch.cyberduck.core.exception.AccessDeniedException;
 import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.exception.InteroperabilityException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.features.Delete;
 import ch.cyberduck.core.features.Versioning;
+import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.BackgroundExceptionCallable;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
 import org.jets3t.service.ServiceException;
+import org.jets3t.service.VersionOrDeleteMarkersChunk;
+import org.jets3t.service.model.BaseVersionOrDeleteMarker;
 import org.jets3t.service.model.MultipartUpload;
 import org.jets3t.service.model.MultipleDeleteResult;
 import org.jets3t.service.model.container.ObjectKeyAndVersion;
 
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 public class S3MultipleDeleteFeature implements Delete {
     private static final Logger log = Logger.getLogger(S3MultipleDeleteFeature.class);
@@ -54,14 +78,35 @@ public class S3MultipleDeleteFeature implements Delete {
 
     private final Versioning versioningService;
 
+    private final Preferences preferences = PreferencesFactory.get();
+
+    /**
+     * Error codes of keys in partial failure response to retry
+     */
+    private static final Set<String> RETRY = new HashSet<String>(Arrays.asList(
+        "InternalError", "ServiceUnavailable", "SlowDown", "RequestTimeout"));
+
+    /**
+     * List and delete contents of directories
+     */
+    private final boolean recursive;
+
     public S3MultipleDeleteFeature(final S3Session session) {
         this(session, new S3DefaultMultipartService(session));
     }
 
     public S3MultipleDeleteFeature(final S3Session session, final S3MultipartService multipartService) {
+        this(session, multipartService, PreferencesFactory.get().getBoolean("s3.delete.multiple.recursive"));
+    }
+
+    /**
+     * @param recursive Delete contents of directories with listing and deletion of keys overlapping
+     */
+    public S3MultipleDeleteFeature(final S3Session session, final S3MultipartService multipartService, final boolean recursive) {
         this.session = session;
         this.multipartService = multipartService;
         this.versioningService = session.getFeature(Versioning.class);
+        this.recursive = recursive;
     }
 
     public void delete(final Map<Path, TransferStatus> files, final PasswordCallback prompt, final Callback callback) throws BackgroundException {
@@ -84,6 +129,10 @@ public class S3MultipleDeleteFeature implements Delete {
                 }
             }
             else {
+                if(recursive && file.isDirectory()) {
+                    // Delete contents before placeholder
+                    this.deleteContents(file, prompt, callback);
+                }
                 final Path container = containerService.getContainer(file);
                 final List<ObjectKeyAndVersion> keys = new ArrayList<ObjectKeyAndVersion>();
                 // Always returning 204 even if the key does not exist. Does not return 404 for non-existing keys
@@ -103,6 +152,9 @@ public class S3MultipleDeleteFeature implements Delete {
             this.delete(container, keys, prompt);
         }
         for(Path file : containers) {
+            if(recursive) {
+                this.deleteContents(file, prompt, callback);
+            }
             callback.delete(file);
             // Finally delete bucket itself
             try {
@@ -150,34 +202,276 @@ public class S3MultipleDeleteFeature implements Delete {
             }
             else {
                 // Request contains a list of up to 1000 keys that you want to delete
-                for(List<ObjectKeyAndVersion> partition : new Partition<ObjectKeyAndVersion>(keys, PreferencesFactory.get().getInteger("s3.delete.multiple.partition"))) {
-                    final MultipleDeleteResult result = session.getClient().deleteMultipleObjects(container.getName(),
-                        partition.toArray(new ObjectKeyAndVersion[partition.size()]),
-                        // Only include errors in response
-                        true);
-                    if(result.hasErrors()) {
-                        for(MultipleDeleteResult.ErrorResult error : result.getErrorResults()) {
-                            if(StringUtils.equals("ObjectNotFound", error.getErrorCode())) {
-                                // Ignore failure deleting placeholder
-                                continue;
+                for(List<ObjectKeyAndVersion> partition : new Partition<ObjectKeyAndVersion>(keys, preferences.getInteger("s3.delete.multiple.partition"))) {
+                    this.delete(container, partition);
+                }
+            }
+        }
+        catch(ServiceException e) {
+            throw new S3ExceptionMappingService().map("Cannot delete {0}", e, container);
+        }
+    }
+
+    /**
+     * Delete keys with retry of keys failing with a transient error in a partial failure response
+     *
+     * @param partition Up to 1000 keys
+     */
+    private void delete(final Path container, final List<ObjectKeyAndVersion> partition) throws ServiceException, BackgroundException {
+        List<ObjectKeyAndVersion> keys = partition;
+        for(int attempt = 1; ; attempt++) {
+            final MultipleDeleteResult result = session.getClient().deleteMultipleObjects(container.getName(),
+                keys.toArray(new ObjectKeyAndVersion[keys.size()]),
+                // Only include errors in response
+                true);
+            final List<ObjectKeyAndVersion> retry = new ArrayList<ObjectKeyAndVersion>();
+            if(result.hasErrors()) {
+                for(MultipleDeleteResult.ErrorResult error : result.getErrorResults()) {
+                    if(StringUtils.equals("ObjectNotFound", error.getErrorCode())) {
+                        // Ignore failure deleting placeholder
+                        continue;
+                    }
+                    if(RETRY.contains(error.getErrorCode()) && attempt <= preferences.getInteger("s3.delete.multiple.retry")) {
+                        retry.add(new ObjectKeyAndVersion(error.getKey(), error.getVersion()));
+                        continue;
+                    }
+                    final ServiceException failure = new ServiceException();
+                    failure.setErrorCode(error.getErrorCode());
+                    failure.setErrorMessage(error.getMessage());
+                    throw new S3ExceptionMappingService().map("Cannot delete {0}", failure,
+                        new Path(container, error.getKey(), EnumSet.of(Path.Type.file)));
+                }
+            }
+            if(retry.isEmpty()) {
+                return;
+            }
+            log.warn(String.format("Retry deleting %d keys in %s after attempt %d", retry.size(), container, attempt));
+            try {
+                Thread.sleep(attempt * 1000L);
+            }
+            catch(InterruptedException e) {
+                throw new ConnectionCanceledException(e);
+            }
+            keys = retry;
+        }
+    }
+
+    /**
+     * Delete all keys below directory in batches submitted concurrently while listing is in progress
+     *
+     * @param directory Directory or bucket
+     */
+    private void deleteContents(final Path directory, final PasswordCallback prompt, final Callback callback) throws BackgroundException {
+        final Path container = containerService.getContainer(directory);
+        final boolean multifactor = versioningService != null && versioningService.getConfiguration(container).isMultifactor();
+        // Single request for multi factor authentication
+        final Pipeline pipeline = new Pipeline(container, prompt,
+            multifactor ? Integer.MAX_VALUE : preferences.getInteger("s3.delete.multiple.partition"),
+            multifactor ? 1 : preferences.getInteger("s3.delete.multiple.concurrency"));
+        try {
+            boolean versioned = versioningService != null && versioningService.getConfiguration(container).isEnabled();
+            if(versioned) {
+                try {
+                    this.versions(directory, pipeline, callback);
+                }
+                catch(AccessDeniedException | InteroperabilityException e) {
+                    log.warn(String.format("Ignore failure listing versioned objects. %s", e));
+                    versioned = false;
+                }
+            }
+            if(!versioned) {
+                new S3ObjectListService(session).stream(directory, new DisabledListProgressListener() {
+                    @Override
+                    public void chunk(final Path folder, final AttributedList<Path> list) throws ConnectionCanceledException {
+                        for(Path file : list) {
+                            callback.delete(file);
+                            try {
+                                pipeline.add(new ObjectKeyAndVersion(containerService.getKey(file)));
+                            }
+                            catch(BackgroundException e) {
+                                throw new ConnectionCanceledException(e);
                             }
-                            final ServiceException failure = new ServiceException();
-                            failure.setErrorCode(error.getErrorCode());
-                            failure.setErrorMessage(error.getMessage());
-                            throw new S3ExceptionMappingService().map("Cannot delete {0}", failure,
-                                new Path(container, error.getKey(), EnumSet.of(Path.Type.file)));
                         }
                     }
+                }, preferences.getInteger("s3.listing.chunksize"), preferences.getInteger("s3.listing.concurrency"));
+            }
+            for(MultipartUpload upload : multipartService.find(directory)) {
+                try {
+                    multipartService.delete(upload);
+                }
+                catch(NotfoundException ignored) {
+                    log.warn(String.format("Ignore failure deleting multipart upload %s", upload));
+                }
+            }
+            pipeline.await();
+        }
+        catch(ConnectionCanceledException e) {
+            if(e.getCause() instanceof BackgroundException) {
+                // Failure deleting batch
+                throw (BackgroundException) e.getCause();
+            }
+            throw e;
+        }
+        finally {
+            pipeline.close();
+        }
+    }
+
+    /**
+     * Delete previous versions and add delete marker for current versions of all keys below directory
+     */
+    private void versions(final Path directory, final Pipeline pipeline, final Callback callback) throws BackgroundException {
+        final Path container = containerService.getContainer(directory);
+        final String placeholder = containerService.isContainer(directory) ? null : containerService.getKey(directory);
+        try {
+            String priorLastKey = null;
+            String priorLastVersionId = null;
+            do {
+                final VersionOrDeleteMarkersChunk chunk = session.getClient().listVersionedObjectsChunked(
+                    container.getName(), null == placeholder ? StringUtils.EMPTY : placeholder, null,
+                    preferences.getInteger("s3.listing.chunksize"), priorLastKey, priorLastVersionId, false);
+                for(BaseVersionOrDeleteMarker marker : chunk.getItems()) {
+                    final String key = URLDecoder.decode(marker.getKey(), StandardCharsets.UTF_8.name());
+                    if(StringUtils.equals(placeholder, key)) {
+                        continue;
+                    }
+                    callback.delete(new Path(container, key, EnumSet.of(Path.Type.file)));
+                    if(marker.isDeleteMarker() && marker.isLatest() || !marker.isLatest()) {
+                        // Previous version
+                        pipeline.add(new ObjectKeyAndVersion(key, marker.getVersionId()));
+                    }
+                    else if(marker.isLatest()) {
+                        // Add delete marker
+                        pipeline.add(new ObjectKeyAndVersion(key));
+                    }
                 }
+                priorLastKey = null != chunk.getNextKeyMarker() ? URLDecoder.decode(chunk.getNextKeyMarker(), StandardCharsets.UTF_8.name()) : null;
+                priorLastVersionId = chunk.getNextVersionIdMarker();
             }
+            while(priorLastKey != null);
+        }
+        catch(UnsupportedEncodingException e) {
+            throw new DefaultIOExceptionMappingService().map("Listing directory {0} failed", e, directory);
         }
         catch(ServiceException e) {
-            throw new S3ExceptionMappingService().map("Cannot delete {0}", e, container);
+            throw new S3ExceptionMappingService().map("Listing directory {0} failed", e, directory);
+        }
+    }
+
+    /**
+     * Batches of keys deleted concurrently with a bounded number of requests in flight. Requests run on a pool of
+     * their own not competing for the budget of the host with listing threads blocked waiting for a request slot.
+     */
+    private final class Pipeline {
+        private final Path container;
+        private final PasswordCallback prompt;
+        private final int partition;
+        private final ThreadPool pool;
+        private final Semaphore inflight;
+        private final Queue<Future<Void>> pending = new ConcurrentLinkedQueue<Future<Void>>();
+
+        /**
+         * Guarded by this
+         */
+        private List<ObjectKeyAndVersion> batch = new ArrayList<ObjectKeyAndVersion>();
+
+        public Pipeline(final Path container, final PasswordCallback prompt, final int partition, final int concurrency) {
+            this.container = container;
+            this.prompt = prompt;
+            this.partition = partition;
+            this.pool = ThreadPoolFactory.get("delete", concurrency);
+            this.inflight = new Semaphore(concurrency);
+        }
+
+        public void add(final ObjectKeyAndVersion key) throws BackgroundException {
+            final List<ObjectKeyAndVersion> keys;
+            synchronized(this) {
+                batch.add(key);
+                if(batch.size() < partition) {
+                    return;
+                }
+                keys = batch;
+                batch = new ArrayList<ObjectKeyAndVersion>();
+            }
+            this.submit(keys);
+        }
+
+        private void submit(final List<ObjectKeyAndVersion> keys) throws BackgroundException {
+            // Fail early for completed requests
+            for(Iterator<Future<Void>> iter = pending.iterator(); iter.hasNext(); ) {
+                final Future<Void> future = iter.next();
+                if(future.isDone()) {
+                    iter.remove();
+                    this.await(future);
+                }
+            }
+            try {
+                // Wait for request slot
+                inflight.acquire();
+            }
+            catch(InterruptedException e) {
+                throw new ConnectionCanceledException(e);
+            }
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Submit %d keys in %s for deletion", keys.size(), container));
+            }
+            pending.add(pool.execute(new BackgroundExceptionCallable<Void>() {
+                @Override
+                public Void call() throws BackgroundException {
+                    try {
+                        S3MultipleDeleteFeature.this.delete(container, keys, prompt);
+                        return null;
+                    }
+                    finally {
+                        inflight.release();
+                    }
+                }
+            }));
+        }
+
+        /**
+         * Wait for all keys to be deleted
+         */
+        public void await() throws BackgroundException {
+            final List<ObjectKeyAndVersion> keys;
+            synchronized(this) {
+                keys = batch;
+                batch = new ArrayList<ObjectKeyAndVersion>();
+            }
+            if(!keys.isEmpty()) {
+                this.submit(keys);
+            }
+            Future<Void> future;
+            while((future = pending.poll()) != null) {
+                this.await(future);
+            }
+        }
+
+        private void await(final Future<Void> future) throws BackgroundException {
+            try {
+                future.get();
+            }
+            catch(InterruptedException e) {
+                log.error("Delete failed with interrupt failure");
+                throw new ConnectionCanceledException(e);
+            }
+            catch(ExecutionException e) {
+                log.warn(String.format("Delete failed with execution failure %s", e.getMessage()));
+                if(e.getCause() instanceof BackgroundException) {
+                    throw (BackgroundException) e.getCause();
+                }
+                throw new BackgroundException(e.getCause());
+            }
+        }
+
+        public void close() {
+            // Cancel future tasks
+            pool.shutdown(false);
         }
     }
 
     @Override
     public boolean isRecursive() {
-        return false;
+        return recursive;
     }
 }
@@ -29,9 +29,13 @@ import ch.cyberduck.core.PathContainerService;
 import ch.cyberduck.core.PathNormalizer;
 import ch.cyberduck.core.URIEncoder;
 import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.BackgroundExceptionCallable;
+import ch.cyberduck.core.threading.SharedThreadPool;
+import ch.cyberduck.core.threading.ThreadPool;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
@@ -42,8 +46,12 @@ import org.jets3t.service.model.StorageObject;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class S3ObjectListService extends S3AbstractListService implements ListService {
     private static final Logger log = Logger.getLogger(S3ObjectListService.class);
@@ -95,28 +103,13 @@ public class S3ObjectListService extends S3AbstractListService implements ListSe
 
                 final StorageObject[] objects = chunk.getObjects();
                 for(StorageObject object : objects) {
-                    final String key = PathNormalizer.normalize(URLDecoder.decode(object.getKey(), StandardCharsets.UTF_8.name()));
-                    if(String.valueOf(Path.DELIMITER).equals(key)) {
-                        log.warn(String.format("Skipping prefix %s", key));
+                    final Path file = this.toPath(bucket, directory, object, delimiter);
+                    if(null == file) {
+                        if(this.isPlaceholder(bucket, directory, object)) {
+                            hasDirectoryPlaceholder = true;
+                        }
                         continue;
                     }
-                    if(new Path(bucket, key, EnumSet.of(Path.Type.directory)).equals(directory)) {
-                        // Placeholder object, skip
-                        hasDirectoryPlaceholder = true;
-                        continue;
-                    }
-                    final EnumSet<Path.Type> types = object.getKey().endsWith(String.valueOf(Path.DELIMITER))
-                        ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file);
-                    final Path file;
-                    final PathAttributes attr = attributes.toAttributes(object);
-                    // Copy bucket location
-                    attr.setRegion(bucket.attributes().getRegion());
-                    if(null == delimiter) {
-                        file = new Path(String.format("%s%s", bucket.getAbsolute(), key), types, attr);
-                    }
-                    else {
-                        file = new Path(directory.isDirectory() ? directory : directory.getParent(), PathNormalizer.name(key), types, attr);
-                    }
                     children.add(file);
                 }
                 final String[] prefixes = chunk.getCommonPrefixes();
@@ -164,4 +157,132 @@ public class S3ObjectListService extends S3AbstractListService implements ListSe
             throw new S3ExceptionMappingService().map("Listing directory {0} failed", e, directory);
         }
     }
+
+    /**
+     * List all keys below directory without delimiter. Each page of results is passed to the listener as a separate
+     * list and not retained. With a concurrency greater than one, the keyspace is partitioned by the common prefixes
+     * of the first level which are then listed concurrently. The listener is called from multiple threads but never
+     * concurrently.
+     *
+     * @param directory   Directory to list recursively
+     * @param listener    Receives every page of results
+     * @param chunksize   Maximum number of keys in a page
+     * @param concurrency Number of prefixes listed concurrently
+     */
+    public void stream(final Path directory, final ListProgressListener listener, final int chunksize, final int concurrency) throws BackgroundException {
+        final Path bucket = containerService.getContainer(directory);
+        final String prefix = this.createPrefix(directory);
+        if(concurrency <= 1) {
+            this.stream(bucket, directory, prefix, null, chunksize, listener, null, null);
+            return;
+        }
+        final ThreadPool pool = new SharedThreadPool(session.getHost(), "list", concurrency);
+        try {
+            final List<Future<Void>> partitions = new ArrayList<Future<Void>>();
+            // Objects of first level are returned directly with common prefixes submitted to pool
+            this.stream(bucket, directory, prefix, String.valueOf(Path.DELIMITER), chunksize, listener, pool, partitions);
+            for(Future<Void> future : partitions) {
+                try {
+                    future.get();
+                }
+                catch(InterruptedException e) {
+                    log.error("Listing objects failed with interrupt failure");
+                    throw new ConnectionCanceledException(e);
+                }
+                catch(ExecutionException e) {
+                    log.warn(String.format("Listing objects failed with execution failure %s", e.getMessage()));
+                    if(e.getCause() instanceof BackgroundException) {
+                        throw (BackgroundException) e.getCause();
+                    }
+                    throw new BackgroundException(e.getCause());
+                }
+            }
+        }
+        finally {
+            // Cancel future tasks
+            pool.shutdown(false);
+        }
+    }
+
+    private void stream(final Path bucket, final Path directory, final String prefix, final String delimiter, final int chunksize,
+                        final ListProgressListener listener, final ThreadPool pool, final List<Future<Void>> partitions) throws BackgroundException {
+        try {
+            String priorLastKey = null;
+            do {
+                final StorageObjectsChunk chunk = session.getClient().listObjectsChunked(
+                    bucket.isRoot() ? StringUtils.EMPTY : PathNormalizer.name(URIEncoder.encode(bucket.getName())), prefix, delimiter,
+                    chunksize, priorLastKey, false);
+                final AttributedList<Path> page = new AttributedList<Path>();
+                for(StorageObject object : chunk.getObjects()) {
+                    // Full path for keys of all levels
+                    final Path file = this.toPath(bucket, directory, object, null);
+                    if(null == file) {
+                        continue;
+                    }
+                    page.add(file);
+                }
+                for(String common : chunk.getCommonPrefixes()) {
+                    if(String.valueOf(Path.DELIMITER).equals(common)) {
+                        log.warn(String.format("Skipping prefix %s", common));
+                        continue;
+                    }
+                    final String partition = URLDecoder.decode(common, StandardCharsets.UTF_8.name());
+                    if(new Path(bucket, PathNormalizer.normalize(partition), EnumSet.of(Path.Type.directory)).equals(directory)) {
+                        continue;
+                    }
+                    partitions.add(pool.execute(new BackgroundExceptionCallable<Void>() {
+                        @Override
+                        public Void call() throws BackgroundException {
+                            stream(bucket, directory, partition, null, chunksize, listener, null, null);
+                            return null;
+                        }
+                    }));
+                }
+                synchronized(listener) {
+                    listener.chunk(directory, page);
+                }
+                priorLastKey = null != chunk.getPriorLastKey() ? URLDecoder.decode(chunk.getPriorLastKey(), StandardCharsets.UTF_8.name()) : null;
+            }
+            while(priorLastKey != null);
+        }
+        catch(UnsupportedEncodingException e) {
+            throw new DefaultIOExceptionMappingService().map("Listing directory {0} failed", e, directory);
+        }
+        catch(ServiceException e) {
+            throw new S3ExceptionMappingService().map("Listing directory {0} failed", e, directory);
+        }
+    }
+
+    /**
+     * @param delimiter Null for path with full key relative to bucket
+     * @return Null for placeholder of directory itself or key without name
+     */
+    private Path toPath(final Path bucket, final Path directory, final StorageObject object, final String delimiter) throws UnsupportedEncodingException {
+        final String key = PathNormalizer.normalize(URLDecoder.decode(object.getKey(), StandardCharsets.UTF_8.name()));
+        if(String.valueOf(Path.DELIMITER).equals(key)) {
+            log.warn(String.format("Skipping prefix %s", key));
+            return null;
+        }
+        if(new Path(bucket, key, EnumSet.of(Path.Type.directory)).equals(directory)) {
+            // Placeholder object, skip
+            return null;
+        }
+        final EnumSet<Path.Type> types = object.getKey().endsWith(String.valueOf(Path.DELIMITER))
+            ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file);
+        final PathAttributes attr = attributes.toAttributes(object);
+        // Copy bucket location
+        attr.setRegion(bucket.attributes().getRegion());
+        if(null == delimiter) {
+            return new Path(String.format("%s%s", bucket.getAbsolute(), key), types, attr);
+        }
+        return new Path(directory.isDirectory() ? directory : directory.getParent(), PathNormalizer.name(key), types, attr);
+    }
+
+    /**
+     * @return True if object is the placeholder of the directory
+     */
+    private boolean isPlaceholder(final Path bucket, final Path directory, final StorageObject object) throws UnsupportedEncodingException {
+        final String key = PathNormalizer.normalize(URLDecoder.decode(object.getKey(), StandardCharsets.UTF_8.name()));
+        return new Path(bucket, key, EnumSet.of(Path.Type.directory)).equals(directory);
+    }
 }
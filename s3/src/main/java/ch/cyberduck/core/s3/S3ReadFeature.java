@@ -27,6 +27,7 @@ import ch.cyberduck.core.http.HttpRange;
 import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.apache.commons.io.input.NullInputStream;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
 import org.jets3t.service.ServiceException;
 import org.jets3t.service.model.S3Object;
@@ -59,7 +60,8 @@ public class S3ReadFeature implements Read {
                 containerService.getKey(file),
                 null, // ifModifiedSince
                 null, // ifUnmodifiedSince
-                null, // ifMatch
+                // Fail with precondition for range of modified object
+                status.isAppend() && StringUtils.isNotBlank(status.getRemote().getETag()) ? new String[]{status.getRemote().getETag()} : null, // ifMatch
                 null, // ifNoneMatch
                 status.isAppend() ? range.getStart() : null,
                 status.isAppend() ? (range.getEnd() == -1 ? null : range.getEnd()) : null);
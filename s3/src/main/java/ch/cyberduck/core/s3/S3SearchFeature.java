@@ -21,13 +21,11 @@ import ch.cyberduck.core.Filter;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.features.Search;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 
-import java.util.HashSet;
-import java.util.Set;
-
 public class S3SearchFeature implements Search {
 
     private final S3Session session;
@@ -38,21 +36,34 @@ public class S3SearchFeature implements Search {
 
     @Override
     public AttributedList<Path> search(final Path workdir, final Filter<Path> regex, final ListProgressListener listener) throws BackgroundException {
-        final AttributedList<Path> objects;
+        final AttributedList<Path> objects = new AttributedList<>();
         try {
-            objects = new S3ObjectListService(session).list(workdir, listener, null,
-                PreferencesFactory.get().getInteger("s3.listing.chunksize"));
+            // Only retain matching keys of every page
+            new S3ObjectListService(session).stream(workdir, new ListProgressListener() {
+                @Override
+                public void chunk(final Path folder, final AttributedList<Path> list) throws ConnectionCanceledException {
+                    for(final Path f : list) {
+                        if(f.getName().contains(regex.toPattern().pattern())) {
+                            objects.add(f);
+                        }
+                    }
+                    listener.chunk(workdir, objects);
+                }
+
+                @Override
+                public ListProgressListener reset() {
+                    return this;
+                }
+
+                @Override
+                public void message(final String message) {
+                    listener.message(message);
+                }
+            }, PreferencesFactory.get().getInteger("s3.listing.chunksize"), PreferencesFactory.get().getInteger("s3.listing.concurrency"));
         }
         catch(NotfoundException e) {
             return AttributedList.emptyList();
         }
-        final Set<Path> removal = new HashSet<>();
-        for(final Path f : objects) {
-            if(!f.getName().contains(regex.toPattern().pattern())) {
-                removal.add(f);
-            }
-        }
-        objects.removeAll(removal);
         return objects;
     }
 
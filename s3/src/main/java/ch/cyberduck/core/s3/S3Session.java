@@ -54,6 +54,7 @@ import ch.cyberduck.core.kms.KMSEncryptionFeature;
 import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.proxy.Proxy;
+import ch.cyberduck.core.shared.ConcurrentRangeReadFeature;
 import ch.cyberduck.core.shared.DelegatingSchedulerFeature;
 import ch.cyberduck.core.shared.DisabledBulkFeature;
 import ch.cyberduck.core.ssl.DefaultX509KeyManager;
@@ -269,7 +270,7 @@ public class S3Session extends HttpSession<RequestEntityRestStorageService> {
             return (T) new S3ListService(this);
         }
         if(type == Read.class) {
-            return (T) new S3ReadFeature(this);
+            return (T) new ConcurrentRangeReadFeature(host, new S3ReadFeature(this), new S3AttributesFinderFeature(this));
         }
         if(type == MultipartWrite.class) {
             if(S3Session.isAwsHostname(host.getHostname())) {
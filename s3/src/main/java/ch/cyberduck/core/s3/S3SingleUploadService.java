@@ -28,6 +28,7 @@ import ch.cyberduck.core.http.HttpUploadFeature;
 import ch.cyberduck.core.io.BandwidthThrottle;
 import ch.cyberduck.core.io.Checksum;
 import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.io.LocalChecksumCache;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
@@ -61,7 +62,7 @@ public class S3SingleUploadService extends HttpUploadFeature<StorageObject, Mess
             case AWS4HMACSHA256:
                 if(!HashAlgorithm.sha256.equals(status.getChecksum().algorithm)) {
                     // Checksum not set in upload filter
-                    status.setChecksum(writer.checksum(file, status).compute(local.getInputStream(), status));
+                    status.setChecksum(LocalChecksumCache.get().compute(writer.checksum(file, status), local, status));
                 }
                 break;
         }
@@ -31,8 +31,8 @@ import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.threading.BackgroundExceptionCallable;
+import ch.cyberduck.core.threading.SharedThreadPool;
 import ch.cyberduck.core.threading.ThreadPool;
-import ch.cyberduck.core.threading.ThreadPoolFactory;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
@@ -90,7 +90,7 @@ public class S3VersionedObjectListService extends S3AbstractListService implemen
 
     @Override
     public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
-        final ThreadPool pool = ThreadPoolFactory.get("list", concurrency);
+        final ThreadPool pool = new SharedThreadPool(session.getHost(), "list", concurrency);
         try {
             final String prefix = this.createPrefix(directory);
             final Path bucket = containerService.getContainer(directory);
@@ -0,0 +1,97 @@
+package ch.cyberduck.core.s3;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class S3MultipartUploadControllerTest {
+
+    private static final long MB = 1024L * 1024L;
+
+    @Test
+    public void testIncreaseWindow() throws Exception {
+        final S3MultipartUploadController controller = new S3MultipartUploadController(10 * MB, 2, 100 * MB, 4, 0);
+        long time = 0L;
+        for(int round = 1; round <= 4; round++) {
+            final int window = controller.getWindow();
+            for(int i = 0; i < window; i++) {
+                controller.acquire();
+            }
+            // Throughput improves with every round
+            for(int i = 0; i < window; i++) {
+                controller.complete(10 * MB, time, time + TimeUnit.SECONDS.toNanos(1));
+            }
+            time += TimeUnit.SECONDS.toNanos(1);
+        }
+        assertEquals(4, controller.getWindow());
+    }
+
+    @Test
+    public void testDecreaseWindow() throws Exception {
+        final S3MultipartUploadController controller = new S3MultipartUploadController(10 * MB, 8, 100 * MB, 8, 0);
+        for(int i = 0; i < 8; i++) {
+            controller.acquire();
+        }
+        controller.failure();
+        assertEquals(4, controller.getWindow());
+        for(int i = 0; i < 4; i++) {
+            controller.complete(10 * MB, 0L, TimeUnit.SECONDS.toNanos(1));
+        }
+        assertEquals(5, controller.getWindow());
+        // Throughput drop
+        for(int i = 0; i < 3; i++) {
+            controller.complete(MB, 0L, TimeUnit.SECONDS.toNanos(10));
+        }
+        controller.acquire();
+        controller.acquire();
+        controller.complete(MB, 0L, TimeUnit.SECONDS.toNanos(10));
+        controller.complete(MB, 0L, TimeUnit.SECONDS.toNanos(10));
+        assertEquals(3, controller.getWindow());
+    }
+
+    @Test
+    public void testPartsize() throws Exception {
+        final S3MultipartUploadController controller = new S3MultipartUploadController(10 * MB, 1, 40 * MB, 1, 10);
+        assertEquals(10 * MB, controller.partsize(100 * MB, 1));
+        assertEquals(5 * MB, controller.partsize(5 * MB, 1));
+        // Parts completing faster than target duration
+        controller.acquire();
+        controller.complete(10 * MB, 0L, TimeUnit.SECONDS.toNanos(1));
+        assertEquals(20 * MB, controller.partsize(100 * MB, 2));
+        controller.acquire();
+        controller.complete(20 * MB, 0L, TimeUnit.SECONDS.toNanos(1));
+        controller.acquire();
+        controller.complete(40 * MB, 0L, TimeUnit.SECONDS.toNanos(1));
+        assertEquals(40 * MB, controller.partsize(100 * MB, 4));
+        // Parts completing slower than target duration
+        controller.acquire();
+        controller.complete(40 * MB, 0L, TimeUnit.SECONDS.toNanos(20));
+        assertEquals(40 * MB, controller.partsize(100 * MB, 5));
+    }
+
+    @Test
+    public void testPartsizeMaximumParts() {
+        final S3MultipartUploadController controller = new S3MultipartUploadController(10 * MB, 1, 40 * MB, 1, 10);
+        // 500 GB in remaining 9'000 parts requires parts larger than 56 MB rounded to multiple of 10 MB
+        assertEquals(60 * MB, controller.partsize(500L * 1024L * MB, 1001));
+        assertEquals(10 * MB, controller.partsize(100 * MB, S3DefaultMultipartService.MAXIMUM_UPLOAD_PARTS - 9));
+        assertEquals(100 * MB, controller.partsize(100 * MB, S3DefaultMultipartService.MAXIMUM_UPLOAD_PARTS));
+    }
+}
@@ -19,6 +19,7 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.CountingInputStream;
 import org.apache.commons.lang3.RandomUtils;
 import org.apache.commons.text.RandomStringGenerator;
+import org.jets3t.service.model.MultipartUpload;
 import org.jets3t.service.model.S3Object;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -26,6 +27,7 @@ import org.junit.experimental.categories.Category;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.Map;
@@ -274,4 +276,33 @@ public class S3MultipartUploadServiceTest extends AbstractS3Test {
         new S3DefaultDeleteFeature(session).delete(Collections.singletonList(test), new DisabledLoginCallback(), new Delete.DisabledCallback());
         local.delete();
     }
+
+    @Test
+    public void testAppendAdaptiveAfterMissingPart() throws Exception {
+        final Path container = new Path("test-us-east-1-cyberduck", EnumSet.of(Path.Type.directory, Path.Type.volume));
+        final String name = UUID.randomUUID().toString();
+        final Path test = new Path(container, name, EnumSet.of(Path.Type.file));
+        final int partsize = 5 * 1024 * 1024;
+        final byte[] content = RandomUtils.nextBytes(3 * partsize);
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), name);
+        IOUtils.write(content, local.getOutputStream(false));
+        // Previous attempt completed first and third part only
+        final MultipartUpload multipart = session.getClient().multipartStartUpload(container.getName(), new S3Object(name));
+        session.getClient().multipartUploadPart(multipart, 1, new S3Object(name, Arrays.copyOfRange(content, 0, partsize)));
+        session.getClient().multipartUploadPart(multipart, 3, new S3Object(name, Arrays.copyOfRange(content, 2 * partsize, 3 * partsize)));
+        final TransferStatus append = new TransferStatus().append(true).length(partsize).skip(2L * partsize);
+        new S3MultipartUploadService(session, new S3WriteFeature(session, new S3DisabledMultipartService()), (long) partsize, 1, true).upload(
+            test, local, new BandwidthThrottle(BandwidthThrottle.UNLIMITED),
+            new DisabledStreamListener(), append,
+            new DisabledConnectionCallback());
+        assertTrue(append.isComplete());
+        assertEquals(content.length, new S3AttributesFinderFeature(session).find(test).getSize());
+        final byte[] buffer = new byte[content.length];
+        final InputStream in = new S3ReadFeature(session).read(test, new TransferStatus(), new DisabledConnectionCallback());
+        IOUtils.readFully(in, buffer);
+        in.close();
+        assertArrayEquals(content, buffer);
+        new S3DefaultDeleteFeature(session).delete(Collections.singletonList(test), new DisabledLoginCallback(), new Delete.DisabledCallback());
+        local.delete();
+    }
 }
@@ -23,6 +23,7 @@ import ch.cyberduck.core.DisabledLoginCallback;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.shared.DefaultFindFeature;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.test.IntegrationTest;
@@ -65,6 +66,57 @@ public class S3MultipleDeleteFeatureTest extends AbstractS3Test {
         assertFalse(new S3FindFeature(session).find(test));
     }
 
+    @Test
+    public void testDeleteRecursive() throws Exception {
+        final Path container = new Path("test-us-east-1-cyberduck", EnumSet.of(Path.Type.directory, Path.Type.volume));
+        final Path directory = new S3DirectoryFeature(session, new S3WriteFeature(session, new S3DisabledMultipartService())).mkdir(
+            new Path(container, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+        final List<Path> files = new ArrayList<Path>();
+        for(int i = 0; i < 5; i++) {
+            final Path child = new S3DirectoryFeature(session, new S3WriteFeature(session, new S3DisabledMultipartService())).mkdir(
+                new Path(directory, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+            files.add(child);
+            files.add(new S3TouchFeature(session).touch(new Path(child, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.file)), new TransferStatus()));
+        }
+        final S3MultipleDeleteFeature feature = new S3MultipleDeleteFeature(session, new S3DefaultMultipartService(session), true);
+        assertTrue(feature.isRecursive());
+        feature.delete(Collections.singletonList(directory), new DisabledLoginCallback(), new Delete.DisabledCallback());
+        for(Path file : files) {
+            assertFalse(new S3FindFeature(session).find(file));
+        }
+        assertFalse(new S3FindFeature(session).find(directory));
+    }
+
+    @Test
+    public void testDeleteRecursiveManyPrefixes() throws Exception {
+        final Path container = new Path("test-us-east-1-cyberduck", EnumSet.of(Path.Type.directory, Path.Type.volume));
+        final Path directory = new S3DirectoryFeature(session, new S3WriteFeature(session, new S3DisabledMultipartService())).mkdir(
+            new Path(container, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+        final List<Path> files = new ArrayList<Path>();
+        // More prefixes listed concurrently than connections per host
+        for(int i = 0; i < 25; i++) {
+            final Path child = new S3DirectoryFeature(session, new S3WriteFeature(session, new S3DisabledMultipartService())).mkdir(
+                new Path(directory, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+            files.add(child);
+            for(int j = 0; j < 2; j++) {
+                files.add(new S3TouchFeature(session).touch(new Path(child, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.file)), new TransferStatus()));
+            }
+        }
+        // More keys than in a single request
+        PreferencesFactory.get().setProperty("s3.delete.multiple.partition", 5);
+        try {
+            new S3MultipleDeleteFeature(session, new S3DefaultMultipartService(session), true).delete(
+                Collections.singletonList(directory), new DisabledLoginCallback(), new Delete.DisabledCallback());
+        }
+        finally {
+            PreferencesFactory.get().deleteProperty("s3.delete.multiple.partition");
+        }
+        for(Path file : files) {
+            assertFalse(new S3FindFeature(session).find(file));
+        }
+        assertFalse(new S3FindFeature(session).find(directory));
+    }
+
     @Test
     public void testDeleteVersionedPlaceholder() throws Exception {
         final Path container = new Path("versioning-test-us-east-1-cyberduck", EnumSet.of(Path.Type.directory, Path.Type.volume));
@@ -37,9 +37,12 @@ import org.junit.experimental.categories.Category;
 
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.Assert.*;
@@ -73,6 +76,32 @@ public class S3ObjectListServiceTest extends AbstractS3Test {
         assertFalse(new S3ObjectListService(session).list(bucket, new DisabledListProgressListener()).contains(directory));
     }
 
+    @Test
+    public void testStream() throws Exception {
+        final Path bucket = new Path("test-us-east-1-cyberduck", EnumSet.of(Path.Type.directory, Path.Type.volume));
+        final Path directory = new S3DirectoryFeature(session, new S3WriteFeature(session)).mkdir(new Path(bucket, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+        final Path child = new S3DirectoryFeature(session, new S3WriteFeature(session)).mkdir(new Path(directory, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+        final Path f1 = new S3TouchFeature(session).touch(new Path(directory, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.file)), new TransferStatus());
+        final Path f2 = new S3TouchFeature(session).touch(new Path(child, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.file)), new TransferStatus());
+        final Set<Path> sequential = new HashSet<>();
+        new S3ObjectListService(session).stream(directory, new DisabledListProgressListener() {
+            @Override
+            public void chunk(final Path folder, final AttributedList<Path> list) {
+                sequential.addAll(list.toList());
+            }
+        }, 1, 1);
+        assertEquals(new HashSet<>(Arrays.asList(child, f1, f2)), sequential);
+        final Set<Path> concurrent = new HashSet<>();
+        new S3ObjectListService(session).stream(directory, new DisabledListProgressListener() {
+            @Override
+            public void chunk(final Path folder, final AttributedList<Path> list) {
+                concurrent.addAll(list.toList());
+            }
+        }, 1, 4);
+        assertEquals(sequential, concurrent);
+        new S3DefaultDeleteFeature(session).delete(Arrays.asList(f2, f1, child, directory), new DisabledLoginCallback(), new Delete.DisabledCallback());
+    }
+
     @Test(expected = NotfoundException.class)
     public void testListNotFoundFolder() throws Exception {
         final Path container = new Path("test-us-east-1-cyberduck", EnumSet.of(Path.Type.volume));
@@ -100,6 +100,18 @@ public class DAVClient extends SardineImpl {
         return resources;
     }
 
+    /**
+     * Stream multistatus response
+     *
+     * @param callback Called for every response element as soon as it has been parsed
+     */
+    public void propfind(final String url, final int depth, final Propfind body, final SaxPropFindResponseHandler.ResponseCallback callback) throws IOException {
+        final HttpPropFind entity = new HttpPropFind(url);
+        entity.setDepth(depth < 0 ? "infinity" : Integer.toString(depth));
+        entity.setEntity(new StringEntity(SardineUtil.toXml(body), StandardCharsets.UTF_8));
+        this.execute(entity, new SaxPropFindResponseHandler(callback));
+    }
+
     @Override
     public ContentLengthStatusInputStream get(final String url, final List<Header> headers) throws IOException {
         HttpGet get = new HttpGet(url);
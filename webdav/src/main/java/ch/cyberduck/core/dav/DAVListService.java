@@ -24,54 +24,84 @@ import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
 import ch.cyberduck.core.PathNormalizer;
+import ch.cyberduck.core.RecursiveListService;
 import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.http.HttpExceptionMappingService;
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 
+import org.apache.http.HttpStatus;
 import org.apache.log4j.Logger;
+import org.xml.sax.SAXException;
 
 import java.io.IOException;
+import java.net.URISyntaxException;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.github.sardine.DavResource;
 import com.github.sardine.impl.SardineException;
+import com.github.sardine.model.Creationdate;
+import com.github.sardine.model.Displayname;
+import com.github.sardine.model.Getcontentlength;
+import com.github.sardine.model.Getcontenttype;
+import com.github.sardine.model.Getetag;
+import com.github.sardine.model.Getlastmodified;
+import com.github.sardine.model.Prop;
+import com.github.sardine.model.Propfind;
+import com.github.sardine.model.Resourcetype;
+import com.github.sardine.model.Response;
+import com.github.sardine.util.SardineUtil;
 
-public class DAVListService implements ListService {
+public class DAVListService implements RecursiveListService {
     private static final Logger log = Logger.getLogger(DAVListService.class);
 
+    private final Preferences preferences = PreferencesFactory.get();
+
     private final DAVSession session;
     private final DAVAttributesFinderFeature attributes;
 
+    /**
+     * Number of response elements parsed before notifying listener
+     */
+    private final int chunksize;
+
     public DAVListService(final DAVSession session) {
         this(session, new DAVAttributesFinderFeature(session));
     }
 
     public DAVListService(final DAVSession session, final DAVAttributesFinderFeature attributes) {
+        this(session, attributes, PreferencesFactory.get().getInteger("webdav.listing.chunksize"));
+    }
+
+    public DAVListService(final DAVSession session, final DAVAttributesFinderFeature attributes, final int chunksize) {
         this.session = session;
         this.attributes = attributes;
+        this.chunksize = chunksize;
     }
 
     @Override
     public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        if(preferences.getBoolean("webdav.list.handler.sax")) {
+            return this.stream(directory, listener);
+        }
         try {
             final AttributedList<Path> children = new AttributedList<Path>();
             for(final DavResource resource : this.list(directory)) {
-                // Try to parse as RFC 2396
-                final String href = PathNormalizer.normalize(resource.getHref().getPath(), true);
-                if(href.equals(directory.getAbsolute())) {
-                    log.warn(String.format("Ignore resource %s", href));
-                    // Do not include self
-                    if(resource.isDirectory()) {
-                        continue;
-                    }
-                    throw new NotfoundException(directory.getAbsolute());
+                final Path file = this.toPath(directory, resource);
+                if(null == file) {
+                    continue;
                 }
-                final PathAttributes attr = attributes.toAttributes(resource);
-                final Path file = new Path(directory, PathNormalizer.name(href),
-                    resource.isDirectory() ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file), attr);
                 children.add(file);
                 listener.chunk(directory, children);
             }
@@ -85,6 +115,81 @@ public class DAVListService implements ListService {
         }
     }
 
+    /**
+     * Add every response element to the listing as soon as it has been parsed without keeping the complete
+     * multistatus response in memory. The listener is notified after every chunk of entries
+     */
+    private AttributedList<Path> stream(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        final AttributedList<Path> children = new AttributedList<Path>();
+        // Entries added since listener was last notified
+        final AtomicInteger pending = new AtomicInteger();
+        // Failure in callback passed through parser
+        final AtomicReference<BackgroundException> failure = new AtomicReference<>();
+        try {
+            this.propfind(directory, new SaxPropFindResponseHandler.ResponseCallback() {
+                @Override
+                public void response(final Response response) throws SAXException {
+                    final DavResource resource;
+                    try {
+                        resource = new DavResource(response);
+                    }
+                    catch(URISyntaxException e) {
+                        log.warn(String.format("Ignore resource with invalid URI %s", response.getHref().get(0)));
+                        return;
+                    }
+                    try {
+                        final Path file = toPath(directory, resource);
+                        if(null == file) {
+                            return;
+                        }
+                        children.add(file);
+                        if(pending.incrementAndGet() >= chunksize) {
+                            pending.set(0);
+                            listener.chunk(directory, children);
+                        }
+                    }
+                    catch(BackgroundException e) {
+                        failure.set(e);
+                        throw new SAXException(e);
+                    }
+                }
+            });
+            if(pending.get() > 0) {
+                listener.chunk(directory, children);
+            }
+            return children;
+        }
+        catch(SardineException e) {
+            throw new DAVExceptionMappingService().map("Listing directory {0} failed", e, directory);
+        }
+        catch(IOException e) {
+            if(failure.get() != null) {
+                throw failure.get();
+            }
+            throw new HttpExceptionMappingService().map(e, directory);
+        }
+    }
+
+    /**
+     * @return Null for directory itself
+     * @throws NotfoundException When listing a file
+     */
+    private Path toPath(final Path directory, final DavResource resource) throws BackgroundException {
+        // Try to parse as RFC 2396
+        final String href = PathNormalizer.normalize(resource.getHref().getPath(), true);
+        if(href.equals(directory.getAbsolute())) {
+            log.warn(String.format("Ignore resource %s", href));
+            // Do not include self
+            if(resource.isDirectory()) {
+                return null;
+            }
+            throw new NotfoundException(directory.getAbsolute());
+        }
+        final PathAttributes attr = attributes.toAttributes(resource);
+        return new Path(directory, PathNormalizer.name(href),
+            resource.isDirectory() ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file), attr);
+    }
+
     protected List<DavResource> list(final Path directory) throws IOException {
         return session.getClient().list(new DAVPathEncoder().encode(directory), 1,
             Stream.of(
@@ -93,6 +198,148 @@ public class DAVListService implements ListService {
                 collect(Collectors.toSet()));
     }
 
+    @Override
+    public boolean isRecursive(final Path directory) {
+        final String value = preferences.getProperty(String.format("webdav.list.recursive.%s", session.getHost().getHostname()));
+        if(null == value) {
+            return preferences.getBoolean("webdav.list.recursive");
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    /**
+     * List with <code>Depth: infinity</code>. Falls back to listing the directory only when rejected by the server
+     * or when the server silently answers with depth 1 which is remembered for the host. After every chunk of
+     * entries, the listener is notified once for each directory with entries added.
+     */
+    @Override
+    public AttributedList<Path> list(final Path directory, final ListProgressListener listener, final Cache<Path> cache) throws BackgroundException {
+        // Directories by absolute path to resolve parent of response
+        final Map<String, Path> directories = new HashMap<>();
+        directories.put(directory.getAbsolute(), directory);
+        final Map<Path, AttributedList<Path>> listings = new HashMap<>();
+        listings.put(directory, new AttributedList<Path>());
+        // Directories with entries added since listener was last notified
+        final Set<Path> pending = new LinkedHashSet<>();
+        final AtomicInteger count = new AtomicInteger();
+        // Failure in callback passed through parser
+        final AtomicReference<BackgroundException> failure = new AtomicReference<>();
+        try {
+            this.propfind(directory, -1, new SaxPropFindResponseHandler.ResponseCallback() {
+                @Override
+                public void response(final Response response) throws SAXException {
+                    final DavResource resource;
+                    try {
+                        resource = new DavResource(response);
+                    }
+                    catch(URISyntaxException e) {
+                        log.warn(String.format("Ignore resource with invalid URI %s", response.getHref().get(0)));
+                        return;
+                    }
+                    try {
+                        final String href = PathNormalizer.normalize(resource.getHref().getPath(), true);
+                        if(href.equals(directory.getAbsolute())) {
+                            // Do not include self
+                            if(resource.isDirectory()) {
+                                return;
+                            }
+                            throw new NotfoundException(directory.getAbsolute());
+                        }
+                        final Path parent = directories.computeIfAbsent(PathNormalizer.parent(href, Path.DELIMITER),
+                            absolute -> new Path(absolute, EnumSet.of(Path.Type.directory)));
+                        final Path file = new Path(parent, PathNormalizer.name(href),
+                            resource.isDirectory() ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file), attributes.toAttributes(resource));
+                        if(file.isDirectory()) {
+                            directories.putIfAbsent(href, file);
+                        }
+                        final AttributedList<Path> children = listings.computeIfAbsent(parent, key -> new AttributedList<Path>());
+                        children.add(file);
+                        pending.add(parent);
+                        if(count.incrementAndGet() >= chunksize) {
+                            count.set(0);
+                            notify(listener, pending, listings);
+                        }
+                    }
+                    catch(BackgroundException e) {
+                        failure.set(e);
+                        throw new SAXException(e);
+                    }
+                }
+            });
+        }
+        catch(SardineException e) {
+            switch(e.getStatusCode()) {
+                case HttpStatus.SC_BAD_REQUEST:
+                case HttpStatus.SC_FORBIDDEN:
+                case HttpStatus.SC_NOT_IMPLEMENTED:
+                    // Possibly propfind-finite-depth precondition
+                    log.warn(String.format("Disable recursive listing for %s after failure %s", session.getHost(), e.getMessage()));
+                    preferences.setProperty(String.format("webdav.list.recursive.%s", session.getHost().getHostname()), false);
+                    return this.list(directory, listener);
+            }
+            throw new DAVExceptionMappingService().map("Listing directory {0} failed", e, directory);
+        }
+        catch(IOException e) {
+            if(failure.get() != null) {
+                throw failure.get();
+            }
+            throw new HttpExceptionMappingService().map(e, directory);
+        }
+        notify(listener, pending, listings);
+        if(listings.size() == 1 && directories.size() > 1) {
+            // No response below depth 1 for any subdirectory. Depth header ignored by server
+            log.warn(String.format("Disable recursive listing for %s with no response below depth 1", session.getHost()));
+            preferences.setProperty(String.format("webdav.list.recursive.%s", session.getHost().getHostname()), false);
+            return listings.get(directory);
+        }
+        // Only cache directories proven expanded by an entry below. Empty directories are listed again
+        for(Map.Entry<Path, AttributedList<Path>> entry : listings.entrySet()) {
+            if(entry.getKey() == directory) {
+                continue;
+            }
+            cache.put(entry.getKey(), entry.getValue());
+        }
+        if(log.isInfoEnabled()) {
+            log.info(String.format("Retrieved listings of %d directories with recursive listing of %s", listings.size(), directory));
+        }
+        return listings.get(directory);
+    }
+
+    /**
+     * Notify listener with listings of directories with entries added and clear pending directories
+     */
+    private static void notify(final ListProgressListener listener, final Set<Path> pending,
+                               final Map<Path, AttributedList<Path>> listings) throws ConnectionCanceledException {
+        for(Path parent : pending) {
+            listener.chunk(parent, listings.get(parent));
+        }
+        pending.clear();
+    }
+
+    protected void propfind(final Path directory, final SaxPropFindResponseHandler.ResponseCallback callback) throws IOException {
+        this.propfind(directory, 1, callback);
+    }
+
+    /**
+     * @param depth    Negative for infinity
+     * @param callback Receives response elements of multistatus response
+     */
+    protected void propfind(final Path directory, final int depth, final SaxPropFindResponseHandler.ResponseCallback callback) throws IOException {
+        final Prop prop = new Prop();
+        prop.setGetcontentlength(new Getcontentlength());
+        prop.setGetlastmodified(new Getlastmodified());
+        prop.setCreationdate(new Creationdate());
+        prop.setDisplayname(new Displayname());
+        prop.setGetcontenttype(new Getcontenttype());
+        prop.setResourcetype(new Resourcetype());
+        prop.setGetetag(new Getetag());
+        prop.getAny().add(SardineUtil.createElement(DAVTimestampFeature.LAST_MODIFIED_CUSTOM_NAMESPACE));
+        prop.getAny().add(SardineUtil.createElement(DAVTimestampFeature.LAST_MODIFIED_SERVER_CUSTOM_NAMESPACE));
+        final Propfind body = new Propfind();
+        body.setProp(prop);
+        session.getClient().propfind(new DAVPathEncoder().encode(directory), depth, body, callback);
+    }
+
     @Override
     public ListService withCache(final Cache<Path> cache) {
         return this;
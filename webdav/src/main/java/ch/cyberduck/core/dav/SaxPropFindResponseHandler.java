@@ -40,6 +40,20 @@ import com.github.sardine.util.SardineUtil;
 public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
     private static final Logger log = Logger.getLogger(SaxPropFindResponseHandler.class);
 
+    private final ResponseCallback callback;
+
+    public SaxPropFindResponseHandler() {
+        this(null);
+    }
+
+    /**
+     * @param callback Receives every response element when parsed instead of collecting all responses in the
+     *                 returned multistatus
+     */
+    public SaxPropFindResponseHandler(final ResponseCallback callback) {
+        this.callback = callback;
+    }
+
     @Override
     protected Multistatus getMultistatus(final InputStream stream) throws IOException {
         final SAXParserFactory spf = SAXParserFactory.newInstance();
@@ -47,7 +61,7 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         try {
             final SAXParser saxParser = spf.newSAXParser();
             final XMLReader xmlReader = saxParser.getXMLReader();
-            final SaxHandler handler = new SaxHandler();
+            final SaxHandler handler = new SaxHandler(callback);
             xmlReader.setContentHandler(handler);
             xmlReader.setErrorHandler(new LoggingErrorHandler());
             xmlReader.parse(new InputSource(stream));
@@ -58,8 +72,14 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         }
     }
 
+    public interface ResponseCallback {
+        void response(Response response) throws SAXException;
+    }
+
     private static final class SaxHandler extends DefaultHandler {
 
+        private final ResponseCallback callback;
+
         private Multistatus multistatus;
         private Response response;
         private Propstat propstat;
@@ -72,6 +92,10 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         private final StringBuilder text = new StringBuilder();
         private final Element root = SardineUtil.createElement(SardineUtil.createQNameWithCustomNamespace("root"));
 
+        public SaxHandler(final ResponseCallback callback) {
+            this.callback = callback;
+        }
+
         @Override
         public void startElement(final String uri, final String localName, final String qName, final Attributes attributes) {
             switch(localName) {
@@ -80,7 +104,7 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
                     break;
                 case "response":
                     response = new Response();
-                    if(multistatus != null) {
+                    if(multistatus != null && null == callback) {
                         multistatus.getResponse().add(response);
                     }
                     break;
@@ -134,7 +158,16 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         }
 
         @Override
-        public void endElement(final String uri, final String localName, final String qName) {
+        public void endElement(final String uri, final String localName, final String qName) throws SAXException {
+            if(callback != null) {
+                if("response".equals(localName) && response != null) {
+                    // Pass on without retaining reference
+                    final Response complete = response;
+                    response = null;
+                    callback.response(complete);
+                    return;
+                }
+            }
             if(StringUtils.isBlank(text.toString())) {
                 return;
             }
@@ -20,11 +20,14 @@ import ch.cyberduck.core.dav.DAVAttributesFinderFeature;
 import ch.cyberduck.core.dav.DAVListService;
 import ch.cyberduck.core.dav.DAVPathEncoder;
 import ch.cyberduck.core.dav.DAVSession;
+import ch.cyberduck.core.dav.SaxPropFindResponseHandler;
 
 import java.io.IOException;
 import java.util.List;
 
 import com.github.sardine.DavResource;
+import com.github.sardine.model.Allprop;
+import com.github.sardine.model.Propfind;
 
 public class MicrosoftIISDAVListService extends DAVListService {
 
@@ -39,4 +42,11 @@ public class MicrosoftIISDAVListService extends DAVListService {
     protected List<DavResource> list(final Path directory) throws IOException {
         return session.getClient().list(new DAVPathEncoder().encode(directory), 1, true);
     }
+
+    @Override
+    protected void propfind(final Path directory, final int depth, final SaxPropFindResponseHandler.ResponseCallback callback) throws IOException {
+        final Propfind body = new Propfind();
+        body.setAllprop(new Allprop());
+        session.getClient().propfind(new DAVPathEncoder().encode(directory), depth, body, callback);
+    }
 }
@@ -25,6 +25,7 @@ import ch.cyberduck.core.DisabledListProgressListener;
 import ch.cyberduck.core.DisabledLoginCallback;
 import ch.cyberduck.core.Host;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathCache;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.io.Checksum;
 import ch.cyberduck.core.preferences.PreferencesFactory;
@@ -89,6 +90,30 @@ public class DAVListServiceTest extends AbstractDAVTest {
         session.close();
     }
 
+    @Test
+    public void testListRecursive() throws Exception {
+        final Host host = new Host(new DAVSSLProtocol(), "svn.cyberduck.ch", new Credentials(
+            PreferencesFactory.get().getProperty("connection.login.anon.name"), null
+        ));
+        final DAVSession session = new DAVSession(host, new DisabledX509TrustManager(), new DefaultX509KeyManager());
+        assertNotNull(session.open(Proxy.DIRECT, new DisabledHostKeyCallback(), new DisabledLoginCallback()));
+        assertTrue(session.isConnected());
+        assertNotNull(session.getClient());
+        session.login(Proxy.DIRECT, new DisabledLoginCallback(), new DisabledCancelCallback());
+        final Path directory = new Path("/trunk", EnumSet.of(Path.Type.directory, Path.Type.volume));
+        final PathCache cache = new PathCache(Integer.MAX_VALUE);
+        final AttributedList<Path> list = new DAVListService(session).list(directory, new DisabledListProgressListener(), cache);
+        assertEquals(new DAVListService(session).list(directory, new DisabledListProgressListener()), list);
+        for(Path p : list) {
+            assertEquals(directory, p.getParent());
+            // Not cached when Depth: infinity is rejected by server
+            if(p.isDirectory() && cache.isCached(p)) {
+                assertEquals(new DAVListService(session).list(p, new DisabledListProgressListener()), cache.get(p));
+            }
+        }
+        session.close();
+    }
+
     @Test(expected = NotfoundException.class)
     public void testListFileException() throws Exception {
         final Host host = new Host(new DAVSSLProtocol(), "svn.cyberduck.ch", new Credentials(
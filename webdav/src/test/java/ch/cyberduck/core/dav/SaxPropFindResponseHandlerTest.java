@@ -0,0 +1,88 @@
+package ch.cyberduck.core.dav;
+
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+import org.xml.sax.SAXException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.sardine.DavResource;
+import com.github.sardine.model.Multistatus;
+import com.github.sardine.model.Response;
+
+import static org.junit.Assert.*;
+
+public class SaxPropFindResponseHandlerTest {
+
+    private static final String MULTISTATUS = "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" +
+        "<d:multistatus xmlns:d=\"DAV:\">\n" +
+        " <d:response>\n" +
+        "  <d:href>/d/</d:href>\n" +
+        "  <d:propstat>\n" +
+        "   <d:prop><d:resourcetype><d:collection/></d:resourcetype></d:prop>\n" +
+        "   <d:status>HTTP/1.1 200 OK</d:status>\n" +
+        "  </d:propstat>\n" +
+        " </d:response>\n" +
+        " <d:response>\n" +
+        "  <d:href>/d/f</d:href>\n" +
+        "  <d:propstat>\n" +
+        "   <d:prop>\n" +
+        "    <d:getcontentlength>3</d:getcontentlength>\n" +
+        "    <d:getetag>\"e\"</d:getetag>\n" +
+        "    <d:resourcetype/>\n" +
+        "   </d:prop>\n" +
+        "   <d:status>HTTP/1.1 200 OK</d:status>\n" +
+        "  </d:propstat>\n" +
+        " </d:response>\n" +
+        "</d:multistatus>";
+
+    @Test
+    public void testCallback() throws Exception {
+        final List<DavResource> resources = new ArrayList<>();
+        final Multistatus multistatus = new SaxPropFindResponseHandler(new SaxPropFindResponseHandler.ResponseCallback() {
+            @Override
+            public void response(final Response response) throws SAXException {
+                try {
+                    resources.add(new DavResource(response));
+                }
+                catch(Exception e) {
+                    throw new SAXException(e);
+                }
+            }
+        }).getMultistatus(new ByteArrayInputStream(MULTISTATUS.getBytes(StandardCharsets.UTF_8)));
+        // Responses not retained
+        assertTrue(multistatus.getResponse().isEmpty());
+        assertEquals(2, resources.size());
+        assertEquals("/d/", resources.get(0).getHref().getPath());
+        assertTrue(resources.get(0).isDirectory());
+        assertEquals("/d/f", resources.get(1).getHref().getPath());
+        assertFalse(resources.get(1).isDirectory());
+        assertEquals(Long.valueOf(3L), resources.get(1).getContentLength());
+        assertEquals("\"e\"", resources.get(1).getEtag());
+    }
+
+    @Test
+    public void testMultistatus() throws Exception {
+        final Multistatus multistatus = new SaxPropFindResponseHandler()
+            .getMultistatus(new ByteArrayInputStream(MULTISTATUS.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(2, multistatus.getResponse().size());
+    }
+}